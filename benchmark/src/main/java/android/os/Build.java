@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * Stand-in for the framework Build. Reports the oldest platform, so that
+ * nothing takes a path which needs newer framework classes.
+ */
+public class Build {
+
+	public static class VERSION {
+		public static final int SDK_INT = 0;
+	}
+
+	public static class VERSION_CODES {
+		public static final int JELLY_BEAN = 16;
+	}
+
+}
@@ -0,0 +1,28 @@
+package android.view;
+
+/**
+ * Stand-in for the framework Choreographer. Frame callbacks are dropped,
+ * benchmarks drive frames themselves.
+ */
+public final class Choreographer {
+
+	public interface FrameCallback {
+		public void doFrame(long frameTimeNanos);
+	}
+
+	private static final Choreographer INSTANCE = new Choreographer();
+
+	public static Choreographer getInstance() {
+		return INSTANCE;
+	}
+
+	public void postFrameCallback(FrameCallback callback) {
+	}
+
+	public void postFrameCallbackDelayed(FrameCallback callback, long delayMillis) {
+	}
+
+	public void removeFrameCallback(FrameCallback callback) {
+	}
+
+}
@@ -0,0 +1,17 @@
+package android.view;
+
+/**
+ * Stand-in for the framework View, with only what the benchmarked code uses.
+ * Posted Runnables are dropped, benchmarks drive frames themselves.
+ */
+public class View {
+
+	public boolean postDelayed(Runnable action, long delayMillis) {
+		return true;
+	}
+
+	public boolean removeCallbacks(Runnable action) {
+		return true;
+	}
+
+}
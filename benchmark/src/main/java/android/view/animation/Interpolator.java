@@ -0,0 +1,10 @@
+package android.view.animation;
+
+/**
+ * Stand-in for the framework Interpolator.
+ */
+public interface Interpolator {
+
+	public float getInterpolation(float input);
+
+}
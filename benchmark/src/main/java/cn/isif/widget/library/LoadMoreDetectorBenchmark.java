@@ -0,0 +1,64 @@
+package cn.isif.widget.library;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the load more check ListViewPlus.onScroll() does for every scroll event,
+ * scrolling a list to the end while pages are appended to it. scores are per
+ * onScroll call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadMoreDetectorBenchmark {
+
+	static final int PAGE_SIZE = 20;
+	static final int PAGES = 10;
+	static final int VISIBLE_ITEMS = 8;
+	// the list's own footer view
+	static final int FOOTERS = 1;
+	static final int SCROLLS = PAGE_SIZE * PAGES;
+
+	private LoadMoreDetector detector;
+
+	@Setup
+	public void setUp() {
+		detector = new LoadMoreDetector();
+		detector.setPrefetchDistance(5);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SCROLLS)
+	public int scrollToEnd() {
+		detector.reset();
+		int items = PAGE_SIZE;
+		int loads = 0;
+
+		for (int first = 0; first < SCROLLS; first++) {
+			final int total = items + FOOTERS;
+			if (detector.onScroll(first, Math.min(VISIBLE_ITEMS, total - first), total)) {
+				// auto load more, the page arrives straight away
+				detector.consume();
+				items += PAGE_SIZE;
+				loads++;
+			}
+		}
+		return loads;
+	}
+
+}
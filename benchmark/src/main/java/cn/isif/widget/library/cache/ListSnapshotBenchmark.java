@@ -0,0 +1,201 @@
+package cn.isif.widget.library.cache;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and restoring the 10k rows of a list as a ListSnapshot, against the
+ * same rows as JSON with org.json, which is what Android ships. Both go
+ * through a file. Scores are per save or restore of the whole list, except
+ * readSnapshotFirstScreen which only reads the rows of the first screen, as
+ * SnapshotStore does before reading the rest; JSON has to be parsed whole
+ * before any row can be shown.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListSnapshotBenchmark {
+
+	static final int ROWS = 10000;
+	static final int FIRST_SCREEN = 20;
+
+	static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * A typical feed row.
+	 */
+	static final class Row {
+		final long id;
+		final String title;
+		final String summary;
+		final String imageUrl;
+		final int likes;
+		final long updatedAt;
+
+		Row(long id, String title, String summary, String imageUrl, int likes, long updatedAt) {
+			this.id = id;
+			this.title = title;
+			this.summary = summary;
+			this.imageUrl = imageUrl;
+			this.likes = likes;
+			this.updatedAt = updatedAt;
+		}
+	}
+
+	static final ListSnapshot.RecordCodec<Row> CODEC = new ListSnapshot.RecordCodec<Row>() {
+		@Override
+		public int getVersion() {
+			return 1;
+		}
+
+		@Override
+		public void encode(Row item, ByteBuffer out) {
+			out.putLong(item.id);
+			ListSnapshot.putString(out, item.title);
+			ListSnapshot.putString(out, item.summary);
+			ListSnapshot.putString(out, item.imageUrl);
+			out.putInt(item.likes);
+			out.putLong(item.updatedAt);
+		}
+
+		@Override
+		public Row decode(ByteBuffer in) {
+			return new Row(in.getLong(), ListSnapshot.getString(in), ListSnapshot.getString(in),
+					ListSnapshot.getString(in), in.getInt(), in.getLong());
+		}
+	};
+
+	private List<Row> rows;
+	private File snapshotFile;
+	private File jsonFile;
+	// written once, for the read benchmarks
+	private File snapshotInput;
+	private File jsonInput;
+
+	@Setup
+	public void setUp() throws Exception {
+		rows = new ArrayList<Row>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(new Row(1000000L + i, "Row number " + i, "A line or two of text under the title of row " + i
+					+ ", as a feed would show", "https://example.com/images/" + i + ".jpg", i * 7 % 1000,
+					1450000000000L + i * 60000L));
+		}
+		snapshotFile = File.createTempFile("rows", ".snapshot");
+		jsonFile = File.createTempFile("rows", ".json");
+		snapshotInput = File.createTempFile("rows-input", ".snapshot");
+		jsonInput = File.createTempFile("rows-input", ".json");
+		ListSnapshot.write(snapshotInput, rows, CODEC);
+		writeJson(jsonInput, rows);
+	}
+
+	@TearDown
+	public void tearDown() {
+		snapshotFile.delete();
+		jsonFile.delete();
+		snapshotInput.delete();
+		jsonInput.delete();
+	}
+
+	@Benchmark
+	public File writeSnapshot() throws IOException {
+		ListSnapshot.write(snapshotFile, rows, CODEC);
+		return snapshotFile;
+	}
+
+	@Benchmark
+	public File writeJson() throws Exception {
+		writeJson(jsonFile, rows);
+		return jsonFile;
+	}
+
+	@Benchmark
+	public List<Row> readSnapshot() throws IOException {
+		return ListSnapshot.open(snapshotInput, CODEC).readAll();
+	}
+
+	@Benchmark
+	public List<Row> readSnapshotFirstScreen() throws IOException {
+		final ArrayList<Row> firstScreen = new ArrayList<Row>(FIRST_SCREEN);
+		ListSnapshot.open(snapshotInput, CODEC).read(firstScreen, FIRST_SCREEN);
+		return firstScreen;
+	}
+
+	@Benchmark
+	public List<Row> readJson() throws Exception {
+		return readJson(jsonInput);
+	}
+
+	static void writeJson(File file, List<Row> rows) throws JSONException, IOException {
+		final JSONArray array = new JSONArray();
+		for (int i = 0, z = rows.size(); i < z; i++) {
+			final Row row = rows.get(i);
+			final JSONObject object = new JSONObject();
+			object.put("id", row.id);
+			object.put("title", row.title);
+			object.put("summary", row.summary);
+			object.put("imageUrl", row.imageUrl);
+			object.put("likes", row.likes);
+			object.put("updatedAt", row.updatedAt);
+			array.put(object);
+		}
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(array.toString().getBytes(UTF_8));
+			out.getFD().sync();
+		} finally {
+			out.close();
+		}
+	}
+
+	static List<Row> readJson(File file) throws JSONException, IOException {
+		final byte[] bytes = new byte[(int) file.length()];
+		final FileInputStream in = new FileInputStream(file);
+		try {
+			int read = 0;
+			while (read < bytes.length) {
+				final int n = in.read(bytes, read, bytes.length - read);
+				if (n < 0) {
+					throw new IOException("File cut short");
+				}
+				read += n;
+			}
+		} finally {
+			in.close();
+		}
+
+		final JSONArray array = new JSONArray(new String(bytes, UTF_8));
+		final ArrayList<Row> rows = new ArrayList<Row>(array.length());
+		for (int i = 0, z = array.length(); i < z; i++) {
+			final JSONObject object = array.getJSONObject(i);
+			rows.add(new Row(object.getLong("id"), object.getString("title"), object.getString("summary"),
+					object.getString("imageUrl"), object.getInt("likes"), object.getLong("updatedAt")));
+		}
+		return rows;
+	}
+
+}
@@ -0,0 +1,87 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The decisions OverscrollHelper.overScrollBy() makes for each overScrollBy
+ * call of a fling which runs past both edges of a ScrollView. Scores are per
+ * call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverscrollBenchmark {
+
+	static final int CALLS = 128;
+
+	static final int SCROLL_RANGE = 2000;
+
+	// As used by PullToRefreshWebView
+	static final int FUZZY_THRESHOLD = 2;
+
+	static final float SCALE_FACTOR = 1f;
+
+	private final int[] mDelta = new int[CALLS];
+	private final int[] mScroll = new int[CALLS];
+
+	@Setup
+	public void setUp() {
+		// Fling from just before the end, out past it and back, then the same
+		// at the start
+		for (int i = 0; i < CALLS; i++) {
+			final int half = CALLS / 2;
+			final int step = i % half;
+			final int delta = step < half / 2 ? 40 - step : -(step - half / 2);
+			if (i < half) {
+				mScroll[i] = SCROLL_RANGE - 100 + step * 4;
+				mDelta[i] = delta;
+			} else {
+				mScroll[i] = 100 - step * 4;
+				mDelta[i] = -delta;
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CALLS)
+	public int overScrollBy(Blackhole blackhole) {
+		int currentScrollValue = 0;
+		int resets = 0;
+
+		for (int i = 0; i < CALLS; i++) {
+			final int newScrollValue = mDelta[i] + mScroll[i];
+			final int direction = PullMath.overScrollDirection(newScrollValue, SCROLL_RANGE, FUZZY_THRESHOLD);
+
+			switch (direction) {
+				case PullMath.OVERSCROLL_START:
+				case PullMath.OVERSCROLL_END:
+					currentScrollValue = PullMath.overScrollHeaderValue(direction, currentScrollValue,
+							newScrollValue, SCROLL_RANGE, SCALE_FACTOR);
+					blackhole.consume(currentScrollValue);
+					break;
+				case PullMath.OVERSCROLL_FINISHED:
+					currentScrollValue = 0;
+					resets++;
+					break;
+			}
+		}
+		return resets;
+	}
+
+}
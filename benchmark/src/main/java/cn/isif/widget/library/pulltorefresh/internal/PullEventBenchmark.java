@@ -0,0 +1,93 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work PullToRefreshBase.pullEvent() does for each move event of a drag,
+ * apart from moving the Views: the scroll value, the pull scale and the
+ * PULL_TO_REFRESH / RELEASE_TO_REFRESH transitions. Scores are per move event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PullEventBenchmark {
+
+	static final int MOVES = 64;
+
+	// Same as PullToRefreshBase.FRICTION
+	static final float FRICTION = 2.0f;
+
+	static final int HEADER_SIZE = 150;
+
+	static final float INITIAL_MOTION = 100f;
+
+	static final int RESET = 0;
+	static final int PULL_TO_REFRESH = 1;
+	static final int RELEASE_TO_REFRESH = 2;
+
+	private final float[] mMotion = new float[MOVES];
+
+	@Setup
+	public void setUp() {
+		// Drag 600px away from the start, then halfway back
+		for (int i = 0; i < MOVES; i++) {
+			final float progress = i < MOVES * 3 / 4 ? i / (MOVES * 0.75f) : 1f - (i - MOVES * 0.75f) / MOVES * 2f;
+			mMotion[i] = INITIAL_MOTION + progress * 600f;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MOVES)
+	public int pullFromStart(Blackhole blackhole) {
+		return drag(false, blackhole);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MOVES)
+	public int pullFromEnd(Blackhole blackhole) {
+		return drag(true, blackhole);
+	}
+
+	private int drag(boolean fromEnd, Blackhole blackhole) {
+		int state = RESET;
+		int transitions = 0;
+
+		for (int i = 0; i < MOVES; i++) {
+			// Pulling from the end moves the pointer the other way
+			final float motion = fromEnd ? 2 * INITIAL_MOTION - mMotion[i] : mMotion[i];
+			final int scrollValue = PullMath.pullScrollValue(INITIAL_MOTION, motion, fromEnd, FRICTION);
+			blackhole.consume(scrollValue);
+
+			if (scrollValue != 0) {
+				blackhole.consume(PullMath.pullScale(scrollValue, HEADER_SIZE));
+
+				final boolean pastThreshold = PullMath.isPastRefreshThreshold(scrollValue, HEADER_SIZE);
+				if (state != PULL_TO_REFRESH && !pastThreshold) {
+					state = PULL_TO_REFRESH;
+					transitions++;
+				} else if (state == PULL_TO_REFRESH && pastThreshold) {
+					state = RELEASE_TO_REFRESH;
+					transitions++;
+				}
+			}
+		}
+		return transitions;
+	}
+
+}
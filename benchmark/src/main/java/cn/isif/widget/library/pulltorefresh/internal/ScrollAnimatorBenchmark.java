@@ -0,0 +1,82 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import android.view.View;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole smooth scroll of the header back from a pull, the way
+ * PullToRefreshBase runs it through ScrollAnimator, with frames 16ms apart.
+ * Scores are per animation, from start to the last frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScrollAnimatorBenchmark {
+
+	static final long FRAME_NANOS = 16000000L;
+
+	// Same as PullToRefreshBase.SMOOTH_SCROLL_DURATION_MS
+	static final int DURATION_MS = 200;
+
+	static final int FROM = -300;
+
+	private ScrollAnimator mAnimator;
+	private int mLastValue;
+
+	@Setup
+	public void setUp() {
+		mAnimator = new ScrollAnimator(new View(), new ScrollAnimator.Callback() {
+			@Override
+			public void onAnimationUpdate(int value) {
+				mLastValue = value;
+			}
+
+			@Override
+			public void onAnimationFinished() {
+			}
+		});
+	}
+
+	@Benchmark
+	public int interpolated() {
+		mAnimator.start(FROM, 0, DURATION_MS);
+		return runFrames();
+	}
+
+	@Benchmark
+	public int spring() {
+		mAnimator.startSpring(FROM, 0, 0f);
+		return runFrames();
+	}
+
+	@Benchmark
+	public int springAfterFling() {
+		mAnimator.startSpring(FROM, 0, 3000f);
+		return runFrames();
+	}
+
+	private int runFrames() {
+		long frameTime = 0;
+		while (mAnimator.isRunning()) {
+			mAnimator.doFrame(frameTime);
+			frameTime += FRAME_NANOS;
+		}
+		return mLastValue;
+	}
+
+}
@@ -0,0 +1,67 @@
+package cn.isif.widget.library;
+
+import android.view.View;
+
+/**
+ * runs an action on a view's thread after a delay, re-using one runnable.
+ * scheduling again while pending replaces the earlier request instead of
+ * stacking up another one, and a delay of 0 or less runs the action now.
+ */
+final class DelayedAction implements Runnable {
+
+	private final View view;
+	private final Runnable action;
+	private boolean pending = false;
+
+	DelayedAction(View view, Runnable action) {
+		this.view = view;
+		this.action = action;
+	}
+
+	/**
+	 * run the action after delayMillis, dropping any earlier request.
+	 */
+	void schedule(long delayMillis) {
+		cancel();
+		if (delayMillis <= 0) {
+			action.run();
+			return;
+		}
+		pending = true;
+		view.postDelayed(this, delayMillis);
+	}
+
+	/**
+	 * run the action once the view's thread gets back to its queue, dropping
+	 * any earlier request.
+	 */
+	void post() {
+		cancel();
+		pending = true;
+		view.post(this);
+	}
+
+	/**
+	 * @return true if the action was pending, and won't run now.
+	 */
+	boolean cancel() {
+		if (!pending) {
+			return false;
+		}
+		pending = false;
+		view.removeCallbacks(this);
+		return true;
+	}
+
+	boolean isPending() {
+		return pending;
+	}
+
+	@Override
+	public void run() {
+		if (pending) {
+			pending = false;
+			action.run();
+		}
+	}
+}
@@ -10,26 +10,53 @@ package cn.isif.widget.library;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Bundle;
+import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewTreeObserver.OnGlobalLayoutListener;
-import android.view.animation.DecelerateInterpolator;
 import android.widget.AbsListView;
 import android.widget.AbsListView.OnScrollListener;
 import android.widget.ListAdapter;
 import android.widget.ListView;
-import android.widget.Scroller;
+
+import cn.isif.widget.library.metrics.PullMetrics;
+import cn.isif.widget.library.metrics.PullMetricsListener;
+import cn.isif.widget.library.metrics.PullMetricsRecorder;
+import cn.isif.widget.library.metrics.RefreshLatencyRecorder;
+import cn.isif.widget.library.pulltorefresh.internal.DragTracker;
+import cn.isif.widget.library.pulltorefresh.internal.FlingPredictor;
+import cn.isif.widget.library.pulltorefresh.internal.ScrollAnimator;
+import cn.isif.widget.library.pulltorefresh.internal.Utils;
 
 
 public class ListViewPlus extends ListView implements OnScrollListener {
 
-	private float lastY = -1; // save event y
-	private Scroller scroller; // used for scroll back
+	private final DragTracker dragTracker = new DragTracker(); // follows the pulling finger
+	private ScrollAnimator scroller; // used for scroll back
 	private OnScrollListener scrollListener; // user's scroll listener
 
 	// the interface to trigger refresh and load more.
 	private Callback callback;
+	// saves and restores the app's content with the list's state.
+	private StateCallback stateCallback;
+	// skips refreshes triggered too soon after the last, null lets all through.
+	private RefreshGovernor refreshGovernor;
+	private boolean holdsRefreshGovernor = false; // our refresh is counted by it
+
+	// keys of the saved instance state.
+	private final static String STATE_SUPER = "lvp_super";
+	private final static String STATE_PULL_REFRESH = "lvp_pull_refresh";
+	private final static String STATE_PULL_LOAD = "lvp_pull_load";
+	private final static String STATE_AUTO_LOAD_MORE = "lvp_auto_load_more";
+	private final static String STATE_REFRESHING = "lvp_refreshing";
+	private final static String STATE_FOOTER = "lvp_footer";
+	private final static String STATE_LOAD_MORE_CONSUMED = "lvp_load_more_consumed";
+	private final static String STATE_LAST_UPDATE_TIME = "lvp_last_update_time";
+	private final static String STATE_APP = "lvp_app";
 
 	// -- header view
 	public ListViewPlusHeader header;
@@ -44,7 +71,7 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 	// total list items, used to detect is at the bottom of list view.
 	private int totalItemCount;
 
-	// for mScroller, scroll back from header or footer.
+	// for scroller, scroll back from header or footer.
 	private int scrollBack;
 	private final static int SCROLLBACK_HEADER = 0;
 	private final static int SCROLLBACK_FOOTER = 1;
@@ -58,9 +85,40 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 
 	private boolean isAutoLoadMore = true;
 
-	private boolean canGetMore = true;
+	private final LoadMoreDetector loadMoreDetector = new LoadMoreDetector();
 	
 	private boolean mIsAutoRefreshing = false; 
+
+	// delays before hiding a finished header and before auto refreshing.
+	private final static int DEFAULT_COMPLETION_DELAY = 300;
+	private int headerFinishDelay = DEFAULT_COMPLETION_DELAY;
+	private int autoRefreshDelay = DEFAULT_COMPLETION_DELAY;
+	private final DelayedAction hideHeaderAction = new DelayedAction(this, new Runnable() {
+		@Override
+		public void run() {
+			resetHeaderHeight();
+			mIsAutoRefreshing = false;
+		}
+	});
+	private final DelayedAction autoRefreshAction = new DelayedAction(this, new Runnable() {
+		@Override
+		public void run() {
+			autoRefreshing();
+		}
+	});
+
+	// snap back header/footer with a spring fed by the release velocity.
+	private boolean isSpringSnapBack = false;
+	private VelocityTracker velocityTracker;
+	private float releaseVelocityY;
+	// loads more as a fling heading for the footer starts, null unless enabled.
+	private FlingPredictor flingPredictor;
+
+	// per-gesture stats, null unless a PullMetricsListener is set.
+	private PullMetricsRecorder metrics;
+	private int pullEdge = -1; // edge being pulled by this touch, for metrics
+	// refresh and load more round trips, null unless enabled.
+	private RefreshLatencyRecorder latency;
 	
 	public ListViewPlus(Context context) {
 		super(context);
@@ -78,7 +136,28 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 	}
 
 	private void initWithContext(Context context) {
-		scroller = new Scroller(context, new DecelerateInterpolator());
+		scroller = new ScrollAnimator(this, new ScrollAnimator.Callback() {
+			@Override
+			public void onAnimationUpdate(int value) {
+				if (scrollBack == SCROLLBACK_HEADER) {
+					header.setVisiableHeight(value);
+				} else {
+					footer.setBottomMargin(value);
+				}
+				invokeOnScrolling();
+			}
+
+			@Override
+			public void onAnimationFinished() {
+				if (scrollBack == SCROLLBACK_HEADER) {
+					header.commitVisiableHeight();
+				}
+				if (metrics != null) {
+					metrics.onSnapBackFinished();
+					metrics.onAtRest();
+				}
+			}
+		});
 		// XListView need the scroll event, and it will dispatch the event to
 		// user's listener (as a proxy).
 		super.setOnScrollListener(this);
@@ -101,7 +180,7 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 					}
 				});
 
-		canGetMore = true;
+		loadMoreDetector.reset();
 
 		// initialize
 		showHeader(false);
@@ -161,23 +240,54 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 	public void headerFinished(int state) {
 		if (header.isRefreshing()) {
 			header.setState(state);
-			postDelayed(new Runnable() {
-
-				@Override
-				public void run() {
-					resetHeaderHeight();
-					if (mIsAutoRefreshing) {
-						mIsAutoRefreshing = false;
-					}
-				}
-			}, 300);
+			releaseRefresh();
+			if (latency != null) {
+				latency.onFinished(PullMetrics.EDGE_START);
+			}
+			if (metrics != null) {
+				metrics.onRefreshComplete();
+			}
+			hideHeaderAction.schedule(headerFinishDelay);
 		}
 	}
 
+	/**
+	 * how long headerFinished shows the finished header before hiding it,
+	 * 300ms by default. 0 hides it straight away.
+	 */
+	public void setHeaderFinishDelay(int millis) {
+		headerFinishDelay = millis;
+	}
+
+	/**
+	 * how long setAutoRefreshing waits before refreshing, 300ms by default.
+	 * 0 refreshes straight away, or once the current message is handled if
+	 * a {@link StateCallback} is set, so it can still be cancelled by the
+	 * state restored after onCreate.
+	 */
+	public void setAutoRefreshDelay(int millis) {
+		autoRefreshDelay = millis;
+	}
+
 	private void autoRefreshing() {
+		if (header.isRefreshing()) { // already refreshing, nothing to start.
+			return;
+		}
+		// the governor only has a say when the callback is going to be called.
+		if (callback != null && !acquireRefresh()) {
+			mIsAutoRefreshing = false;
+			return;
+		}
+		// a new refresh, don't hide the header of the last one under it.
+		hideHeaderAction.cancel();
 		header.setState(ListViewPlusHeader.STATE_REFRESHING);
+		if (metrics != null) {
+			metrics.onRefreshing(PullMetrics.EDGE_START);
+		}
 		updateHeaderHeight(160.f);
+		header.commitVisiableHeight();
 		if (callback!=null) {
+			onTriggered(PullMetrics.EDGE_START);
 			callback.onHeaderTriggerd();
 		}
 	}
@@ -189,6 +299,13 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 	public void footerFinished(int state) {
 		if (footer.isLoading()) {
 			footer.setState(state);
+			if (latency != null) {
+				latency.onFinished(PullMetrics.EDGE_END);
+			}
+			if (metrics != null) {
+				metrics.onRefreshComplete();
+				metrics.onAtRest();
+			}
 		}
 	}
 	
@@ -209,7 +326,11 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 				header.setState(ListViewPlusHeader.STATE_NORMAL);
 			}
 		}
-		setSelection(0); // scroll to top each time
+		// scroll to top each time, in reveal mode only when we're not there
+		if (!header.isRevealMode() || getFirstVisiblePosition() != 0
+				|| header.getTop() != getPaddingTop()) {
+			setSelection(0);
+		}
 	}
 
 	/**
@@ -221,6 +342,7 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 			return;
 		// refreshing and header isn't shown fully. do nothing.
 		if (header.isRefreshing() && height <= headerContentHeight) {
+			header.commitVisiableHeight();
 			return;
 		}
 		int finalHeight = 0; // default: scroll back to dismiss header.
@@ -229,10 +351,16 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 			finalHeight = headerContentHeight;
 		}
 		scrollBack = SCROLLBACK_HEADER;
-		scroller.startScroll(0, height, 0, finalHeight - height,
-				SCROLL_DURATION);
-		// trigger computeScroll
-		invalidate();
+		if (metrics != null && finalHeight == 0) {
+			metrics.onSnapBackStarted();
+		}
+		if (isSpringSnapBack) {
+			// header height follows the finger
+			scroller.startSpring(height, finalHeight, releaseVelocityY / OFFSET_RADIO);
+		} else {
+			scroller.start(height, finalHeight, SCROLL_DURATION);
+		}
+		releaseVelocityY = 0;
 	}
 
 	private void updateFooterHeight(float delta) {
@@ -254,76 +382,147 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 		int bottomMargin = footer.getBottomMargin();
 		if (bottomMargin > 0) {
 			scrollBack = SCROLLBACK_FOOTER;
-			scroller.startScroll(0, bottomMargin, 0, -bottomMargin,
-					SCROLL_DURATION);
-			invalidate();
+			if (metrics != null) {
+				metrics.onSnapBackStarted();
+			}
+			if (isSpringSnapBack) {
+				// footer margin grows as the finger moves up
+				scroller.startSpring(bottomMargin, 0, -releaseVelocityY / OFFSET_RADIO);
+			} else {
+				scroller.start(bottomMargin, 0, SCROLL_DURATION);
+			}
+			releaseVelocityY = 0;
 		}
 	}
 
 	public void setAutoRefreshing() {
 		mIsAutoRefreshing = true;
-		postDelayed(new Runnable() {
-
-			@Override
-			public void run() {
-				// TODO Auto-generated method stub
-				autoRefreshing();
-			}
-		}, 300);
+		// calling again before it runs just restarts the delay.
+		if (autoRefreshDelay <= 0 && stateCallback != null) {
+			// called from onCreate, the restore only comes later.
+			autoRefreshAction.post();
+		} else {
+			autoRefreshAction.schedule(autoRefreshDelay);
+		}
 	}
 	
+	/**
+	 * load more as soon as a fling starts if it will end near the footer,
+	 * rather than once it gets there.
+	 */
+	private void predictFlingLoadMore(float velocityY) {
+		if (!isEnablePullLoad || !isAutoLoadMore || footer.isLoading()
+				|| header.getVisiableHeight() > 0 || footer.getBottomMargin() > 0) {
+			// nothing to load, or the header or footer is pulled, not flung.
+			return;
+		}
+		final int distance = flingPredictor.predictDistance(velocityY);
+		if (distance > 0 && loadMoreDetector.onFling(
+				FlingPredictor.projectLastVisibleItem(this, distance), getCount())) {
+			loadMoreDetector.consume();
+			startLoadMore();
+		}
+	}
+
 	private void startLoadMore() {
 		if (!footer.isLoading()) {
 			footer.setState(ListViewPlusFooter.STATE_LOADING);
+			if (metrics != null) {
+				metrics.onRefreshing(PullMetrics.EDGE_END);
+			}
 			if (callback != null) {
+				onTriggered(PullMetrics.EDGE_END);
 				callback.onFooterTriggerd();
 			}
 		}
 	}
 
-	private float lastDownY;
 	@SuppressLint("ClickableViewAccessibility")
 	@Override
 	public boolean onTouchEvent(MotionEvent ev) {
-		if (lastY == -1) {
-			lastY = ev.getRawY();
+		if (dragTracker.getActivePointerId() == DragTracker.INVALID_POINTER
+				&& ev.getActionMasked() == MotionEvent.ACTION_MOVE) {
+			// missed the down, start from here.
+			dragTracker.onDown(ev.getPointerId(0), ev.getX(), ev.getY());
 		}
-		
-		if(lastDownY == -1){
-			lastDownY = ev.getRawY();
+		final boolean hasActivePointer = Utils.trackPointers(dragTracker, ev);
+
+		if (isSpringSnapBack || flingPredictor != null) {
+			if (velocityTracker == null) {
+				velocityTracker = VelocityTracker.obtain();
+			}
+			velocityTracker.addMovement(ev);
 		}
-		switch (ev.getAction()) {
+		switch (ev.getActionMasked()) {
 		case MotionEvent.ACTION_DOWN:
-			lastY = ev.getRawY();
-			lastDownY = ev.getRawY();
+			scroller.cancel(); // the finger takes over from any scroll back
 			break;
 		case MotionEvent.ACTION_MOVE:
-			final float deltaY = ev.getRawY() - lastY;
-			lastY = ev.getRawY();
+			if (!hasActivePointer) { // another finger moved, not the pulling one.
+				break;
+			}
+			final float deltaY = dragTracker.getY() - dragTracker.getLastY();
+			dragTracker.markLast();
 			if (getFirstVisiblePosition() == 0
 					&& (header.getVisiableHeight() > 0 || deltaY > 0)) {
 				// the first item is showing, header has shown or pull down.
+				onPullStarted(PullMetrics.EDGE_START);
 				invokeOnScrolling();
 				updateHeaderHeight(deltaY / OFFSET_RADIO);
 			} else if (getLastVisiblePosition() == totalItemCount - 1
 					&& (footer.getBottomMargin() > 0 || deltaY < 0)) {
 				// last item, already pulled up or want to pull up.
+				onPullStarted(PullMetrics.EDGE_END);
 				updateFooterHeight(-deltaY / OFFSET_RADIO);
 			}
 			break;
 		case MotionEvent.ACTION_UP:
-			lastY = -1; // reset
-			lastDownY = -1;
+			releaseVelocityY = 0;
+			if (velocityTracker != null) {
+				velocityTracker.computeCurrentVelocity(1000);
+				// only the pulling finger counts.
+				releaseVelocityY = velocityTracker.getYVelocity(dragTracker.getActivePointerId());
+				recycleVelocityTracker();
+			}
+			if (flingPredictor != null) {
+				predictFlingLoadMore(releaseVelocityY);
+			}
+			dragTracker.reset();
+			onPullReleased();
 			if (getFirstVisiblePosition() == 0) {
 				// invoke refresh
 				if (isEnablePullRefresh
 						&& header.getVisiableHeight() > headerContentHeight) {
-					header.setState(ListViewPlusHeader.STATE_REFRESHING);
-					if (mIsAutoRefreshing) {
+					// a pending auto refresh is started by this pull instead.
+					final boolean autoRefreshPending = autoRefreshAction.cancel();
+					if (mIsAutoRefreshing && !autoRefreshPending) {
+						// the auto refresh has started, this pull is part of it.
 						resetHeaderHeight();
 						return super.onTouchEvent(ev);
 					}
+					if (refreshGovernor != null && (holdsRefreshGovernor || header.isRefreshing())) {
+						// a refresh is running, this pull is part of it.
+						// asking the governor again would only be skipped.
+						resetHeaderHeight();
+						return super.onTouchEvent(ev);
+					}
+					if (callback != null && !acquireRefresh()) {
+						// skipped, along with any auto refresh it replaced.
+						// just put the header back.
+						mIsAutoRefreshing = false;
+						if (!header.isRefreshing()) {
+							header.setState(ListViewPlusHeader.STATE_NORMAL);
+						}
+						resetHeaderHeight();
+						return super.onTouchEvent(ev);
+					}
+					header.setState(ListViewPlusHeader.STATE_REFRESHING);
+					hideHeaderAction.cancel();
+					if (metrics != null) {
+						metrics.onRefreshing(PullMetrics.EDGE_START);
+					}
 					if (callback != null) {
+						onTriggered(PullMetrics.EDGE_START);
 						callback.onHeaderTriggerd();
 					}
 				}
@@ -339,26 +538,114 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 				}
 				resetFooterHeight();
 			}
-			
+			// nothing to snap back or refresh, the gesture is over.
+			if (metrics != null) {
+				metrics.onAtRest();
+			}
 			break;
 		case MotionEvent.ACTION_CANCEL:
+			recycleVelocityTracker();
+			dragTracker.reset();
+			onPullReleased();
+			if (metrics != null) {
+				metrics.onAtRest();
+			}
 			break;
 		}
 		return super.onTouchEvent(ev);
 	}
 
-	@Override
-	public void computeScroll() {
-		if (scroller.computeScrollOffset()) {
-			if (scrollBack == SCROLLBACK_HEADER) {
-				header.setVisiableHeight(scroller.getCurrY());
-			} else {
-				footer.setBottomMargin(scroller.getCurrY());
+	/**
+	 * @return true if the governor lets a refresh go ahead, there is none,
+	 *         or we already hold it.
+	 */
+	private boolean acquireRefresh() {
+		if (refreshGovernor == null || holdsRefreshGovernor) {
+			return true;
+		}
+		holdsRefreshGovernor = refreshGovernor.requestRefresh();
+		return holdsRefreshGovernor;
+	}
+
+	/**
+	 * tells the governor our refresh is over, if it counted it.
+	 */
+	private void releaseRefresh() {
+		if (holdsRefreshGovernor) {
+			holdsRefreshGovernor = false;
+			refreshGovernor.onRefreshFinished();
+		}
+	}
+
+	private void onTriggered(int edge) {
+		if (latency != null) {
+			latency.onTriggered(edge);
+		}
+	}
+
+	private void onPullStarted(int edge) {
+		if (pullEdge != edge) {
+			pullEdge = edge;
+			if (metrics != null) {
+				metrics.onPullStarted(edge);
+			}
+		}
+	}
+
+	private void onPullReleased() {
+		if (pullEdge != -1) {
+			pullEdge = -1;
+			if (metrics != null) {
+				metrics.onReleased();
 			}
-			postInvalidate();
-			invokeOnScrolling();
 		}
-		super.computeScroll();
+	}
+
+	private void recycleVelocityTracker() {
+		if (velocityTracker != null) {
+			velocityTracker.recycle();
+			velocityTracker = null;
+		}
+	}
+
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		final int offset = header.getRevealOffset() - footer.getStretchOffset();
+		if (offset == 0) {
+			super.dispatchDraw(canvas);
+			return;
+		}
+		// header reveal / footer stretch mode, draw the rows where the pull
+		// would have laid them out.
+		final int saveCount = canvas.save();
+		canvas.clipRect(getPaddingLeft(), getPaddingTop(), getWidth() - getPaddingRight(),
+				getHeight() - getPaddingBottom());
+		canvas.translate(0, offset);
+		super.dispatchDraw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		// don't leave delayed actions queued for a list which isn't shown.
+		if (autoRefreshAction.cancel()) {
+			mIsAutoRefreshing = false;
+		}
+		if (hideHeaderAction.cancel()) {
+			// hide the finished header now, no one is watching the animation.
+			scroller.cancel();
+			header.setVisiableHeight(0);
+			header.commitVisiableHeight();
+			mIsAutoRefreshing = false;
+		}
+		// don't keep counting frames for a list which isn't shown.
+		if (metrics != null) {
+			metrics.cancel();
+		}
+		// headerFinished may never come for a list which has gone, don't
+		// leave lists sharing the governor waiting for it.
+		releaseRefresh();
 	}
 
 	@Override
@@ -383,23 +670,18 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 					totalItemCount);
 		}
 
-		if (canGetMore) {
-			if (firstVisibleItem + visibleItemCount == totalItemCount) {
-				// footer is on screen
-				// invoke load more.
-				if (isEnablePullLoad) {
-					if (isAutoLoadMore) {
-						canGetMore = false;
-						startLoadMore();
-					} else if (footer.getBottomMargin() > PULL_LOAD_MORE_DELTA) {
-						startLoadMore();
-					}
+		if (loadMoreDetector.onScroll(firstVisibleItem, visibleItemCount,
+				totalItemCount)) {
+			// footer is on screen, or within the prefetch distance
+			// invoke load more.
+			if (isEnablePullLoad) {
+				if (isAutoLoadMore) {
+					loadMoreDetector.consume();
+					startLoadMore();
+				} else if (footer.getBottomMargin() > PULL_LOAD_MORE_DELTA) {
+					startLoadMore();
 				}
 			}
-		} else {
-			if (firstVisibleItem + visibleItemCount < totalItemCount) {
-				canGetMore = true;
-			}
 		}
 
 	}
@@ -408,6 +690,129 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 		callback = c;
 	}
 
+	/**
+	 * let refreshes from pulls and setAutoRefreshing through only when the
+	 * governor allows, see {@link RefreshGovernor}. null lets all through.
+	 * only refreshes which call the callback are counted, until
+	 * headerFinished or the list is detached from its window.
+	 */
+	public void setRefreshGovernor(RefreshGovernor governor) {
+		if (governor != refreshGovernor) {
+			releaseRefresh();
+		}
+		refreshGovernor = governor;
+	}
+
+	/**
+	 * save the app's content (items, pagination cursor, ...) along with the
+	 * list's own state, see {@link StateCallback}. set it before calling
+	 * setAutoRefreshing, so that a restore can cancel the refresh.
+	 */
+	public void setStateCallback(StateCallback c) {
+		stateCallback = c;
+	}
+
+	@Override
+	public Parcelable onSaveInstanceState() {
+		Bundle bundle = new Bundle();
+		bundle.putParcelable(STATE_SUPER, super.onSaveInstanceState());
+		bundle.putBoolean(STATE_PULL_REFRESH, isEnablePullRefresh);
+		bundle.putBoolean(STATE_PULL_LOAD, isEnablePullLoad);
+		bundle.putBoolean(STATE_AUTO_LOAD_MORE, isAutoLoadMore);
+		bundle.putBoolean(STATE_REFRESHING, header.isRefreshing() || autoRefreshAction.isPending());
+		bundle.putInt(STATE_FOOTER, footer.getState());
+		bundle.putBoolean(STATE_LOAD_MORE_CONSUMED, loadMoreDetector.isConsumed());
+		bundle.putLong(STATE_LAST_UPDATE_TIME, header.getLastUpdateTime());
+		if (stateCallback != null) {
+			Bundle appState = new Bundle();
+			stateCallback.onSaveState(appState);
+			bundle.putBundle(STATE_APP, appState);
+		}
+		return bundle;
+	}
+
+	@Override
+	public void onRestoreInstanceState(Parcelable state) {
+		if (!(state instanceof Bundle)) {
+			super.onRestoreInstanceState(state);
+			return;
+		}
+		Bundle bundle = (Bundle) state;
+
+		showHeader(bundle.getBoolean(STATE_PULL_REFRESH, isEnablePullRefresh));
+		showFooter(bundle.getBoolean(STATE_PULL_LOAD, isEnablePullLoad));
+		isAutoLoadMore = bundle.getBoolean(STATE_AUTO_LOAD_MORE, isAutoLoadMore);
+		// a load in progress died with the old screen, only "no more" is kept.
+		if (isEnablePullLoad
+				&& bundle.getInt(STATE_FOOTER) == ListViewPlusFooter.STATE_NO_MORE) {
+			footer.setState(ListViewPlusFooter.STATE_NO_MORE);
+		}
+		if (bundle.getBoolean(STATE_LOAD_MORE_CONSUMED)) {
+			loadMoreDetector.consume();
+		}
+		header.setLastUpdateTime(bundle.getLong(STATE_LAST_UPDATE_TIME));
+
+		// give the app its content back before the list restores its scroll
+		// position, so the position is applied to the restored rows.
+		boolean restored = false;
+		Bundle appState = bundle.getBundle(STATE_APP);
+		if (stateCallback != null && appState != null) {
+			restored = stateCallback.onRestoreState(appState);
+		}
+		super.onRestoreInstanceState(bundle.getParcelable(STATE_SUPER));
+
+		// the content is back, so don't refresh it again, unless the old
+		// screen was in the middle of a refresh when it went.
+		if (restored && !bundle.getBoolean(STATE_REFRESHING)
+				&& autoRefreshAction.cancel()) {
+			mIsAutoRefreshing = false;
+		}
+	}
+
+	/**
+	 * report stats for each pull, see {@link PullMetricsListener}. metrics
+	 * are only recorded while a listener is set, pass null to stop.
+	 */
+	public void setPullMetricsListener(PullMetricsListener l) {
+		if (l == null) {
+			if (metrics != null) {
+				metrics.cancel();
+				metrics = null;
+			}
+			return;
+		}
+		if (metrics == null) {
+			metrics = new PullMetricsRecorder();
+		}
+		metrics.setListener(l);
+	}
+
+	/**
+	 * @return the recent pulls, or null if no PullMetricsListener is set.
+	 */
+	public PullMetricsRecorder getPullMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * record the time from onHeaderTriggerd / onFooterTriggerd to
+	 * headerFinished / footerFinished, see {@link #getRefreshLatency()}.
+	 */
+	public void setRefreshLatencyEnabled(boolean enable) {
+		if (!enable) {
+			latency = null;
+		} else if (latency == null) {
+			latency = new RefreshLatencyRecorder();
+		}
+	}
+
+	/**
+	 * @return the refresh and load more latencies, or null if not enabled.
+	 */
+	public RefreshLatencyRecorder getRefreshLatency() {
+		return latency;
+	}
+
 	/**
 	 * you can listen ListView.OnScrollListener or this one. it will invoke
 	 * onXScrolling when header/footer scroll back.
@@ -426,6 +831,28 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 		public void onFooterTriggerd();
 	}
 
+	/**
+	 * implements this interface to keep the list's content across a
+	 * configuration change, e.g. with
+	 * {@link cn.isif.widget.library.paging.PagedListAdapter#getNextKey()} and
+	 * {@link cn.isif.widget.library.paging.PagedListAdapter#restore(java.util.List, Object)}.
+	 */
+	public interface StateCallback {
+
+		/**
+		 * save the content, and where to load the next page from.
+		 */
+		public void onSaveState(Bundle outState);
+
+		/**
+		 * called before the list restores its scroll position.
+		 * 
+		 * @return true if the content was restored. an auto refresh that is
+		 *         waiting to start is then cancelled.
+		 */
+		public boolean onRestoreState(Bundle savedState);
+	}
+
 	public void setHintTextColor(int color) {
 		if (header != null) {
 			header.setHintTextColor(color);
@@ -446,4 +873,71 @@ public class ListViewPlus extends ListView implements OnScrollListener {
 		this.isAutoLoadMore = isAutoLoadMore;
 	}
 
+	/**
+	 * auto load more once the last visible row is within this many rows of
+	 * the footer, so the next page is usually there before the user reaches
+	 * the end. 0 (the default) waits until the footer is on screen.
+	 * 
+	 * @param rows
+	 */
+	public void setPrefetchDistance(int rows) {
+		loadMoreDetector.setPrefetchDistance(rows);
+	}
+
+	/**
+	 * enable or disable header reveal mode. while pulling the header is moved
+	 * by drawing the list lower instead of re-laying out the list for every
+	 * pixel pulled, and it's only laid out again once it comes to rest.
+	 * 
+	 * @param enable
+	 */
+	public void setHeaderRevealEnabled(boolean enable) {
+		header.setRevealMode(enable);
+		// the header content hangs above the header's own bounds
+		setClipChildren(!enable);
+	}
+
+	/**
+	 * enable or disable footer stretch mode. pulling up to load more moves
+	 * the list by drawing it higher instead of changing the footer's margin,
+	 * so it costs no layout passes.
+	 * 
+	 * @param enable
+	 */
+	public void setFooterStretchEnabled(boolean enable) {
+		footer.setStretchMode(enable);
+	}
+
+	/**
+	 * snap back header/footer with a spring that carries on the release
+	 * velocity, instead of the fixed 400ms scroll. never overshoots.
+	 * 
+	 * @param enable
+	 */
+	public void setSpringSnapBackEnabled(boolean enable) {
+		isSpringSnapBack = enable;
+		if (!enable && flingPredictor == null) {
+			recycleVelocityTracker();
+		}
+	}
+
+	/**
+	 * when auto loading more, start loading as the finger lets go of a fling
+	 * which will end within the prefetch distance of the footer, instead of
+	 * once the list gets there. where the fling ends is estimated from the
+	 * rows on screen.
+	 * 
+	 * @param enable
+	 */
+	public void setFlingLoadMoreEnabled(boolean enable) {
+		if (enable && flingPredictor == null) {
+			flingPredictor = new FlingPredictor(getContext());
+		} else if (!enable) {
+			flingPredictor = null;
+			if (!isSpringSnapBack) {
+				recycleVelocityTracker();
+			}
+		}
+	}
+
 }
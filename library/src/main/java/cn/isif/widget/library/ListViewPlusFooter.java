@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewParent;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
@@ -19,6 +20,11 @@ public class ListViewPlusFooter extends LinearLayout {
 	private TextView hintView;
 	private int curState = STATE_NORMAL;
 
+	// stretch mode: the pull is drawn as an offset by ListViewPlus instead of
+	// changing the bottom margin, so pulling doesn't re-layout the list.
+	private boolean stretchMode = false;
+	private int stretchHeight = 0;
+
 	public ListViewPlusFooter(Context context) {
 		super(context);
 		initView(context);
@@ -50,6 +56,13 @@ public class ListViewPlusFooter extends LinearLayout {
 	public void setBottomMargin(int height) {
 		if (height < 0)
 			return;
+		if (stretchMode) {
+			if (height != stretchHeight) {
+				stretchHeight = height;
+				invalidateList();
+			}
+			return;
+		}
 		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) contentView
 				.getLayoutParams();
 		lp.bottomMargin = height;
@@ -57,11 +70,57 @@ public class ListViewPlusFooter extends LinearLayout {
 	}
 
 	public int getBottomMargin() {
+		if (stretchMode) {
+			return stretchHeight;
+		}
 		LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) contentView
 				.getLayoutParams();
 		return lp.bottomMargin;
 	}
 
+	/**
+	 * enable or disable stretch mode. in stretch mode pulling up only moves
+	 * what's drawn, the list is not re-laid out for every pixel pulled.
+	 * 
+	 * @param enable
+	 */
+	public void setStretchMode(boolean enable) {
+		if (stretchMode == enable)
+			return;
+		final int height = getBottomMargin();
+		if (enable) {
+			setBottomMargin(0);
+			stretchMode = true;
+			stretchHeight = height;
+		} else {
+			stretchMode = false;
+			stretchHeight = 0;
+			setBottomMargin(height);
+		}
+		invalidateList();
+	}
+
+	public boolean isStretchMode() {
+		return stretchMode;
+	}
+
+	/**
+	 * @return how far the list content has to be drawn above where it's laid
+	 *         out, in stretch mode.
+	 */
+	public int getStretchOffset() {
+		return stretchMode ? stretchHeight : 0;
+	}
+
+	private void invalidateList() {
+		ViewParent parent = getParent();
+		if (parent instanceof View) {
+			((View) parent).invalidate();
+		} else {
+			invalidate();
+		}
+	}
+
 	/**
 	 * normal status
 	 */
@@ -117,4 +176,8 @@ public class ListViewPlusFooter extends LinearLayout {
 	public boolean isLoading() {
 		return curState == STATE_LOADING;
 	}
+
+	public int getState() {
+		return curState;
+	}
 }
@@ -6,6 +6,7 @@ import android.util.AttributeSet;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewParent;
 import android.view.animation.Animation;
 import android.view.animation.RotateAnimation;
 import android.widget.ImageView;
@@ -51,6 +52,13 @@ public class ListViewPlusHeader extends LinearLayout {
     private Date date = null;
     private long lastUpdateTime = 0L;
 
+    // visible height, kept here so it's correct before the next layout.
+    private int visibleHeight = 0;
+    // reveal mode: the header is laid out at layoutHeight and the rest of the
+    // visible height is drawn as an offset by ListViewPlus, without a layout.
+    private boolean revealMode = false;
+    private int layoutHeight = 0;
+
     public ListViewPlusHeader(Context context) {
         super(context);
         initView(context);
@@ -146,13 +154,95 @@ public class ListViewPlusHeader extends LinearLayout {
     public void setVisiableHeight(int height) {
         if (height < 0)
             height = 0;
+        if (height == visibleHeight)
+            return;
+        visibleHeight = height;
+
+        if (!revealMode) {
+            setContainerHeight(height);
+            return;
+        }
+
+        // going below the laid out height, drop back to a zero height layout
+        // once so the rows below are laid out to fill the list.
+        if (height < layoutHeight) {
+            layoutHeight = 0;
+            requestLayout();
+        }
+        invalidateList();
+    }
+
+    public int getVisiableHeight() {
+        return visibleHeight;
+    }
+
+    /**
+     * enable or disable reveal mode. in reveal mode pulling the header only
+     * moves what's drawn, the list is not re-laid out for every pixel pulled.
+     * call {@link #commitVisiableHeight()} once the header comes to rest.
+     *
+     * @param enable
+     */
+    public void setRevealMode(boolean enable) {
+        if (revealMode == enable)
+            return;
+        revealMode = enable;
+        if (enable) {
+            layoutHeight = visibleHeight;
+            setContainerHeight(android.view.ViewGroup.LayoutParams.WRAP_CONTENT);
+        } else {
+            layoutHeight = 0;
+            setContainerHeight(visibleHeight);
+        }
+        invalidateList();
+    }
+
+    public boolean isRevealMode() {
+        return revealMode;
+    }
+
+    /**
+     * lay the header out at its visible height, so the rows below it are
+     * where they're drawn. only does anything in reveal mode.
+     */
+    public void commitVisiableHeight() {
+        if (revealMode && layoutHeight != visibleHeight) {
+            layoutHeight = visibleHeight;
+            requestLayout();
+            invalidateList();
+        }
+    }
+
+    /**
+     * @return how far the list content has to be drawn below where it's laid
+     *         out, in reveal mode.
+     */
+    public int getRevealOffset() {
+        return revealMode ? visibleHeight - layoutHeight : 0;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        if (revealMode) {
+            // the container keeps its full height and hangs above our top
+            setMeasuredDimension(getMeasuredWidth(), layoutHeight);
+        }
+    }
+
+    private void setContainerHeight(int height) {
         LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) container.getLayoutParams();
         lp.height = height;
         container.setLayoutParams(lp);
     }
 
-    public int getVisiableHeight() {
-        return container.getHeight();
+    private void invalidateList() {
+        ViewParent parent = getParent();
+        if (parent instanceof View) {
+            ((View) parent).invalidate();
+        } else {
+            invalidate();
+        }
     }
 
     public int getContentHeight() {
@@ -185,4 +275,18 @@ public class ListViewPlusHeader extends LinearLayout {
     public void setTimeTextColor(int color) {
         timeView.setTextColor(color);
     }
+
+    /**
+     * @return when the last successful refresh finished, 0 if never.
+     */
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public void setLastUpdateTime(long time) {
+        lastUpdateTime = time;
+        if (curState != STATE_FAIL) {
+            setTimeView(lastUpdateTime);
+        }
+    }
 }
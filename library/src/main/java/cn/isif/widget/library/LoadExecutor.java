@@ -0,0 +1,272 @@
+package cn.isif.widget.library;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.Adapter;
+import android.widget.BaseAdapter;
+import android.widget.HeaderViewListAdapter;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.pulltorefresh.internal.ViewCompat;
+
+/**
+ * Runs the refresh and load more of a {@link ListViewPlus} off the UI thread.
+ * Set it as the list's {@link ListViewPlus.Callback} and it will:
+ * <ul>
+ * <li>call {@link Loader#loadRefresh()} / {@link Loader#loadMore()} on a
+ * background thread</li>
+ * <li>collect the results and apply all those which arrived during a frame
+ * together, followed by a single notifyDataSetChanged</li>
+ * <li>finish the header / footer with
+ * {@link ListViewPlus#headerFinished(int)} /
+ * {@link ListViewPlus#footerFinished(int)}</li>
+ * </ul>
+ * A refresh supersedes any load more which is still running: its result is
+ * dropped and the footer is put back to normal straight away, rather than
+ * being left loading. A load more triggered while refreshing is dropped too.
+ * <p/>
+ * Superseding or cancelling a load only ignores its result: the Loader isn't
+ * interrupted and keeps running on its thread until it returns, so a load
+ * which holds resources should time out by itself.
+ */
+public class LoadExecutor<R> implements ListViewPlus.Callback {
+
+	/**
+	 * Loads the data. The load methods run on a background thread, all others
+	 * on the main thread.
+	 */
+	public interface Loader<R> {
+
+		public R loadRefresh() throws Exception;
+
+		public R loadMore() throws Exception;
+
+		/**
+		 * Replace the adapter's data with <var>result</var>. No need to call
+		 * notifyDataSetChanged.
+		 */
+		public void onRefreshed(R result);
+
+		/**
+		 * Append <var>result</var> to the adapter's data. No need to call
+		 * notifyDataSetChanged.
+		 *
+		 * @return false if there's nothing more to load.
+		 */
+		public boolean onMoreLoaded(R result);
+
+		public void onLoadFailed(boolean isRefresh, Exception error);
+	}
+
+	private final ListViewPlus list;
+	private final Loader<R> loader;
+	private final Executor executor;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	// bumped whenever a load is superseded, so its result gets dropped.
+	private int refreshToken = 0;
+	private int moreToken = 0;
+	private boolean refreshing = false;
+	private boolean loadingMore = false;
+
+	private final ArrayList<Result> pending = new ArrayList<Result>();
+	private boolean flushScheduled = false;
+	private final Runnable flushRunnable = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+
+	public LoadExecutor(ListViewPlus list, Loader<R> loader) {
+		this(list, loader, AsyncTask.THREAD_POOL_EXECUTOR);
+	}
+
+	public LoadExecutor(ListViewPlus list, Loader<R> loader, Executor executor) {
+		this.list = list;
+		this.loader = loader;
+		this.executor = executor;
+	}
+
+	@Override
+	public void onHeaderTriggerd() {
+		refresh();
+	}
+
+	@Override
+	public void onFooterTriggerd() {
+		loadMore();
+	}
+
+	/**
+	 * Starts a refresh, superseding any refresh or load more which is
+	 * running.
+	 */
+	public void refresh() {
+		if (loadingMore) {
+			cancelLoadMore();
+		}
+		refreshing = true;
+		execute(true, ++refreshToken);
+	}
+
+	/**
+	 * Starts loading more, unless a refresh or another load more is running.
+	 */
+	public void loadMore() {
+		if (refreshing) {
+			// the refresh will replace whatever we'd have loaded
+			list.footerFinished(ListViewPlusFooter.STATE_NORMAL);
+			return;
+		}
+		if (loadingMore) {
+			return;
+		}
+		loadingMore = true;
+		execute(false, ++moreToken);
+	}
+
+	/**
+	 * Drops the results of everything which is running, and puts the header
+	 * and footer back to normal. Call when the list goes away.
+	 */
+	public void cancelAll() {
+		if (refreshing) {
+			refreshing = false;
+			refreshToken++;
+			list.headerFinished(ListViewPlusHeader.STATE_NORMAL);
+		}
+		if (loadingMore) {
+			cancelLoadMore();
+		}
+		pending.clear();
+	}
+
+	public boolean isRefreshing() {
+		return refreshing;
+	}
+
+	public boolean isLoadingMore() {
+		return loadingMore;
+	}
+
+	private void cancelLoadMore() {
+		loadingMore = false;
+		moreToken++;
+		list.footerFinished(ListViewPlusFooter.STATE_NORMAL);
+	}
+
+	private void execute(final boolean isRefresh, final int token) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final Result result = new Result(isRefresh, token);
+				try {
+					result.value = isRefresh ? loader.loadRefresh() : loader.loadMore();
+				} catch (Exception e) {
+					result.error = e;
+				}
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						enqueue(result);
+					}
+				});
+			}
+		});
+	}
+
+	private void enqueue(Result result) {
+		if (!isCurrent(result)) {
+			return;
+		}
+		pending.add(result);
+		if (!flushScheduled) {
+			flushScheduled = true;
+			ViewCompat.postOnAnimation(list, flushRunnable);
+		}
+	}
+
+	private boolean isCurrent(Result result) {
+		return result.isRefresh ? result.token == refreshToken : result.token == moreToken;
+	}
+
+	/**
+	 * Applies every result which arrived since the last frame, then updates
+	 * the adapter once.
+	 */
+	private void flush() {
+		flushScheduled = false;
+
+		boolean changed = false;
+		int headerState = -1;
+		int footerState = -1;
+
+		for (int i = 0, z = pending.size(); i < z; i++) {
+			final Result result = pending.get(i);
+			// superseded after it was queued
+			if (!isCurrent(result)) {
+				continue;
+			}
+
+			if (result.isRefresh) {
+				refreshing = false;
+				if (null == result.error) {
+					loader.onRefreshed(result.value);
+					changed = true;
+					headerState = ListViewPlusHeader.STATE_SUCCESS;
+				} else {
+					loader.onLoadFailed(true, result.error);
+					headerState = ListViewPlusHeader.STATE_FAIL;
+				}
+			} else {
+				loadingMore = false;
+				if (null == result.error) {
+					final boolean hasMore = loader.onMoreLoaded(result.value);
+					changed = true;
+					footerState = hasMore ? ListViewPlusFooter.STATE_NORMAL : ListViewPlusFooter.STATE_NO_MORE;
+				} else {
+					loader.onLoadFailed(false, result.error);
+					footerState = ListViewPlusFooter.STATE_NORMAL;
+				}
+			}
+		}
+		pending.clear();
+
+		if (changed) {
+			notifyDataSetChanged();
+		}
+		if (headerState != -1) {
+			list.headerFinished(headerState);
+		}
+		if (footerState != -1) {
+			list.footerFinished(footerState);
+		}
+	}
+
+	private void notifyDataSetChanged() {
+		Adapter adapter = list.getAdapter();
+		if (adapter instanceof HeaderViewListAdapter) {
+			adapter = ((HeaderViewListAdapter) adapter).getWrappedAdapter();
+		}
+		if (adapter instanceof BaseAdapter) {
+			((BaseAdapter) adapter).notifyDataSetChanged();
+		}
+	}
+
+	final class Result {
+		final boolean isRefresh;
+		final int token;
+		R value;
+		Exception error;
+
+		Result(boolean isRefresh, int token) {
+			this.isRefresh = isRefresh;
+			this.token = token;
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package cn.isif.widget.library;
+
+/**
+ * decides when {@link ListViewPlus} should load more as the list scrolls.
+ * it's kept free of android classes so it can be benchmarked on the jvm.
+ */
+final class LoadMoreDetector {
+
+	private boolean canGetMore = true;
+
+	// report this many rows before the footer is on screen.
+	private int prefetchDistance = 0;
+
+	void setPrefetchDistance(int rows) {
+		prefetchDistance = Math.max(rows, 0);
+	}
+
+	/**
+	 * @return true if the last visible row is within the prefetch distance of
+	 *         the end, and {@link #consume()} hasn't been called since the list
+	 *         was last scrolled away from it.
+	 */
+	boolean onScroll(int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+		final int lastVisibleItem = firstVisibleItem + visibleItemCount;
+		final boolean nearEnd = lastVisibleItem >= totalItemCount - prefetchDistance;
+		if (!canGetMore && !nearEnd) {
+			canGetMore = true;
+		}
+		return canGetMore && nearEnd;
+	}
+
+	/**
+	 * @param projectedLastVisibleItem - position after the last visible row
+	 *            once the fling which is starting is over.
+	 * @return true if the fling will bring the last visible row within the
+	 *         prefetch distance of the end, and {@link #consume()} hasn't been
+	 *         called since the list was last scrolled away from it.
+	 */
+	boolean onFling(long projectedLastVisibleItem, int totalItemCount) {
+		return canGetMore && projectedLastVisibleItem >= totalItemCount - prefetchDistance;
+	}
+
+	/**
+	 * stop reporting until the list has been scrolled away from the end.
+	 */
+	void consume() {
+		canGetMore = false;
+	}
+
+	void reset() {
+		canGetMore = true;
+	}
+
+	boolean isConsumed() {
+		return !canGetMore;
+	}
+
+}
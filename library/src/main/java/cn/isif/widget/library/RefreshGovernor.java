@@ -0,0 +1,165 @@
+package cn.isif.widget.library;
+
+import android.os.SystemClock;
+
+/**
+ * Decides whether a refresh trigger (a pull, {@link ListViewPlus#setAutoRefreshing()}
+ * or {@link cn.isif.widget.library.pulltorefresh.PullToRefreshBase#setRefreshing()})
+ * should go through to the app, so that repeated pulls on a slow network
+ * don't turn into repeated requests. A trigger is skipped if:
+ * <ul>
+ * <li>a refresh is already running, it will deliver the content</li>
+ * <li>it comes within the coalesce window of the last refresh starting, the
+ * two are treated as one</li>
+ * <li>it comes within the minimum interval of the last refresh finishing, the
+ * content is still fresh</li>
+ * </ul>
+ * Skipped triggers are reported to the {@link OnRefreshSkippedListener}.
+ * <p/>
+ * A refresh which hasn't finished after the {@link #setInFlightTimeout(long)
+ * in-flight timeout} is given up on, so one which is never finished doesn't
+ * block all the others.
+ * <p/>
+ * One governor can be shared by several widgets showing the same content.
+ * By default nothing is skipped except triggers during a refresh. Must only be
+ * used from the main thread.
+ */
+public class RefreshGovernor {
+
+	/**
+	 * Reasons passed to {@link OnRefreshSkippedListener#onRefreshSkipped(int)}.
+	 */
+	public static final int SKIPPED_IN_FLIGHT = 0;
+	public static final int SKIPPED_COALESCED = 1;
+	public static final int SKIPPED_RATE_LIMITED = 2;
+
+	public static final long DEFAULT_IN_FLIGHT_TIMEOUT = 30000;
+
+	private static final long NEVER = Long.MIN_VALUE;
+
+	private long coalesceWindowMillis;
+	private long minIntervalMillis;
+	private long inFlightTimeoutMillis = DEFAULT_IN_FLIGHT_TIMEOUT;
+
+	private boolean inFlight = false;
+	private long lastStartMillis = NEVER;
+	private long lastFinishMillis = NEVER;
+
+	private OnRefreshSkippedListener onRefreshSkippedListener;
+
+	public RefreshGovernor() {
+		this(0, 0);
+	}
+
+	/**
+	 * @param coalesceWindowMillis - Triggers this soon after a refresh started
+	 *            are merged into it
+	 * @param minIntervalMillis - Triggers this soon after a refresh finished
+	 *            are dropped
+	 */
+	public RefreshGovernor(long coalesceWindowMillis, long minIntervalMillis) {
+		setCoalesceWindow(coalesceWindowMillis);
+		setMinInterval(minIntervalMillis);
+	}
+
+	public void setCoalesceWindow(long millis) {
+		coalesceWindowMillis = Math.max(millis, 0);
+	}
+
+	public void setMinInterval(long millis) {
+		minIntervalMillis = Math.max(millis, 0);
+	}
+
+	/**
+	 * Sets how long a refresh counts as running if it isn't finished,
+	 * {@link #DEFAULT_IN_FLIGHT_TIMEOUT} by default. 0 waits for ever. If a
+	 * refresh which timed out finishes later, it ends whichever refresh is
+	 * running then.
+	 */
+	public void setInFlightTimeout(long millis) {
+		inFlightTimeoutMillis = Math.max(millis, 0);
+	}
+
+	public void setOnRefreshSkippedListener(OnRefreshSkippedListener listener) {
+		onRefreshSkippedListener = listener;
+	}
+
+	/**
+	 * Called by the widget when a refresh is triggered.
+	 *
+	 * @return true if the refresh should go ahead, in which case it counts as
+	 *         running until {@link #onRefreshFinished()}, or the in-flight
+	 *         timeout.
+	 */
+	public boolean requestRefresh() {
+		final long now = now();
+		final int reason;
+		if (isRefreshing(now)) {
+			reason = SKIPPED_IN_FLIGHT;
+		} else if (lastStartMillis != NEVER && now - lastStartMillis < coalesceWindowMillis) {
+			reason = SKIPPED_COALESCED;
+		} else if (lastFinishMillis != NEVER && now - lastFinishMillis < minIntervalMillis) {
+			reason = SKIPPED_RATE_LIMITED;
+		} else {
+			inFlight = true;
+			lastStartMillis = now;
+			return true;
+		}
+
+		if (onRefreshSkippedListener != null) {
+			onRefreshSkippedListener.onRefreshSkipped(reason);
+		}
+		return false;
+	}
+
+	/**
+	 * Called by the widget when the app has finished a refresh.
+	 */
+	public void onRefreshFinished() {
+		if (inFlight) {
+			inFlight = false;
+			lastFinishMillis = now();
+		}
+	}
+
+	public boolean isRefreshing() {
+		return isRefreshing(now());
+	}
+
+	private boolean isRefreshing(long now) {
+		if (inFlight && inFlightTimeoutMillis > 0 && now - lastStartMillis >= inFlightTimeoutMillis) {
+			// given up on, it doesn't count as finished for the min interval
+			inFlight = false;
+		}
+		return inFlight;
+	}
+
+	/**
+	 * Forgets the past refreshes, so that the next trigger goes through. For
+	 * instance after the user has changed what the list shows.
+	 */
+	public void reset() {
+		inFlight = false;
+		lastStartMillis = NEVER;
+		lastFinishMillis = NEVER;
+	}
+
+	long now() {
+		return SystemClock.uptimeMillis();
+	}
+
+	/**
+	 * Told about each trigger which didn't go through to the app.
+	 */
+	public interface OnRefreshSkippedListener {
+
+		/**
+		 * @param reason - One of {@link RefreshGovernor#SKIPPED_IN_FLIGHT},
+		 *            {@link RefreshGovernor#SKIPPED_COALESCED} or
+		 *            {@link RefreshGovernor#SKIPPED_RATE_LIMITED}
+		 */
+		public void onRefreshSkipped(int reason);
+
+	}
+
+}
@@ -0,0 +1,288 @@
+package cn.isif.widget.library.cache;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.ListView;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.ListViewPlus;
+import cn.isif.widget.library.ListViewPlusFooter;
+import cn.isif.widget.library.ListViewPlusHeader;
+import cn.isif.widget.library.diff.DiffListAdapter;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshListView;
+
+/**
+ * Shows the first page of a list from a {@link PageCache} straight away, then
+ * refreshes it in the background (stale-while-revalidate), rather than
+ * starting on an empty list with the header refreshing. On {@link #start()}:
+ * <ul>
+ * <li>the cached page, if any, is given to the adapter with
+ * {@link DiffListAdapter#setItems(List)}. A page still in the memory tier of a
+ * {@link LruPageCache} is shown before start() returns, otherwise it is read
+ * in the background.</li>
+ * <li>if the cached page is older than {@link #setMaxAge(long) max age}, the
+ * page is fetched again without showing the header, and the result applied
+ * with {@link DiffListAdapter#submitList(List, android.widget.AbsListView)},
+ * so only the rows which changed are bound again</li>
+ * <li>with nothing cached, the list refreshes as usual, showing the
+ * header</li>
+ * </ul>
+ * Each fetched page is put in the cache for next time. A pull while a
+ * background fetch is running waits for it instead of fetching again.
+ * <p/>
+ * Set it as the {@link ListViewPlus.Callback} of a {@link ListViewPlus}, or as
+ * the OnRefreshListener of a {@link PullToRefreshListView} pulling from the
+ * start. Only the first page is cached; load more is passed on to
+ * {@link #setLoadMoreCallback(ListViewPlus.Callback)}.
+ *
+ * @param <K> - Type of the page keys
+ * @param <T> - Type of the items
+ */
+public class CachedListLoader<K, T> implements ListViewPlus.Callback,
+		PullToRefreshBase.OnRefreshListener<ListView> {
+
+	/**
+	 * Fetches the page from the network, or wherever it comes from.
+	 */
+	public interface Fetcher<T> {
+
+		/**
+		 * Called on a background thread. Returning null counts as a failure.
+		 */
+		public List<T> fetch() throws Exception;
+
+	}
+
+	public interface OnFetchFailedListener {
+
+		/**
+		 * @param inBackground - true if the cached page was showing and no
+		 *            header was, so the user may not want to hear about it
+		 */
+		public void onFetchFailed(boolean inBackground, Exception error);
+
+	}
+
+	private final ListViewPlus listViewPlus;
+	private final PullToRefreshListView pullToRefreshListView;
+	private final PageCache<K, List<T>> cache;
+	private final K key;
+	private final Fetcher<T> fetcher;
+	private final DiffListAdapter<T> adapter;
+	private final Executor executor;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private long maxAgeMillis = 0;
+	private ListViewPlus.Callback loadMoreCallback;
+	private OnFetchFailedListener onFetchFailedListener;
+
+	// bumped by start() and cancel(), so older results get dropped.
+	private int token = 0;
+	private boolean fetching = false;
+	// the header is showing and waits for the fetch
+	private boolean headerWaiting = false;
+
+	public CachedListLoader(ListViewPlus list, PageCache<K, List<T>> cache, K key, Fetcher<T> fetcher,
+			DiffListAdapter<T> adapter) {
+		this(list, null, cache, key, fetcher, adapter, AsyncTask.THREAD_POOL_EXECUTOR);
+	}
+
+	public CachedListLoader(ListViewPlus list, PageCache<K, List<T>> cache, K key, Fetcher<T> fetcher,
+			DiffListAdapter<T> adapter, Executor executor) {
+		this(list, null, cache, key, fetcher, adapter, executor);
+	}
+
+	public CachedListLoader(PullToRefreshListView list, PageCache<K, List<T>> cache, K key, Fetcher<T> fetcher,
+			DiffListAdapter<T> adapter) {
+		this(null, list, cache, key, fetcher, adapter, AsyncTask.THREAD_POOL_EXECUTOR);
+	}
+
+	public CachedListLoader(PullToRefreshListView list, PageCache<K, List<T>> cache, K key, Fetcher<T> fetcher,
+			DiffListAdapter<T> adapter, Executor executor) {
+		this(null, list, cache, key, fetcher, adapter, executor);
+	}
+
+	private CachedListLoader(ListViewPlus listViewPlus, PullToRefreshListView pullToRefreshListView,
+			PageCache<K, List<T>> cache, K key, Fetcher<T> fetcher, DiffListAdapter<T> adapter, Executor executor) {
+		this.listViewPlus = listViewPlus;
+		this.pullToRefreshListView = pullToRefreshListView;
+		this.cache = cache;
+		this.key = key;
+		this.fetcher = fetcher;
+		this.adapter = adapter;
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets how old a cached page can be and still be shown without fetching
+	 * it again. 0, the default, always fetches it again.
+	 */
+	public void setMaxAge(long millis) {
+		maxAgeMillis = Math.max(millis, 0);
+	}
+
+	public void setLoadMoreCallback(ListViewPlus.Callback callback) {
+		loadMoreCallback = callback;
+	}
+
+	public void setOnFetchFailedListener(OnFetchFailedListener listener) {
+		onFetchFailedListener = listener;
+	}
+
+	/**
+	 * Shows the cached page, and fetches it again if needed. Call once the
+	 * list and the adapter are set up, typically in onCreate.
+	 */
+	public void start() {
+		final int startToken = ++token;
+		fetching = false;
+
+		if (cache instanceof LruPageCache) {
+			final PageCache.Entry<List<T>> entry = ((LruPageCache<K, List<T>>) cache).peek(key);
+			if (entry != null) {
+				onCacheRead(entry);
+				return;
+			}
+		}
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final PageCache.Entry<List<T>> entry = cache.get(key);
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (startToken == token) {
+							onCacheRead(entry);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	/**
+	 * Drops the result of the running fetch, and puts the header back to
+	 * normal. Call when the list goes away.
+	 */
+	public void cancel() {
+		token++;
+		fetching = false;
+		finishHeader(ListViewPlusHeader.STATE_NORMAL);
+	}
+
+	public boolean isFetching() {
+		return fetching;
+	}
+
+	@Override
+	public void onHeaderTriggerd() {
+		refresh();
+	}
+
+	@Override
+	public void onFooterTriggerd() {
+		if (loadMoreCallback != null) {
+			loadMoreCallback.onFooterTriggerd();
+		} else {
+			listViewPlus.footerFinished(ListViewPlusFooter.STATE_NORMAL);
+		}
+	}
+
+	@Override
+	public void onRefresh(PullToRefreshBase<ListView> refreshView) {
+		refresh();
+	}
+
+	private void refresh() {
+		headerWaiting = true;
+		if (!fetching) {
+			fetch();
+		}
+	}
+
+	private void onCacheRead(PageCache.Entry<List<T>> entry) {
+		if (entry == null) {
+			// nothing to show, refresh as if there was no cache
+			if (listViewPlus != null) {
+				listViewPlus.setAutoRefreshing();
+			} else {
+				pullToRefreshListView.setRefreshing();
+			}
+			return;
+		}
+		adapter.setItems(entry.value);
+		if (entry.isStale(System.currentTimeMillis(), maxAgeMillis)) {
+			fetch();
+		}
+	}
+
+	private void fetch() {
+		final int fetchToken = token;
+		fetching = true;
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				List<T> items = null;
+				Exception error = null;
+				try {
+					items = fetcher.fetch();
+					if (items == null) {
+						// not a page, don't cache it or empty the list with it
+						throw new IllegalStateException("Fetcher returned null");
+					}
+					cache.put(key, new PageCache.Entry<List<T>>(items));
+				} catch (Exception e) {
+					error = e;
+				}
+
+				final List<T> result = items;
+				final Exception failure = error;
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (fetchToken == token) {
+							onFetched(result, failure);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void onFetched(List<T> items, Exception error) {
+		fetching = false;
+		if (error == null) {
+			adapter.submitList(items, getListView());
+			finishHeader(ListViewPlusHeader.STATE_SUCCESS);
+		} else {
+			final boolean inBackground = !headerWaiting;
+			finishHeader(ListViewPlusHeader.STATE_FAIL);
+			if (onFetchFailedListener != null) {
+				onFetchFailedListener.onFetchFailed(inBackground, error);
+			}
+		}
+	}
+
+	private void finishHeader(int state) {
+		if (!headerWaiting) {
+			return;
+		}
+		headerWaiting = false;
+		if (listViewPlus != null) {
+			listViewPlus.headerFinished(state);
+		} else {
+			pullToRefreshListView.onRefreshComplete();
+		}
+	}
+
+	private ListView getListView() {
+		return listViewPlus != null ? listViewPlus : pullToRefreshListView.getRefreshableView();
+	}
+
+}
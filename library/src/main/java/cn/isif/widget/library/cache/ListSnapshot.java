@@ -0,0 +1,364 @@
+package cn.isif.widget.library.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary format for the items of a list, to show the rows a list
+ * had last time as soon as it is created. A snapshot is
+ * <ul>
+ * <li>a header: the magic, which includes the version of the format, the
+ * {@link RecordCodec#getVersion() version of the records} and the number of
+ * records, as ints</li>
+ * <li>the records, each an int length followed by the bytes the
+ * {@link RecordCodec} wrote</li>
+ * </ul>
+ * A snapshot of another format or record version can't be opened, so after
+ * the records change the old snapshots are simply not used.
+ * <p/>
+ * Snapshot files are read through a memory map, one record at a time, so the
+ * first screen of rows can be decoded and shown before the rest is read, see
+ * {@link Reader#read(List, int)}. Records are length-prefixed, so a codec
+ * can't read past its own, and a snapshot cut short is found out rather than
+ * decoded into garbage.
+ * <p/>
+ * Doesn't touch any Android classes, so it can be tested and benchmarked on
+ * the JVM. {@link SnapshotStore} saves and restores the snapshot of a list's
+ * adapter.
+ */
+public final class ListSnapshot {
+
+	/**
+	 * Writes an item as bytes and reads it back. Must be stateless, as it is
+	 * used from background threads.
+	 */
+	public interface RecordCodec<T> {
+
+		/**
+		 * @return Version of the records, to change whenever
+		 *         {@link #encode} does.
+		 */
+		public int getVersion();
+
+		/**
+		 * Puts <var>item</var> at the buffer's position. The buffer is grown
+		 * and the item encoded again if it overflows.
+		 */
+		public void encode(T item, ByteBuffer out);
+
+		/**
+		 * @param in - The record, from its position to its limit
+		 */
+		public T decode(ByteBuffer in);
+
+	}
+
+	// "LSN" and the version of the layout
+	private static final int MAGIC = 0x4c534e01;
+	// magic, record version, count
+	private static final int HEADER_SIZE = 4 + 4 + 4;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int RECORD_BUFFER_SIZE = 256;
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private ListSnapshot() {
+	}
+
+	/**
+	 * Writes <var>items</var> to a new file renamed over <var>file</var>, so
+	 * a reader never sees half a snapshot.
+	 */
+	public static <T> void write(File file, List<T> items, RecordCodec<T> codec) throws IOException {
+		final File temp = new File(file.getPath() + TEMP_SUFFIX);
+		final RandomAccessFile raf = new RandomAccessFile(temp, "rw");
+		boolean written = false;
+		try {
+			raf.setLength(0);
+			final FileChannel channel = raf.getChannel();
+			final Encoder<T> encoder = new Encoder<T>(codec, ByteBuffer.allocateDirect(BUFFER_SIZE), channel);
+			encoder.writeAll(items);
+			channel.force(false);
+			written = true;
+		} finally {
+			raf.close();
+			if (!written) {
+				temp.delete();
+			}
+		}
+		if (!temp.renameTo(file)) {
+			temp.delete();
+			throw new IOException("Could not rename " + temp + " to " + file);
+		}
+	}
+
+	/**
+	 * @return <var>items</var> as a snapshot in memory.
+	 */
+	public static <T> byte[] toBytes(List<T> items, RecordCodec<T> codec) {
+		final Encoder<T> encoder = new Encoder<T>(codec, ByteBuffer.allocate(BUFFER_SIZE), null);
+		try {
+			encoder.writeAll(items);
+		} catch (IOException e) {
+			// there's no channel to fail
+			throw new IllegalStateException(e);
+		}
+		final ByteBuffer out = encoder.out;
+		out.flip();
+		final byte[] bytes = new byte[out.remaining()];
+		out.get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Maps <var>file</var> and reads its header. The records are read as the
+	 * reader is asked for them.
+	 */
+	public static <T> Reader<T> open(File file, RecordCodec<T> codec) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final long length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Snapshot too large: " + length);
+			}
+			// the map stays valid after the channel is closed
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, length), codec);
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the header of the snapshot from the buffer's position to its
+	 * limit.
+	 */
+	public static <T> Reader<T> read(ByteBuffer buffer, RecordCodec<T> codec) throws IOException {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new IOException("Not a snapshot, too short");
+		}
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a snapshot, or an older format");
+		}
+		final int version = buffer.getInt();
+		if (version != codec.getVersion()) {
+			throw new IOException("Records are version " + version + ", expected " + codec.getVersion());
+		}
+		final int count = buffer.getInt();
+		// each record takes at least its length
+		if (count < 0 || count > buffer.remaining() / 4) {
+			throw new IOException("Bad record count " + count);
+		}
+		return new Reader<T>(buffer.slice(), codec, count);
+	}
+
+	/**
+	 * @return A codec storing pages of a {@link MappedFilePageCache} as
+	 *         snapshots.
+	 */
+	public static <T> MappedFilePageCache.Codec<List<T>> pageCodec(final RecordCodec<T> codec) {
+		return new MappedFilePageCache.Codec<List<T>>() {
+			@Override
+			public byte[] encode(List<T> value) throws IOException {
+				return toBytes(value, codec);
+			}
+
+			@Override
+			public List<T> decode(ByteBuffer buffer) throws IOException {
+				return read(buffer, codec).readAll();
+			}
+		};
+	}
+
+	/**
+	 * Puts <var>value</var> as its length in UTF-8 bytes followed by the
+	 * bytes, for {@link RecordCodec#encode}. null is written as a length of
+	 * -1.
+	 */
+	public static void putString(ByteBuffer out, String value) {
+		if (value == null) {
+			out.putInt(-1);
+			return;
+		}
+		final byte[] bytes = value.getBytes(UTF_8);
+		out.putInt(bytes.length);
+		out.put(bytes);
+	}
+
+	/**
+	 * Reads a string put by {@link #putString(ByteBuffer, String)}.
+	 */
+	public static String getString(ByteBuffer in) {
+		final int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		if (in.hasArray()) {
+			final String value = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+			in.position(in.position() + length);
+			return value;
+		}
+		final byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, UTF_8);
+	}
+
+	/**
+	 * Reads the records of a snapshot in order, each only when asked for.
+	 */
+	public static final class Reader<T> {
+
+		private final ByteBuffer buffer;
+		private final RecordCodec<T> codec;
+		private final int count;
+		private int read = 0;
+
+		Reader(ByteBuffer buffer, RecordCodec<T> codec, int count) {
+			this.buffer = buffer;
+			this.codec = codec;
+			this.count = count;
+		}
+
+		/**
+		 * @return Number of records in the snapshot.
+		 */
+		public int size() {
+			return count;
+		}
+
+		public boolean hasNext() {
+			return read < count;
+		}
+
+		public T next() throws IOException {
+			if (read >= count) {
+				throw new IOException("No more records");
+			}
+			if (buffer.remaining() < 4) {
+				throw new IOException("Snapshot cut short at record " + read);
+			}
+			final int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining()) {
+				throw new IOException("Snapshot cut short at record " + read);
+			}
+			final int end = buffer.position() + length;
+			final ByteBuffer record = buffer.slice();
+			record.limit(length);
+			buffer.position(end);
+			read++;
+			try {
+				return codec.decode(record);
+			} catch (BufferUnderflowException e) {
+				throw new IOException("Record " + (read - 1) + " is shorter than its codec expects");
+			}
+		}
+
+		/**
+		 * Reads up to <var>max</var> more records into <var>into</var>, for
+		 * instance the rows of the first screen.
+		 *
+		 * @return Number of records read.
+		 */
+		public int read(List<? super T> into, int max) throws IOException {
+			int n = 0;
+			while (n < max && read < count) {
+				into.add(next());
+				n++;
+			}
+			return n;
+		}
+
+		/**
+		 * @return The records which haven't been read yet.
+		 */
+		public List<T> readAll() throws IOException {
+			final ArrayList<T> items = new ArrayList<T>(count - read);
+			read(items, Integer.MAX_VALUE);
+			return items;
+		}
+
+	}
+
+	/**
+	 * Encodes records into <var>out</var>, draining it to the channel when
+	 * it is full, or growing it if there's no channel.
+	 */
+	private static final class Encoder<T> {
+		final RecordCodec<T> codec;
+		final FileChannel channel;
+		ByteBuffer out;
+		// each record is encoded here first, to know its length
+		ByteBuffer record = ByteBuffer.allocate(RECORD_BUFFER_SIZE);
+
+		Encoder(RecordCodec<T> codec, ByteBuffer out, FileChannel channel) {
+			this.codec = codec;
+			this.out = out;
+			this.channel = channel;
+		}
+
+		void writeAll(List<T> items) throws IOException {
+			final int count = items.size();
+			out.putInt(MAGIC);
+			out.putInt(codec.getVersion());
+			out.putInt(count);
+			for (int i = 0; i < count; i++) {
+				encode(items.get(i));
+				ensureRemaining(4 + record.remaining());
+				out.putInt(record.remaining());
+				out.put(record);
+			}
+			if (channel != null) {
+				drain();
+			}
+		}
+
+		private void encode(T item) {
+			while (true) {
+				record.clear();
+				try {
+					codec.encode(item, record);
+					record.flip();
+					return;
+				} catch (BufferOverflowException e) {
+					record = ByteBuffer.allocate(record.capacity() * 2);
+				}
+			}
+		}
+
+		private void ensureRemaining(int size) throws IOException {
+			if (out.remaining() >= size) {
+				return;
+			}
+			if (channel != null) {
+				drain();
+				if (out.capacity() >= size) {
+					return;
+				}
+			}
+			final ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + size));
+			out.flip();
+			bigger.put(out);
+			out = bigger;
+		}
+
+		private void drain() throws IOException {
+			out.flip();
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+			out.clear();
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package cn.isif.widget.library.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used pages in memory, in front of an optional
+ * slower cache such as a {@link MappedFilePageCache}. Pages found in the next
+ * tier are kept in memory too, and pages put in are written to both.
+ *
+ * @param <K> - Type of the keys
+ * @param <V> - Type of the cached values
+ */
+public class LruPageCache<K, V> implements PageCache<K, V> {
+
+	private final int maxEntries;
+	private final PageCache<K, V> next;
+	// in access order, the eldest first
+	private final LinkedHashMap<K, Entry<V>> entries;
+
+	private int hitCount = 0;
+	private int missCount = 0;
+
+	public LruPageCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * @param maxEntries - Number of pages kept in memory
+	 * @param next - Cache to go to for pages which aren't in memory, or null
+	 */
+	public LruPageCache(int maxEntries, PageCache<K, V> next) {
+		if (maxEntries <= 0) {
+			throw new IllegalArgumentException("Max entries must be greater than 0");
+		}
+		this.maxEntries = maxEntries;
+		this.next = next;
+		this.entries = new LinkedHashMap<K, Entry<V>>(maxEntries, 0.75f, true);
+	}
+
+	@Override
+	public Entry<V> get(K key) {
+		synchronized (this) {
+			final Entry<V> entry = entries.get(key);
+			if (entry != null) {
+				hitCount++;
+				return entry;
+			}
+			missCount++;
+		}
+
+		if (next == null) {
+			return null;
+		}
+		// not holding the lock while the next tier goes to disk
+		final Entry<V> entry = next.get(key);
+		if (entry != null) {
+			synchronized (this) {
+				// unless a newer one was put meanwhile
+				if (!entries.containsKey(key)) {
+					putInMemory(key, entry);
+				}
+			}
+		}
+		return entry;
+	}
+
+	/**
+	 * @return The entry for <var>key</var> if it is in memory, without going
+	 *         to the next tier. Can be called from the main thread.
+	 */
+	public synchronized Entry<V> peek(K key) {
+		return entries.get(key);
+	}
+
+	@Override
+	public void put(K key, Entry<V> entry) {
+		synchronized (this) {
+			putInMemory(key, entry);
+		}
+		if (next != null) {
+			next.put(key, entry);
+		}
+	}
+
+	@Override
+	public void remove(K key) {
+		synchronized (this) {
+			entries.remove(key);
+		}
+		if (next != null) {
+			next.remove(key);
+		}
+	}
+
+	@Override
+	public void clear() {
+		synchronized (this) {
+			entries.clear();
+		}
+		if (next != null) {
+			next.clear();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Number of {@link #get} calls answered from memory.
+	 */
+	public synchronized int getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return Number of {@link #get} calls which had to go to the next tier,
+	 *         or found nothing.
+	 */
+	public synchronized int getMissCount() {
+		return missCount;
+	}
+
+	private void putInMemory(K key, Entry<V> entry) {
+		entries.put(key, entry);
+		final Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+		while (entries.size() > maxEntries && it.hasNext()) {
+			it.next();
+			it.remove();
+		}
+	}
+
+}
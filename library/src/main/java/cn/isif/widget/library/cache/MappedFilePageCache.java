@@ -0,0 +1,240 @@
+package cn.isif.widget.library.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps pages in files of a directory, usually under
+ * {@link android.content.Context#getCacheDir()}, so they survive the process.
+ * Files are read and written through memory maps, so reading a page is no
+ * more than the page faults for its bytes and the {@link Codec} decoding them.
+ * <p/>
+ * Each page is written to a new file which is then renamed over the old one,
+ * so a reader never sees half a page, and a page which can't be read (from
+ * an older version, or cut short) is deleted and treated as not cached.
+ * Once the files take more than the given size, the least recently used are
+ * deleted.
+ * <p/>
+ * Doesn't touch any Android classes, so it can be tested on the JVM.
+ *
+ * @param <K> - Type of the keys. Their toString() names the file, so must be
+ *            stable across processes.
+ * @param <V> - Type of the cached values
+ */
+public class MappedFilePageCache<K, V> implements PageCache<K, V> {
+
+	/**
+	 * Turns values into bytes and back.
+	 */
+	public interface Codec<V> {
+
+		public byte[] encode(V value) throws IOException;
+
+		/**
+		 * @param buffer - The bytes written by {@link #encode}, from its
+		 *            position to its limit
+		 */
+		public V decode(ByteBuffer buffer) throws IOException;
+
+	}
+
+	// "PGC" and the version of the layout below
+	private static final int MAGIC = 0x50474301;
+	// magic, saved at, payload length
+	private static final int HEADER_SIZE = 4 + 8 + 4;
+	private static final String SUFFIX = ".page";
+	private static final String TEMP_SUFFIX = ".tmp";
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final File directory;
+	private final Codec<V> codec;
+	private final long maxBytes;
+
+	/**
+	 * @param directory - Directory of the files, only used by this cache
+	 * @param maxBytes - Size the files are trimmed to after each put
+	 */
+	public MappedFilePageCache(File directory, Codec<V> codec, long maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("Max bytes must be greater than 0");
+		}
+		this.directory = directory;
+		this.codec = codec;
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public synchronized Entry<V> get(K key) {
+		final File file = fileFor(key);
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			final Entry<V> entry = read(file);
+			// for trim(), which deletes the least recently used
+			file.setLastModified(System.currentTimeMillis());
+			return entry;
+		} catch (IOException e) {
+			file.delete();
+			return null;
+		}
+	}
+
+	@Override
+	public synchronized void put(K key, Entry<V> entry) {
+		final File file = fileFor(key);
+		final File temp = new File(directory, file.getName() + TEMP_SUFFIX);
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				return;
+			}
+			write(temp, entry);
+			if (!temp.renameTo(file)) {
+				temp.delete();
+				return;
+			}
+		} catch (IOException e) {
+			temp.delete();
+			return;
+		}
+		trim(file);
+	}
+
+	@Override
+	public synchronized void remove(K key) {
+		fileFor(key).delete();
+	}
+
+	@Override
+	public synchronized void clear() {
+		for (File file : listPages()) {
+			file.delete();
+		}
+	}
+
+	/**
+	 * @return Total size of the cached pages, in bytes.
+	 */
+	public synchronized long size() {
+		long size = 0;
+		for (File file : listPages()) {
+			size += file.length();
+		}
+		return size;
+	}
+
+	private Entry<V> read(File file) throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final long length = channel.size();
+			if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+				throw new IOException("Bad page file size " + length);
+			}
+			// the map stays valid after the channel is closed
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			if (buffer.getInt() != MAGIC) {
+				throw new IOException("Not a page file, or an older version");
+			}
+			final long savedAtMillis = buffer.getLong();
+			final int payloadLength = buffer.getInt();
+			if (payloadLength != buffer.remaining()) {
+				throw new IOException("Page file cut short");
+			}
+			return new Entry<V>(codec.decode(buffer.slice()), savedAtMillis);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void write(File file, Entry<V> entry) throws IOException {
+		final byte[] payload = codec.encode(entry.value);
+		final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final int length = HEADER_SIZE + payload.length;
+			raf.setLength(length);
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+			buffer.putInt(MAGIC);
+			buffer.putLong(entry.savedAtMillis);
+			buffer.putInt(payload.length);
+			buffer.put(payload);
+			buffer.force();
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * @param keep - The page just written, which is kept whatever its time
+	 *            as file times can be as coarse as a second
+	 */
+	private void trim(File keep) {
+		final File[] files = listPages();
+		long size = 0;
+		for (File file : files) {
+			size += file.length();
+		}
+		if (size <= maxBytes) {
+			return;
+		}
+		// least recently used first
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File lhs, File rhs) {
+				final long l = lhs.lastModified(), r = rhs.lastModified();
+				return l < r ? -1 : (l == r ? 0 : 1);
+			}
+		});
+		for (int i = 0; i < files.length && size > maxBytes; i++) {
+			if (files[i].equals(keep)) {
+				continue;
+			}
+			final long length = files[i].length();
+			if (files[i].delete()) {
+				size -= length;
+			}
+		}
+	}
+
+	private File[] listPages() {
+		final File[] files = directory.listFiles();
+		if (files == null) {
+			return new File[0];
+		}
+		int count = 0;
+		for (File file : files) {
+			if (file.getName().endsWith(SUFFIX)) {
+				files[count++] = file;
+			}
+		}
+		return Arrays.copyOf(files, count);
+	}
+
+	private File fileFor(K key) {
+		// hashed, so any key makes a valid file name of a fixed length
+		final byte[] digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1").digest(String.valueOf(key).getBytes(UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		final char[] name = new char[digest.length * 2];
+		for (int i = 0; i < digest.length; i++) {
+			name[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+			name[i * 2 + 1] = HEX[digest[i] & 0xf];
+		}
+		return new File(directory, new String(name) + SUFFIX);
+	}
+
+}
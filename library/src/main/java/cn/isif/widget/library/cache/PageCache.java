@@ -0,0 +1,57 @@
+package cn.isif.widget.library.cache;
+
+/**
+ * A cache of pages of a list, so it can show what it showed last time while
+ * the content is being refreshed, see {@link CachedListLoader}. Pages are
+ * usually cached as <code>PageCache&lt;K, List&lt;T&gt;&gt;</code>, <var>K</var>
+ * being the key of the page.
+ * <p/>
+ * Implementations must be safe to use from several threads. {@link #get} and
+ * {@link #put} may go to disk, so should not be called from the main thread.
+ *
+ * @param <K> - Type of the keys
+ * @param <V> - Type of the cached values
+ */
+public interface PageCache<K, V> {
+
+	/**
+	 * @return The entry for <var>key</var>, or null if it isn't cached.
+	 */
+	public Entry<V> get(K key);
+
+	public void put(K key, Entry<V> entry);
+
+	public void remove(K key);
+
+	public void clear();
+
+	/**
+	 * A cached value, with when it was saved.
+	 */
+	public static final class Entry<V> {
+
+		public final V value;
+		// wall clock time, as it has to survive the process
+		public final long savedAtMillis;
+
+		public Entry(V value) {
+			this(value, System.currentTimeMillis());
+		}
+
+		public Entry(V value, long savedAtMillis) {
+			this.value = value;
+			this.savedAtMillis = savedAtMillis;
+		}
+
+		/**
+		 * @return true if the entry was saved more than <var>maxAgeMillis</var>
+		 *         before <var>nowMillis</var>, or in its future.
+		 */
+		public boolean isStale(long nowMillis, long maxAgeMillis) {
+			final long age = nowMillis - savedAtMillis;
+			return age < 0 || age >= maxAgeMillis;
+		}
+
+	}
+
+}
@@ -0,0 +1,197 @@
+package cn.isif.widget.library.cache;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.diff.DiffListAdapter;
+
+/**
+ * Saves the items a list is showing as a {@link ListSnapshot} file, and puts
+ * them back into its adapter when the list is created again, typically before
+ * the first refresh comes back. Restoring reads the first screen of rows and
+ * hands them to the adapter straight away, then reads the rest; the rows
+ * already bound keep their items, so they aren't bound again when the rest
+ * arrives.
+ * <p/>
+ * Fresh data wins over the snapshot: a restore stops as soon as anything
+ * else sets or submits items to the adapter, or on {@link #cancelRestore()}.
+ * <p/>
+ * Files are only read and written on the executor.
+ *
+ * @param <T> - Type of the items
+ */
+public class SnapshotStore<T> {
+
+	public static final int DEFAULT_FIRST_SCREEN = 20;
+
+	public interface OnRestoredListener {
+
+		/**
+		 * Called once all the rows of the snapshot are in the adapter, or
+		 * straight away if there was none. Not called if the restore was
+		 * stopped.
+		 *
+		 * @param restored - false if there was no snapshot, or it couldn't be
+		 *            read
+		 */
+		public void onRestored(boolean restored);
+
+	}
+
+	private final File file;
+	private final ListSnapshot.RecordCodec<T> codec;
+	private final Executor executor;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private int firstScreen = DEFAULT_FIRST_SCREEN;
+
+	// bumped by each restore(), cancelRestore() and clear(), so an older
+	// restore stops.
+	private int generation = 0;
+
+	public SnapshotStore(File file, ListSnapshot.RecordCodec<T> codec) {
+		this(file, codec, AsyncTask.SERIAL_EXECUTOR);
+	}
+
+	/**
+	 * @param executor - Runs the reads and writes. Should run them one at a
+	 *            time, so a restore doesn't overtake the save before it.
+	 */
+	public SnapshotStore(File file, ListSnapshot.RecordCodec<T> codec, Executor executor) {
+		this.file = file;
+		this.codec = codec;
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets how many rows are read and shown before the rest, about as many
+	 * as fit on the screen.
+	 */
+	public void setFirstScreen(int rows) {
+		firstScreen = Math.max(rows, 1);
+	}
+
+	/**
+	 * Saves a copy of <var>items</var>, for instance when a refresh arrives
+	 * or in onStop.
+	 */
+	public void save(List<T> items) {
+		final ArrayList<T> copy = new ArrayList<T>(items);
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					ListSnapshot.write(file, copy, codec);
+				} catch (IOException e) {
+					// keeps the last snapshot which was written
+				}
+			}
+		});
+	}
+
+	/**
+	 * Puts the saved items into <var>adapter</var> with
+	 * {@link DiffListAdapter#setItems(List)}, the first screen first.
+	 */
+	public void restore(final DiffListAdapter<T> adapter, final OnRestoredListener listener) {
+		final Restore restore = new Restore(++generation, adapter);
+		final int first = firstScreen;
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final ListSnapshot.Reader<T> reader;
+				final ArrayList<T> items;
+				try {
+					reader = ListSnapshot.open(file, codec);
+					items = new ArrayList<T>(reader.size());
+					reader.read(items, first);
+				} catch (IOException e) {
+					post(restore, adapter, null, listener);
+					return;
+				}
+
+				if (!reader.hasNext()) {
+					post(restore, adapter, items, listener);
+					return;
+				}
+				// show the first screen while the rest is read
+				post(restore, adapter, new ArrayList<T>(items), null);
+				try {
+					reader.read(items, Integer.MAX_VALUE);
+				} catch (IOException e) {
+					// keep what was read, it's still the start of the list
+				}
+				post(restore, adapter, items, listener);
+			}
+		});
+	}
+
+	/**
+	 * Stops the running restore, if any, so that none of the snapshot is put
+	 * in the adapter from now on. A restore already stops by itself if the
+	 * adapter is given items some other way.
+	 */
+	public void cancelRestore() {
+		generation++;
+	}
+
+	/**
+	 * Deletes the snapshot, for instance when the user logs out.
+	 */
+	public void clear() {
+		generation++;
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				file.delete();
+			}
+		});
+	}
+
+	/**
+	 * @param items - Items to set, or null if nothing could be restored
+	 * @param listener - Listener to call after, or null
+	 */
+	private void post(final Restore restore, final DiffListAdapter<T> adapter, final List<T> items,
+			final OnRestoredListener listener) {
+		mainHandler.post(new Runnable() {
+			@Override
+			public void run() {
+				if (restore.generation != generation || restore.adapterGeneration != adapter.getGeneration()) {
+					// cancelled, or the adapter has fresher items than ours
+					return;
+				}
+				if (items != null) {
+					adapter.setItems(items);
+					restore.adapterGeneration = adapter.getGeneration();
+				}
+				if (listener != null) {
+					listener.onRestored(items != null);
+				}
+			}
+		});
+	}
+
+	/**
+	 * A restore, and the adapter generation it expects to find.
+	 */
+	static final class Restore {
+		final int generation;
+		// only touched on the main thread
+		int adapterGeneration;
+
+		Restore(int generation, DiffListAdapter<?> adapter) {
+			this.generation = generation;
+			this.adapterGeneration = adapter.getGeneration();
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+package cn.isif.widget.library.diff;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.R;
+
+/**
+ * An adapter which updates from a new list by diffing it against the current
+ * one with {@link MyersDiff} on a background thread, rather than rebinding
+ * everything.
+ * <p/>
+ * When the new list is applied:
+ * <ul>
+ * <li>if nothing changed, the list isn't notified at all</li>
+ * <li>items whose contents are the same keep their existing instance, so
+ * their rows are handed back as they are by {@link #getView} instead of being
+ * bound again. Only inserted and changed rows go through
+ * {@link #getItemView}. Rows must therefore only depend on their item, not
+ * on their position.</li>
+ * <li>the first visible item stays where it was on screen, wherever it moved
+ * to in the list</li>
+ * </ul>
+ *
+ * @param <T> - Type of the items
+ */
+public abstract class DiffListAdapter<T> extends BaseAdapter {
+
+	private final MyersDiff.ItemCallback<T> callback;
+	private final Executor executor;
+	private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+	private List<T> items = Collections.emptyList();
+
+	// bumped by every submit, so only the latest diff gets applied.
+	private int generation = 0;
+
+	public DiffListAdapter(MyersDiff.ItemCallback<T> callback) {
+		this(callback, AsyncTask.THREAD_POOL_EXECUTOR);
+	}
+
+	public DiffListAdapter(MyersDiff.ItemCallback<T> callback, Executor executor) {
+		this.callback = callback;
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates or binds the View for an item, in the same way as
+	 * {@link BaseAdapter#getView(int, View, ViewGroup)}.
+	 */
+	protected abstract View getItemView(int position, View convertView, ViewGroup parent);
+
+	@Override
+	public final View getView(int position, View convertView, ViewGroup parent) {
+		final T item = items.get(position);
+		if (convertView != null && convertView.getTag(R.id.diff_bound_item) == item) {
+			// already showing this exact item
+			return convertView;
+		}
+		final View view = getItemView(position, convertView, parent);
+		view.setTag(R.id.diff_bound_item, item);
+		return view;
+	}
+
+	@Override
+	public int getCount() {
+		return items.size();
+	}
+
+	@Override
+	public T getItem(int position) {
+		return items.get(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	/**
+	 * @return The current items. Don't modify it.
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return A count bumped by every {@link #setItems(List)} and
+	 *         {@link #submitList(List)}, so code filling the adapter in the
+	 *         background can tell whether anything else has since.
+	 */
+	public int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Replaces the items without diffing, for the first load.
+	 */
+	public void setItems(List<T> newItems) {
+		generation++;
+		items = newItems != null ? newItems : Collections.<T> emptyList();
+		notifyDataSetChanged();
+	}
+
+	public void submitList(List<T> newItems) {
+		submitList(newItems, null);
+	}
+
+	/**
+	 * Diffs <var>newItems</var> against the current items in the background,
+	 * then applies the result.
+	 *
+	 * @param newItems - The new items. Don't modify it afterwards.
+	 * @param listView - If not null, its first visible item is kept in place.
+	 */
+	public void submitList(final List<T> newItems, final AbsListView listView) {
+		final int submitGeneration = ++generation;
+		final List<T> oldItems = items;
+		final List<T> target = newItems != null ? newItems : Collections.<T> emptyList();
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final MyersDiff.Result result = MyersDiff.calculate(oldItems, target, callback);
+				mainHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						if (submitGeneration == generation) {
+							apply(oldItems, target, result, listView);
+						}
+					}
+				});
+			}
+		});
+	}
+
+	private void apply(List<T> oldItems, List<T> newItems, MyersDiff.Result result, AbsListView listView) {
+		if (result.isEmpty()) {
+			// same items, same contents. keep the old instances so the rows
+			// stay as they are, and leave the list alone.
+			return;
+		}
+
+		// keep the instances of unchanged items, so their rows aren't rebound
+		final ArrayList<T> merged = new ArrayList<T>(newItems.size());
+		for (int newPos = 0, z = newItems.size(); newPos < z; newPos++) {
+			final int oldPos = result.getOldPosition(newPos);
+			if (oldPos != MyersDiff.Result.NO_POSITION && !result.isChanged(newPos)) {
+				merged.add(oldItems.get(oldPos));
+			} else {
+				merged.add(newItems.get(newPos));
+			}
+		}
+
+		int anchorPosition = MyersDiff.Result.NO_POSITION;
+		int anchorTop = 0;
+		int headerCount = 0;
+		if (listView != null && listView.getChildCount() > 0) {
+			if (listView instanceof ListView) {
+				headerCount = ((ListView) listView).getHeaderViewsCount();
+			}
+			final int first = listView.getFirstVisiblePosition() - headerCount;
+			anchorTop = listView.getChildAt(0).getTop();
+
+			// first item from the top of the screen which is still there.
+			// if a header is showing we're at the top, so stay there.
+			for (int oldPos = first; oldPos >= 0 && oldPos < oldItems.size(); oldPos++) {
+				anchorPosition = result.getNewPosition(oldPos);
+				if (anchorPosition != MyersDiff.Result.NO_POSITION) {
+					break;
+				}
+			}
+		}
+
+		items = merged;
+		notifyDataSetChanged();
+
+		if (anchorPosition != MyersDiff.Result.NO_POSITION && listView instanceof ListView) {
+			((ListView) listView).setSelectionFromTop(anchorPosition + headerCount, anchorTop);
+		}
+	}
+
+}
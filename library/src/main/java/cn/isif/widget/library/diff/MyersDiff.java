@@ -0,0 +1,325 @@
+package cn.isif.widget.library.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Works out which items of an old list are still in a new list, using Eugene
+ * Myers' O(ND) difference algorithm with the linear space "middle snake"
+ * refinement. Common leading and trailing items are matched up front, so the
+ * usual refresh (a few items added at the top, or changed) costs little more
+ * than a single pass over the lists.
+ * <p/>
+ * Does not touch any Android classes, so it can be run on any thread.
+ */
+public final class MyersDiff {
+
+	/**
+	 * Decides whether two items are the same, and whether they look the same.
+	 */
+	public static interface ItemCallback<T> {
+
+		/**
+		 * @return true if both represent the same item, usually by comparing
+		 *         ids.
+		 */
+		public boolean areItemsTheSame(T oldItem, T newItem);
+
+		/**
+		 * Only called for items where {@link #areItemsTheSame} returned true.
+		 * 
+		 * @return true if the row for <var>oldItem</var> can be shown for
+		 *         <var>newItem</var> without being bound again.
+		 */
+		public boolean areContentsTheSame(T oldItem, T newItem);
+
+	}
+
+	private MyersDiff() {
+	}
+
+	public static <T> Result calculate(List<T> oldList, List<T> newList, ItemCallback<T> callback) {
+		final int oldSize = oldList.size();
+		final int newSize = newList.size();
+
+		final int[] oldToNew = new int[oldSize];
+		final int[] newToOld = new int[newSize];
+		final boolean[] changed = new boolean[newSize];
+		for (int i = 0; i < oldSize; i++) {
+			oldToNew[i] = Result.NO_POSITION;
+		}
+		for (int i = 0; i < newSize; i++) {
+			newToOld[i] = Result.NO_POSITION;
+		}
+
+		final Differ<T> differ = new Differ<T>(oldList, newList, callback, oldToNew, newToOld);
+
+		// Match the common prefix and suffix directly
+		int oldStart = 0, newStart = 0;
+		while (oldStart < oldSize && newStart < newSize && differ.same(oldStart, newStart)) {
+			differ.match(oldStart++, newStart++, 1);
+		}
+		int oldEnd = oldSize, newEnd = newSize;
+		while (oldEnd > oldStart && newEnd > newStart && differ.same(oldEnd - 1, newEnd - 1)) {
+			differ.match(--oldEnd, --newEnd, 1);
+		}
+
+		differ.diff(oldStart, oldEnd, newStart, newEnd);
+
+		for (int newPos = 0; newPos < newSize; newPos++) {
+			final int oldPos = newToOld[newPos];
+			if (oldPos != Result.NO_POSITION) {
+				changed[newPos] = !callback.areContentsTheSame(oldList.get(oldPos), newList.get(newPos));
+			}
+		}
+
+		return new Result(oldToNew, newToOld, changed);
+	}
+
+	/**
+	 * Outcome of {@link MyersDiff#calculate}.
+	 */
+	public static final class Result {
+
+		public static final int NO_POSITION = -1;
+
+		private final int[] mOldToNew;
+		private final int[] mNewToOld;
+		private final boolean[] mChanged;
+
+		Result(int[] oldToNew, int[] newToOld, boolean[] changed) {
+			mOldToNew = oldToNew;
+			mNewToOld = newToOld;
+			mChanged = changed;
+		}
+
+		/**
+		 * @return Position of the item in the new list, or
+		 *         {@link #NO_POSITION} if it was removed.
+		 */
+		public int getNewPosition(int oldPosition) {
+			return mOldToNew[oldPosition];
+		}
+
+		/**
+		 * @return Position of the item in the old list, or
+		 *         {@link #NO_POSITION} if it was inserted.
+		 */
+		public int getOldPosition(int newPosition) {
+			return mNewToOld[newPosition];
+		}
+
+		/**
+		 * @return true if the item was in the old list, but its contents have
+		 *         changed.
+		 */
+		public boolean isChanged(int newPosition) {
+			return mChanged[newPosition];
+		}
+
+		public boolean isInserted(int newPosition) {
+			return mNewToOld[newPosition] == NO_POSITION;
+		}
+
+		/**
+		 * @return true if the new list shows exactly the same as the old one.
+		 */
+		public boolean isEmpty() {
+			if (mOldToNew.length != mNewToOld.length) {
+				return false;
+			}
+			for (int i = 0; i < mNewToOld.length; i++) {
+				if (mNewToOld[i] != i || mChanged[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public int getOldListSize() {
+			return mOldToNew.length;
+		}
+
+		public int getNewListSize() {
+			return mNewToOld.length;
+		}
+	}
+
+	static final class Differ<T> {
+
+		private final List<T> mOldList;
+		private final List<T> mNewList;
+		private final ItemCallback<T> mCallback;
+		private final int[] mOldToNew;
+		private final int[] mNewToOld;
+
+		// Furthest reaching x for each diagonal k, offset by mOffset
+		private int[] mForward;
+		private int[] mBackward;
+		private int mOffset;
+
+		// Filled in by findMiddleSnake()
+		private int mSnakeStartX, mSnakeStartY, mSnakeEndX, mSnakeEndY;
+		private boolean mSnakeReverse;
+
+		Differ(List<T> oldList, List<T> newList, ItemCallback<T> callback, int[] oldToNew, int[] newToOld) {
+			mOldList = oldList;
+			mNewList = newList;
+			mCallback = callback;
+			mOldToNew = oldToNew;
+			mNewToOld = newToOld;
+		}
+
+		boolean same(int oldPos, int newPos) {
+			return mCallback.areItemsTheSame(mOldList.get(oldPos), mNewList.get(newPos));
+		}
+
+		void match(int oldPos, int newPos, int size) {
+			for (int i = 0; i < size; i++) {
+				mOldToNew[oldPos + i] = newPos + i;
+				mNewToOld[newPos + i] = oldPos + i;
+			}
+		}
+
+		/**
+		 * Diffs the ranges [oldStart, oldEnd) and [newStart, newEnd), using an
+		 * explicit stack rather than recursion so deep diffs can't overflow.
+		 */
+		void diff(int oldStart, int oldEnd, int newStart, int newEnd) {
+			final int max = (oldEnd - oldStart + newEnd - newStart + 1) / 2;
+			mOffset = max + 1;
+			mForward = new int[mOffset * 2 + 1];
+			mBackward = new int[mOffset * 2 + 1];
+
+			final ArrayList<int[]> stack = new ArrayList<int[]>();
+			stack.add(new int[] { oldStart, oldEnd, newStart, newEnd });
+
+			while (!stack.isEmpty()) {
+				final int[] range = stack.remove(stack.size() - 1);
+				if (!findMiddleSnake(range[0], range[1], range[2], range[3])) {
+					continue;
+				}
+
+				final int startX = mSnakeStartX, startY = mSnakeStartY;
+				final int endX = mSnakeEndX, endY = mSnakeEndY;
+
+				// The snake may start (forward) or end (reverse) with a single
+				// insertion or removal, the rest of it is a diagonal of matches
+				final int diagonalSize = Math.min(endX - startX, endY - startY);
+				if (endX - startX != endY - startY) {
+					if (mSnakeReverse) {
+						match(startX, startY, diagonalSize);
+					} else if (endY - startY > endX - startX) {
+						match(startX, startY + 1, diagonalSize);
+					} else {
+						match(startX + 1, startY, diagonalSize);
+					}
+				} else {
+					match(startX, startY, endX - startX);
+				}
+
+				stack.add(new int[] { range[0], startX, range[2], startY });
+				stack.add(new int[] { endX, range[1], endY, range[3] });
+			}
+		}
+
+		private boolean findMiddleSnake(int oldStart, int oldEnd, int newStart, int newEnd) {
+			final int oldSize = oldEnd - oldStart;
+			final int newSize = newEnd - newStart;
+			if (oldSize < 1 || newSize < 1) {
+				return false;
+			}
+
+			final int max = (oldSize + newSize + 1) / 2;
+			mForward[mOffset + 1] = oldStart;
+			mBackward[mOffset + 1] = oldEnd;
+
+			for (int d = 0; d < max; d++) {
+				if (forward(oldStart, oldEnd, newStart, newEnd, d)) {
+					return true;
+				}
+				if (backward(oldStart, oldEnd, newStart, newEnd, d)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean forward(int oldStart, int oldEnd, int newStart, int newEnd, int d) {
+			final int delta = (oldEnd - oldStart) - (newEnd - newStart);
+			final boolean checkForSnake = Math.abs(delta) % 2 == 1;
+
+			for (int k = -d; k <= d; k += 2) {
+				final int startX;
+				int x;
+				if (k == -d || (k != d && mForward[mOffset + k + 1] > mForward[mOffset + k - 1])) {
+					// Moving down, an insertion
+					x = startX = mForward[mOffset + k + 1];
+				} else {
+					// Moving right, a removal
+					startX = mForward[mOffset + k - 1];
+					x = startX + 1;
+				}
+				int y = newStart + (x - oldStart) - k;
+				final int startY = (d == 0 || x != startX) ? y : y - 1;
+
+				while (x < oldEnd && y < newEnd && same(x, y)) {
+					x++;
+					y++;
+				}
+				mForward[mOffset + k] = x;
+
+				if (checkForSnake) {
+					final int backwardK = delta - k;
+					if (backwardK >= -d + 1 && backwardK <= d - 1 && mBackward[mOffset + backwardK] <= x) {
+						setSnake(startX, startY, x, y, false);
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private boolean backward(int oldStart, int oldEnd, int newStart, int newEnd, int d) {
+			final int delta = (oldEnd - oldStart) - (newEnd - newStart);
+			final boolean checkForSnake = Math.abs(delta) % 2 == 0;
+
+			for (int k = -d; k <= d; k += 2) {
+				final int startX;
+				int x;
+				if (k == -d || (k != d && mBackward[mOffset + k + 1] < mBackward[mOffset + k - 1])) {
+					x = startX = mBackward[mOffset + k + 1];
+				} else {
+					startX = mBackward[mOffset + k - 1];
+					x = startX - 1;
+				}
+				int y = newEnd - ((oldEnd - x) - k);
+				final int startY = (d == 0 || x != startX) ? y : y + 1;
+
+				while (x > oldStart && y > newStart && same(x - 1, y - 1)) {
+					x--;
+					y--;
+				}
+				mBackward[mOffset + k] = x;
+
+				if (checkForSnake) {
+					final int forwardK = delta - k;
+					if (forwardK >= -d && forwardK <= d && mForward[mOffset + forwardK] >= x) {
+						setSnake(x, y, startX, startY, true);
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private void setSnake(int startX, int startY, int endX, int endY, boolean reverse) {
+			mSnakeStartX = startX;
+			mSnakeStartY = startY;
+			mSnakeEndX = endX;
+			mSnakeEndY = endY;
+			mSnakeReverse = reverse;
+		}
+	}
+
+}
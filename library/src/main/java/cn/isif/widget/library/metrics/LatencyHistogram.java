@@ -0,0 +1,216 @@
+package cn.isif.widget.library.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies, laid out like HdrHistogram: values are counted
+ * in power-of-two buckets, each split into 128 linear sub-buckets, so any
+ * recorded value is known to within 2% however large it is. The counts are
+ * allocated up front and recording never allocates.
+ * <p/>
+ * Values are in whatever unit the caller records them in. Values above the
+ * highest trackable value are counted as the highest trackable value.
+ * <p/>
+ * Not thread safe.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF_COUNT_BITS = SUB_BUCKET_BITS - 1;
+	private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_BITS;
+	private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+	private final long mHighestTrackableValue;
+	private final int[] mCounts;
+
+	private long mTotalCount = 0;
+	private long mTotal = 0;
+	private long mMin = Long.MAX_VALUE;
+	private long mMax = 0;
+
+	/**
+	 * @param highestTrackableValue - Largest value to tell apart from larger
+	 *            ones, at least 1
+	 */
+	public LatencyHistogram(long highestTrackableValue) {
+		if (highestTrackableValue < 1) {
+			throw new IllegalArgumentException("highestTrackableValue must be at least 1");
+		}
+		mHighestTrackableValue = highestTrackableValue;
+		mCounts = new int[countsIndex(highestTrackableValue) + 1];
+	}
+
+	/**
+	 * @param value - Value to count, negative values are counted as 0
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		mCounts[countsIndex(Math.min(value, mHighestTrackableValue))]++;
+		mTotalCount++;
+		mTotal += value;
+		mMin = Math.min(mMin, value);
+		mMax = Math.max(mMax, value);
+	}
+
+	public void reset() {
+		Arrays.fill(mCounts, 0);
+		mTotalCount = 0;
+		mTotal = 0;
+		mMin = Long.MAX_VALUE;
+		mMax = 0;
+	}
+
+	/**
+	 * Adds the values recorded in <var>other</var> to this histogram. Both
+	 * must have the same highest trackable value.
+	 */
+	public void add(LatencyHistogram other) {
+		if (other.mCounts.length != mCounts.length) {
+			throw new IllegalArgumentException("Histograms have different ranges");
+		}
+		for (int i = 0; i < mCounts.length; i++) {
+			mCounts[i] += other.mCounts[i];
+		}
+		mTotalCount += other.mTotalCount;
+		mTotal += other.mTotal;
+		mMin = Math.min(mMin, other.mMin);
+		mMax = Math.max(mMax, other.mMax);
+	}
+
+	public long getTotalCount() {
+		return mTotalCount;
+	}
+
+	/**
+	 * @return The smallest value recorded, exactly, or 0 if none have been.
+	 */
+	public long getMin() {
+		return mTotalCount == 0 ? 0 : mMin;
+	}
+
+	/**
+	 * @return The largest value recorded, exactly, or 0 if none have been.
+	 */
+	public long getMax() {
+		return mMax;
+	}
+
+	public double getMean() {
+		return mTotalCount == 0 ? 0 : (double) mTotal / mTotalCount;
+	}
+
+	/**
+	 * @param percentile - Between 0 and 100
+	 * @return The value which <var>percentile</var> percent of the recorded
+	 *         values are at or below, or 0 if none have been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (mTotalCount == 0) {
+			return 0;
+		}
+		final double clamped = Math.max(0, Math.min(percentile, 100));
+		final long countAtPercentile = Math.max(1, (long) Math.ceil(clamped / 100 * mTotalCount));
+
+		long count = 0;
+		for (int i = 0; i < mCounts.length; i++) {
+			count += mCounts[i];
+			if (count >= countAtPercentile) {
+				// Never report more than was actually seen
+				return Math.min(highestEquivalentValue(i), mMax);
+			}
+		}
+		return mMax;
+	}
+
+	public long getP50() {
+		return getValueAtPercentile(50);
+	}
+
+	public long getP90() {
+		return getValueAtPercentile(90);
+	}
+
+	public long getP99() {
+		return getValueAtPercentile(99);
+	}
+
+	/**
+	 * @return How many buckets the histogram has, for
+	 *         {@link #getBucketValue(int)} and {@link #getBucketCount(int)}.
+	 */
+	public int getBucketCount() {
+		return mCounts.length;
+	}
+
+	/**
+	 * @return The smallest value which is counted in bucket <var>index</var>.
+	 */
+	public long getBucketValue(int index) {
+		return lowestEquivalentValue(index);
+	}
+
+	/**
+	 * @return How many values have been counted in bucket <var>index</var>.
+	 */
+	public int getBucketCount(int index) {
+		return mCounts[index];
+	}
+
+	/**
+	 * Writes a summary line, then one line per non-empty bucket with the
+	 * bucket's lowest value and count separated by a tab. Allocates nothing
+	 * if <var>out</var> has room.
+	 *
+	 * @param out - Where to write, may be re-used between dumps
+	 */
+	public void dump(StringBuilder out) {
+		out.append("count=").append(mTotalCount);
+		out.append(" min=").append(getMin());
+		out.append(" max=").append(mMax);
+		out.append(" p50=").append(getP50());
+		out.append(" p90=").append(getP90());
+		out.append(" p99=").append(getP99());
+		out.append('\n');
+		for (int i = 0; i < mCounts.length; i++) {
+			if (mCounts[i] != 0) {
+				out.append(lowestEquivalentValue(i)).append('\t').append(mCounts[i]).append('\n');
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		dump(sb);
+		return sb.toString();
+	}
+
+	static int countsIndex(long value) {
+		// Which power-of-two bucket, bucket 0 holding all values below
+		// SUB_BUCKET_COUNT
+		final int bucketIndex = 64 - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK) - SUB_BUCKET_BITS;
+		final int subBucketIndex = (int) (value >>> bucketIndex);
+		// Buckets above 0 only use the top half of their sub-buckets, the
+		// bottom half being covered by the bucket below
+		return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_BITS) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+	}
+
+	static long lowestEquivalentValue(int index) {
+		int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_BITS) - 1;
+		int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+		if (bucketIndex < 0) {
+			subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+			bucketIndex = 0;
+		}
+		return ((long) subBucketIndex) << bucketIndex;
+	}
+
+	static long highestEquivalentValue(int index) {
+		final int bucketIndex = Math.max(0, (index >> SUB_BUCKET_HALF_COUNT_BITS) - 1);
+		return lowestEquivalentValue(index) + (1L << bucketIndex) - 1;
+	}
+
+}
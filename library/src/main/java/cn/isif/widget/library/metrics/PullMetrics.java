@@ -0,0 +1,148 @@
+package cn.isif.widget.library.metrics;
+
+/**
+ * The stats of one pull gesture, from the finger starting to pull (or a
+ * refresh being started from code) until the header or footer is back at
+ * rest. Times are in nanoseconds, and {@link #NONE} for phases the gesture
+ * didn't have, e.g. a pull which was released before it could refresh.
+ * <p/>
+ * Instances are owned and re-used by {@link PullMetricsRecorder}, so only
+ * read them in {@link PullMetricsListener#onPullMetrics(PullMetrics)} or
+ * {@link #copyFrom(PullMetrics) copy} them.
+ */
+public final class PullMetrics {
+
+	/**
+	 * Pulled from the start: the header.
+	 */
+	public static final int EDGE_START = 0;
+
+	/**
+	 * Pulled from the end: the footer.
+	 */
+	public static final int EDGE_END = 1;
+
+	public static final long NONE = -1;
+
+	int edge;
+	boolean dragged;
+	boolean refreshed;
+	int frames;
+	int framesOverBudget;
+	long startTimeNanos;
+	long durationNanos;
+	long releaseToRefreshingNanos;
+	long refreshingNanos;
+	long snapBackNanos;
+
+	public PullMetrics() {
+		reset();
+	}
+
+	/**
+	 * @return {@link #EDGE_START} or {@link #EDGE_END}.
+	 */
+	public int getEdge() {
+		return edge;
+	}
+
+	/**
+	 * @return false if the refresh was started from code, rather than by
+	 *         pulling.
+	 */
+	public boolean isDragged() {
+		return dragged;
+	}
+
+	/**
+	 * @return true if the gesture refreshed (or loaded more).
+	 */
+	public boolean isRefreshed() {
+		return refreshed;
+	}
+
+	/**
+	 * @return Frames rendered while the header or footer was moving. Always 0
+	 *         before JELLY_BEAN.
+	 */
+	public int getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * @return How many of those frames came later than the frame budget, i.e.
+	 *         at least one frame was dropped before them.
+	 */
+	public int getFramesOverBudget() {
+		return framesOverBudget;
+	}
+
+	/**
+	 * @return {@link System#nanoTime()} when the gesture started.
+	 */
+	public long getStartTimeNanos() {
+		return startTimeNanos;
+	}
+
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	/**
+	 * @return Time from the finger lifting until the widget started
+	 *         refreshing.
+	 */
+	public long getReleaseToRefreshingNanos() {
+		return releaseToRefreshingNanos;
+	}
+
+	/**
+	 * @return Time spent refreshing, until the refresh was reported complete.
+	 */
+	public long getRefreshingNanos() {
+		return refreshingNanos;
+	}
+
+	/**
+	 * @return Time taken by the header or footer to go back to rest at the end
+	 *         of the gesture.
+	 */
+	public long getSnapBackNanos() {
+		return snapBackNanos;
+	}
+
+	public void copyFrom(PullMetrics other) {
+		edge = other.edge;
+		dragged = other.dragged;
+		refreshed = other.refreshed;
+		frames = other.frames;
+		framesOverBudget = other.framesOverBudget;
+		startTimeNanos = other.startTimeNanos;
+		durationNanos = other.durationNanos;
+		releaseToRefreshingNanos = other.releaseToRefreshingNanos;
+		refreshingNanos = other.refreshingNanos;
+		snapBackNanos = other.snapBackNanos;
+	}
+
+	void reset() {
+		edge = EDGE_START;
+		dragged = false;
+		refreshed = false;
+		frames = 0;
+		framesOverBudget = 0;
+		startTimeNanos = 0;
+		durationNanos = 0;
+		releaseToRefreshingNanos = NONE;
+		refreshingNanos = NONE;
+		snapBackNanos = NONE;
+	}
+
+	@Override
+	public String toString() {
+		return "PullMetrics{edge=" + (edge == EDGE_START ? "start" : "end") + ", dragged=" + dragged
+				+ ", refreshed=" + refreshed + ", frames=" + frames + ", framesOverBudget=" + framesOverBudget
+				+ ", durationNanos=" + durationNanos + ", releaseToRefreshingNanos=" + releaseToRefreshingNanos
+				+ ", refreshingNanos=" + refreshingNanos + ", snapBackNanos=" + snapBackNanos + "}";
+	}
+
+}
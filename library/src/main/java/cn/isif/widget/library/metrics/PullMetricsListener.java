@@ -0,0 +1,17 @@
+package cn.isif.widget.library.metrics;
+
+/**
+ * Receives the stats of each pull gesture, see
+ * {@link cn.isif.widget.library.ListViewPlus#setPullMetricsListener(PullMetricsListener)}
+ * and
+ * {@link cn.isif.widget.library.pulltorefresh.PullToRefreshBase#setPullMetricsListener(PullMetricsListener)}.
+ */
+public interface PullMetricsListener {
+
+	/**
+	 * Called on the main thread once a gesture is over. <var>metrics</var> is
+	 * re-used for the next gesture, copy it to keep it.
+	 */
+	public void onPullMetrics(PullMetrics metrics);
+
+}
@@ -0,0 +1,317 @@
+package cn.isif.widget.library.metrics;
+
+import android.annotation.TargetApi;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.view.Choreographer;
+
+/**
+ * Records {@link PullMetrics} for the gestures of one widget, keeping the
+ * last few in a fixed-size ring buffer along with running totals.
+ * <p/>
+ * The widget reports each phase of a gesture as it happens. While the header
+ * or footer is moving, frames are counted with a {@link Choreographer}
+ * callback, which is re-posted each frame without allocating. Everything is
+ * allocated up front, so recording can be left enabled in production.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public final class PullMetricsRecorder {
+
+	public static final int DEFAULT_CAPACITY = 32;
+
+	/**
+	 * One frame at 60fps.
+	 */
+	public static final long DEFAULT_FRAME_INTERVAL_NANOS = 16666667L;
+
+	private final PullMetrics[] mRecords;
+	private int mNext = 0;
+	private int mCount = 0;
+
+	private long mTotalGestures = 0;
+	private long mTotalFrames = 0;
+	private long mTotalFramesOverBudget = 0;
+
+	private PullMetricsListener mListener;
+
+	// The gesture being recorded
+	private final PullMetrics mCurrent = new PullMetrics();
+	private boolean mActive = false;
+	private boolean mReleased = false;
+	private boolean mRefreshing = false;
+	private boolean mSnappingBack = false;
+	private long mReleaseTimeNanos;
+	private long mRefreshingStartNanos;
+	private long mSnapBackStartNanos;
+
+	private long mOverBudgetNanos;
+	private final FrameCounter mFrameCounter;
+
+	public PullMetricsRecorder() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity - How many gestures to keep
+	 */
+	public PullMetricsRecorder(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be greater than 0");
+		}
+		mRecords = new PullMetrics[capacity];
+		for (int i = 0; i < capacity; i++) {
+			mRecords[i] = new PullMetrics();
+		}
+		setFrameIntervalNanos(DEFAULT_FRAME_INTERVAL_NANOS);
+
+		if (VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
+			mFrameCounter = new SDK16FrameCounter();
+		} else {
+			mFrameCounter = null;
+		}
+	}
+
+	public void setListener(PullMetricsListener listener) {
+		mListener = listener;
+	}
+
+	/**
+	 * Sets the display's frame interval. A frame counts as over budget when it
+	 * arrives more than one and a half intervals after the previous one, i.e.
+	 * a vsync was missed.
+	 */
+	public void setFrameIntervalNanos(long frameIntervalNanos) {
+		mOverBudgetNanos = frameIntervalNanos + frameIntervalNanos / 2;
+	}
+
+	/**
+	 * @return How many gestures are held, at most the capacity.
+	 */
+	public int size() {
+		return mCount;
+	}
+
+	/**
+	 * @param index - 0 for the oldest gesture held, {@link #size()} - 1 for
+	 *            the latest
+	 * @return The gesture's stats. Re-used once the ring buffer wraps around.
+	 */
+	public PullMetrics get(int index) {
+		if (index < 0 || index >= mCount) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCount);
+		}
+		final int capacity = mRecords.length;
+		return mRecords[(mNext - mCount + index + capacity) % capacity];
+	}
+
+	/**
+	 * @return Gestures recorded since creation or {@link #clear()}, including
+	 *         those which have dropped out of the ring buffer.
+	 */
+	public long getTotalGestures() {
+		return mTotalGestures;
+	}
+
+	public long getTotalFrames() {
+		return mTotalFrames;
+	}
+
+	public long getTotalFramesOverBudget() {
+		return mTotalFramesOverBudget;
+	}
+
+	public void clear() {
+		mNext = 0;
+		mCount = 0;
+		mTotalGestures = 0;
+		mTotalFrames = 0;
+		mTotalFramesOverBudget = 0;
+	}
+
+	/**
+	 * The finger has started pulling <var>edge</var>. Ignored while a refresh
+	 * is running, and ends any snap back which is still going.
+	 */
+	public void onPullStarted(int edge) {
+		if (mActive) {
+			if (mRefreshing) {
+				return;
+			}
+			// Caught while snapping back, that's the end of that gesture
+			if (mSnappingBack) {
+				onSnapBackFinished();
+			}
+			finishGesture();
+		}
+		startGesture(edge, true);
+	}
+
+	/**
+	 * The finger has been lifted.
+	 */
+	public void onReleased() {
+		if (mActive && !mReleased) {
+			mReleased = true;
+			mReleaseTimeNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * The widget has started refreshing or loading more at <var>edge</var>,
+	 * either from a pull or from code.
+	 */
+	public void onRefreshing(int edge) {
+		if (mRefreshing) {
+			return;
+		}
+		if (!mActive) {
+			startGesture(edge, false);
+			mReleased = true;
+		}
+		final long now = System.nanoTime();
+		mRefreshing = true;
+		mRefreshingStartNanos = now;
+		mCurrent.refreshed = true;
+		if (mCurrent.dragged) {
+			mCurrent.releaseToRefreshingNanos = now - mReleaseTimeNanos;
+		}
+		updateFrameCounting();
+	}
+
+	public void onRefreshComplete() {
+		if (mRefreshing) {
+			mRefreshing = false;
+			mCurrent.refreshingNanos = System.nanoTime() - mRefreshingStartNanos;
+			updateFrameCounting();
+		}
+	}
+
+	/**
+	 * The header or footer has started moving back to rest.
+	 */
+	public void onSnapBackStarted() {
+		if (mActive && mReleased && !mSnappingBack) {
+			mSnappingBack = true;
+			mSnapBackStartNanos = System.nanoTime();
+			updateFrameCounting();
+		}
+	}
+
+	public void onSnapBackFinished() {
+		if (mSnappingBack) {
+			mSnappingBack = false;
+			final long snapBack = System.nanoTime() - mSnapBackStartNanos;
+			mCurrent.snapBackNanos = mCurrent.snapBackNanos == PullMetrics.NONE ? snapBack
+					: mCurrent.snapBackNanos + snapBack;
+			updateFrameCounting();
+		}
+	}
+
+	/**
+	 * The header and footer are at rest. Ends the gesture, unless a refresh or
+	 * snap back is still running.
+	 */
+	public void onAtRest() {
+		if (mActive && mReleased && !mRefreshing && !mSnappingBack) {
+			finishGesture();
+		}
+	}
+
+	/**
+	 * Drops the gesture being recorded without reporting it, e.g. when the
+	 * widget is detached part way through one.
+	 */
+	public void cancel() {
+		mActive = false;
+		updateFrameCounting();
+	}
+
+	void onFrame(long frameTimeNanos, long previousFrameTimeNanos) {
+		mCurrent.frames++;
+		if (previousFrameTimeNanos > 0 && frameTimeNanos - previousFrameTimeNanos > mOverBudgetNanos) {
+			mCurrent.framesOverBudget++;
+		}
+	}
+
+	private void startGesture(int edge, boolean dragged) {
+		mCurrent.reset();
+		mCurrent.edge = edge;
+		mCurrent.dragged = dragged;
+		mCurrent.startTimeNanos = System.nanoTime();
+		mActive = true;
+		mReleased = false;
+		mRefreshing = false;
+		mSnappingBack = false;
+		updateFrameCounting();
+	}
+
+	private void finishGesture() {
+		mActive = false;
+		updateFrameCounting();
+		mCurrent.durationNanos = System.nanoTime() - mCurrent.startTimeNanos;
+
+		final PullMetrics record = mRecords[mNext];
+		record.copyFrom(mCurrent);
+		mNext = (mNext + 1) % mRecords.length;
+		mCount = Math.min(mCount + 1, mRecords.length);
+
+		mTotalGestures++;
+		mTotalFrames += record.frames;
+		mTotalFramesOverBudget += record.framesOverBudget;
+
+		if (null != mListener) {
+			mListener.onPullMetrics(record);
+		}
+	}
+
+	/**
+	 * Frames are counted while the finger is down and while the header or
+	 * footer is moving back, but not while it sits still refreshing.
+	 */
+	private void updateFrameCounting() {
+		if (null != mFrameCounter) {
+			mFrameCounter.setCounting(mActive && (!mRefreshing || mSnappingBack));
+		}
+	}
+
+	static interface FrameCounter {
+		void setCounting(boolean counting);
+	}
+
+	@TargetApi(16)
+	final class SDK16FrameCounter implements FrameCounter, Choreographer.FrameCallback {
+
+		private boolean mCounting = false;
+		private boolean mPosted = false;
+		private long mLastFrameTimeNanos = 0;
+
+		@Override
+		public void setCounting(boolean counting) {
+			if (counting == mCounting) {
+				return;
+			}
+			mCounting = counting;
+			// A gap while we weren't counting isn't a dropped frame
+			mLastFrameTimeNanos = 0;
+			if (counting && !mPosted) {
+				mPosted = true;
+				Choreographer.getInstance().postFrameCallback(this);
+			}
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			mPosted = false;
+			if (!mCounting) {
+				return;
+			}
+			onFrame(frameTimeNanos, mLastFrameTimeNanos);
+			mLastFrameTimeNanos = frameTimeNanos;
+
+			mPosted = true;
+			Choreographer.getInstance().postFrameCallback(this);
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+package cn.isif.widget.library.metrics;
+
+/**
+ * Records how long refreshes and loads take, from the widget telling the app
+ * to start one until the app tells the widget it has finished, in a
+ * {@link LatencyHistogram} for each edge. Latencies are in microseconds.
+ * <p/>
+ * Only the app's part of the round trip is measured: the widget's own
+ * animations and delays after it is told a refresh has finished are not, see
+ * {@link PullMetrics#getSnapBackNanos()} for those.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+public final class RefreshLatencyRecorder {
+
+	/**
+	 * Ten minutes, anything slower is counted as this.
+	 */
+	public static final long HIGHEST_TRACKABLE_MICROS = 10L * 60 * 1000 * 1000;
+
+	private final LatencyHistogram mRefreshLatency = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+	private final LatencyHistogram mLoadMoreLatency = new LatencyHistogram(HIGHEST_TRACKABLE_MICROS);
+
+	private long mRefreshTriggeredNanos = PullMetrics.NONE;
+	private long mLoadMoreTriggeredNanos = PullMetrics.NONE;
+
+	/**
+	 * The widget has asked the app to refresh (<var>edge</var> is
+	 * {@link PullMetrics#EDGE_START}) or load more ({@link PullMetrics#EDGE_END}).
+	 */
+	public void onTriggered(int edge) {
+		if (edge == PullMetrics.EDGE_START) {
+			mRefreshTriggeredNanos = System.nanoTime();
+		} else {
+			mLoadMoreTriggeredNanos = System.nanoTime();
+		}
+	}
+
+	/**
+	 * The app has finished the refresh or load at <var>edge</var>. Ignored if
+	 * the widget didn't ask for one.
+	 */
+	public void onFinished(int edge) {
+		if (edge == PullMetrics.EDGE_START) {
+			if (mRefreshTriggeredNanos != PullMetrics.NONE) {
+				mRefreshLatency.record((System.nanoTime() - mRefreshTriggeredNanos) / 1000);
+				mRefreshTriggeredNanos = PullMetrics.NONE;
+			}
+		} else if (mLoadMoreTriggeredNanos != PullMetrics.NONE) {
+			mLoadMoreLatency.record((System.nanoTime() - mLoadMoreTriggeredNanos) / 1000);
+			mLoadMoreTriggeredNanos = PullMetrics.NONE;
+		}
+	}
+
+	/**
+	 * @return Latencies of refreshes, pulled from the start.
+	 */
+	public LatencyHistogram getRefreshLatency() {
+		return mRefreshLatency;
+	}
+
+	/**
+	 * @return Latencies of loading more, pulled from the end.
+	 */
+	public LatencyHistogram getLoadMoreLatency() {
+		return mLoadMoreLatency;
+	}
+
+	public void reset() {
+		mRefreshLatency.reset();
+		mLoadMoreLatency.reset();
+	}
+
+	/**
+	 * Writes both histograms, see {@link LatencyHistogram#dump(StringBuilder)}
+	 * for the format.
+	 */
+	public void dump(StringBuilder out) {
+		out.append("refresh ");
+		mRefreshLatency.dump(out);
+		out.append("loadMore ");
+		mLoadMoreLatency.dump(out);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		dump(sb);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,310 @@
+package cn.isif.widget.library.paging;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An adapter which loads its items a page at a time from a
+ * {@link PagedSource}. The next page is requested as soon as a row within
+ * {@link #setPrefetchDistance(int) prefetch distance} of the end is bound, so
+ * on a list scrolling at a normal speed the page has arrived before the user
+ * reaches the end.
+ * <p/>
+ * Only one page is ever loading at a time, further requests are dropped until
+ * it arrives, and a {@link #refresh()} waits for it. Each page is appended in one go with a single
+ * notifyDataSetChanged, rather than one per item.
+ * <p/>
+ * Works with any ListView, and with {@link cn.isif.widget.library.ListViewPlus}
+ * calling {@link #loadNextPage()} from
+ * {@link cn.isif.widget.library.ListViewPlus.Callback#onFooterTriggerd()}.
+ * Nothing is loaded until {@link #loadNextPage()} or {@link #refresh()} is
+ * called for the first page.
+ *
+ * @param <K> - Type of the page keys
+ * @param <T> - Type of the items
+ */
+public abstract class PagedListAdapter<K, T> extends BaseAdapter {
+
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	public static final int DEFAULT_PREFETCH_DISTANCE = 5;
+
+	private final PagedSource<K, T> source;
+	private final ArrayList<T> items = new ArrayList<T>();
+	private final int pageSize;
+	private int prefetchDistance = DEFAULT_PREFETCH_DISTANCE;
+
+	private K nextKey;
+	private boolean hasMore = true;
+	private boolean lastLoadFailed = false;
+
+	// the page the source is loading, results for any other request are
+	// dropped, and so is this one's once it is cancelled.
+	private PageRequest loadingRequest;
+	// refresh() was called while a page was loading, the first page is
+	// requested as soon as that one arrives.
+	private boolean refreshPending = false;
+
+	private boolean prefetchPosted = false;
+	private final Runnable prefetchRunnable = new Runnable() {
+		@Override
+		public void run() {
+			prefetchPosted = false;
+			loadNextPage();
+		}
+	};
+
+	private OnPageLoadListener onPageLoadListener;
+
+	public PagedListAdapter(PagedSource<K, T> source) {
+		this(source, DEFAULT_PAGE_SIZE);
+	}
+
+	public PagedListAdapter(PagedSource<K, T> source, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("Page size must be greater than 0");
+		}
+		this.source = source;
+		this.pageSize = pageSize;
+		this.nextKey = source.getInitialKey();
+	}
+
+	/**
+	 * Creates the View for an item, in the same way as
+	 * {@link BaseAdapter#getView(int, View, ViewGroup)}.
+	 */
+	protected abstract View getItemView(int position, View convertView, ViewGroup parent);
+
+	@Override
+	public final View getView(int position, View convertView, ViewGroup parent) {
+		// we're in the middle of a layout pass, so don't change the data
+		// under the list here. ask for the page once the pass is done.
+		if (!prefetchPosted && shouldPrefetch(position)) {
+			prefetchPosted = true;
+			parent.post(prefetchRunnable);
+		}
+		return getItemView(position, convertView, parent);
+	}
+
+	@Override
+	public int getCount() {
+		return items.size();
+	}
+
+	@Override
+	public T getItem(int position) {
+		return items.get(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return position;
+	}
+
+	/**
+	 * Sets how many rows from the end the next page is requested. 0 only
+	 * requests it when the last row is bound.
+	 */
+	public void setPrefetchDistance(int prefetchDistance) {
+		this.prefetchDistance = Math.max(prefetchDistance, 0);
+	}
+
+	public int getPrefetchDistance() {
+		return prefetchDistance;
+	}
+
+	public void setOnPageLoadListener(OnPageLoadListener listener) {
+		onPageLoadListener = listener;
+	}
+
+	/**
+	 * Called with each position that is bound, requests the next page if
+	 * <var>position</var> is within the prefetch distance of the end.
+	 */
+	public void loadAround(int position) {
+		if (shouldPrefetch(position)) {
+			loadNextPage();
+		}
+	}
+
+	/**
+	 * Requests the next page, unless one is already loading or the last page
+	 * has been loaded. Also retries after a failed page, which prefetching
+	 * does not do by itself.
+	 *
+	 * @return true if a page was requested.
+	 */
+	public boolean loadNextPage() {
+		if (loadingRequest != null || !hasMore) {
+			return false;
+		}
+		request(nextKey, false);
+		return true;
+	}
+
+	/**
+	 * Loads the first page again. The current items stay until it arrives,
+	 * and are then replaced. If a page is loading, it is ignored when it
+	 * arrives and the first page is only requested then, so the source never
+	 * has two pages loading at once.
+	 */
+	public void refresh() {
+		if (loadingRequest != null) {
+			loadingRequest.cancelled = true;
+			refreshPending = true;
+			return;
+		}
+		request(source.getInitialKey(), true);
+	}
+
+	/**
+	 * @return true while a page is loading, or a refresh is waiting for one
+	 *         to arrive. False while the only page loading is one which will
+	 *         be ignored, although {@link #loadNextPage()} still waits for it.
+	 */
+	public boolean isLoading() {
+		return refreshPending || (loadingRequest != null && !loadingRequest.cancelled);
+	}
+
+	public boolean hasMore() {
+		return hasMore;
+	}
+
+	/**
+	 * @return The items loaded so far. Don't modify it.
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return Key of the next page to load, null after the last page.
+	 */
+	public K getNextKey() {
+		return nextKey;
+	}
+
+	/**
+	 * Puts back items and the key of the next page saved from
+	 * {@link #getItems()} and {@link #getNextKey()}, for instance across a
+	 * configuration change, without loading anything. Any page which is
+	 * loading is ignored when it arrives.
+	 *
+	 * @param nextKey - Key of the next page, or null if all pages were loaded
+	 */
+	public void restore(List<T> restoredItems, K nextKey) {
+		// the source may still be loading it, keep it to wait for
+		if (loadingRequest != null) {
+			loadingRequest.cancelled = true;
+		}
+		refreshPending = false;
+		lastLoadFailed = false;
+		items.clear();
+		items.addAll(restoredItems);
+		this.nextKey = nextKey;
+		hasMore = nextKey != null;
+		notifyDataSetChanged();
+	}
+
+	private boolean shouldPrefetch(int position) {
+		return !lastLoadFailed && loadingRequest == null && hasMore
+				&& position >= items.size() - 1 - prefetchDistance;
+	}
+
+	private void request(K key, boolean isRefresh) {
+		PageRequest request = new PageRequest(isRefresh);
+		loadingRequest = request;
+		lastLoadFailed = false;
+		source.loadPage(key, pageSize, request);
+	}
+
+	void onPageLoaded(PageRequest request, List<T> page, K next) {
+		if (request != loadingRequest) {
+			return;
+		}
+		loadingRequest = null;
+		if (request.cancelled) {
+			requestPendingRefresh();
+			return;
+		}
+
+		if (request.isRefresh) {
+			items.clear();
+		}
+		if (page != null) {
+			items.addAll(page);
+		}
+		nextKey = next;
+		hasMore = next != null;
+
+		// one notify per page, however many items are in it
+		notifyDataSetChanged();
+
+		if (onPageLoadListener != null) {
+			onPageLoadListener.onPageLoaded(request.isRefresh, hasMore);
+		}
+	}
+
+	void onPageFailed(PageRequest request, Throwable error) {
+		if (request != loadingRequest) {
+			return;
+		}
+		loadingRequest = null;
+		if (request.cancelled) {
+			requestPendingRefresh();
+			return;
+		}
+		lastLoadFailed = true;
+
+		if (onPageLoadListener != null) {
+			onPageLoadListener.onPageFailed(request.isRefresh, error);
+		}
+	}
+
+	private void requestPendingRefresh() {
+		if (refreshPending) {
+			refreshPending = false;
+			request(source.getInitialKey(), true);
+		}
+	}
+
+	/**
+	 * Listener for pages arriving, for example to call
+	 * {@link cn.isif.widget.library.ListViewPlus#footerFinished(int)}.
+	 */
+	public static interface OnPageLoadListener {
+
+		/**
+		 * @param isRefresh - true if this was the first page after
+		 *            {@link PagedListAdapter#refresh()}
+		 * @param hasMore - false if this was the last page
+		 */
+		public void onPageLoaded(boolean isRefresh, boolean hasMore);
+
+		public void onPageFailed(boolean isRefresh, Throwable error);
+
+	}
+
+	final class PageRequest implements PagedSource.Callback<K, T> {
+		final boolean isRefresh;
+		boolean cancelled = false;
+
+		PageRequest(boolean isRefresh) {
+			this.isRefresh = isRefresh;
+		}
+
+		@Override
+		public void onPageLoaded(List<T> page, K next) {
+			PagedListAdapter.this.onPageLoaded(this, page, next);
+		}
+
+		@Override
+		public void onPageFailed(Throwable error) {
+			PagedListAdapter.this.onPageFailed(this, error);
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package cn.isif.widget.library.paging;
+
+import java.util.List;
+
+/**
+ * A source of pages of items for {@link PagedListAdapter}. Each page is
+ * identified by a key of type <var>K</var> (a page number, a cursor, the id of
+ * the last item, ...) and tells the adapter the key of the page after it.
+ *
+ * @param <K> - Type of the page keys
+ * @param <T> - Type of the items
+ */
+public interface PagedSource<K, T> {
+
+	/**
+	 * @return Key of the first page.
+	 */
+	public K getInitialKey();
+
+	/**
+	 * Loads a page. The adapter never asks for a page while another one is
+	 * still loading, so implementations don't need to de-duplicate requests.
+	 * This holds for a refresh too: it waits for the page which is loading
+	 * to be delivered, and then ignores it.
+	 * <p/>
+	 * The result may be delivered synchronously, or later; either way it has
+	 * to be delivered on the main thread.
+	 *
+	 * @param key - Key of the page to load
+	 * @param pageSize - Number of items the adapter would like
+	 * @param callback - Callback to deliver the result to, exactly once
+	 */
+	public void loadPage(K key, int pageSize, Callback<K, T> callback);
+
+	/**
+	 * Receives the result of {@link PagedSource#loadPage}.
+	 */
+	public static interface Callback<K, T> {
+
+		/**
+		 * @param items - Items of the page, in order
+		 * @param nextKey - Key of the next page, or null if this was the last
+		 *            one
+		 */
+		public void onPageLoaded(List<T> items, K nextKey);
+
+		public void onPageFailed(Throwable error);
+
+	}
+
+}
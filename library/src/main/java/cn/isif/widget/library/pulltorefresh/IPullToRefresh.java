@@ -147,6 +147,22 @@ public interface IPullToRefresh<T extends View> {
 	 */
 	public boolean isScrollingWhileRefreshingEnabled();
 
+	/**
+	 * Returns whether the Header/Footer snap back using a spring, rather than
+	 * a fixed duration animation.
+	 * 
+	 * @return true if spring snap-back is enabled
+	 */
+	public boolean isSpringSnapBackEnabled();
+
+	/**
+	 * Returns whether pulls are handed over by a nested scrolling Refreshable
+	 * View. See {@link #setNestedScrollingPullEnabled(boolean)}.
+	 * 
+	 * @return true if nested scrolling pulls are enabled
+	 */
+	public boolean isNestedScrollingPullEnabled();
+
 	/**
 	 * Mark the current Refresh as complete. Will Reset the UI and hide the
 	 * Refreshing View
@@ -244,4 +260,28 @@ public interface IPullToRefresh<T extends View> {
 	 */
 	public void setShowViewWhileRefreshing(boolean showView);
 
+	/**
+	 * Sets whether the Header/Footer should snap back using a spring. The
+	 * spring carries on with the velocity the user released with, so flicks
+	 * settle in fewer frames, and it never overshoots the resting position.
+	 * When disabled (the default), a fixed duration animation using the
+	 * Interpolator from {@link #setScrollAnimationInterpolator(Interpolator)}
+	 * is used instead.
+	 * 
+	 * @param enabled - true if you want spring snap-back
+	 */
+	public void setSpringSnapBackEnabled(boolean enabled);
+
+	/**
+	 * Sets whether a Refreshable View which supports nested scrolling
+	 * (ListView, GridView, ScrollView and so on from Lollipop) should scroll
+	 * itself and hand over to the Header/Footer once it reaches an edge,
+	 * rather than this widget taking its touch events from it. A fling which
+	 * reaches an edge carries on into the Header/Footer. Nested scrolling is
+	 * enabled on the Refreshable View to match. Ignored before Lollipop.
+	 * 
+	 * @param enabled - true to pull through nested scrolling
+	 */
+	public void setNestedScrollingPullEnabled(boolean enabled);
+
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.View;
+import android.view.ViewGroup;
+
+import cn.isif.widget.library.ListViewPlusFooter;
+
+/**
+ * Wraps the adapter of a {@link RecyclerView}, such as the one of a
+ * {@link PullToRefreshRecyclerView}, adding a {@link ListViewPlusFooter} after
+ * its items and asking for more once an item within
+ * {@link #setPrefetchDistance(int) prefetch distance} of the end is bound.
+ * <p/>
+ * Changes to the wrapped adapter are passed on, so notify it as usual. Its
+ * view types must not be {@link #VIEW_TYPE_FOOTER}. With a
+ * {@link GridLayoutManager}, call {@link #fitFooterToGrid(GridLayoutManager)}
+ * so the footer takes a whole row; with a {@link StaggeredGridLayoutManager}
+ * the footer spans all the columns by itself.
+ *
+ * @param <VH> - Type of the ViewHolders of the wrapped adapter
+ */
+public class LoadMoreRecyclerAdapter<VH extends RecyclerView.ViewHolder> extends
+		RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+	public static final int VIEW_TYPE_FOOTER = Integer.MIN_VALUE;
+
+	/**
+	 * Called when more items should be loaded. Call
+	 * {@link LoadMoreRecyclerAdapter#loadMoreFinished(boolean)} or
+	 * {@link LoadMoreRecyclerAdapter#loadMoreFailed()} once they are.
+	 */
+	public static interface OnLoadMoreListener {
+
+		public void onLoadMore();
+
+	}
+
+	private final RecyclerView.Adapter<VH> mAdapter;
+
+	private OnLoadMoreListener mOnLoadMoreListener;
+	private int mPrefetchDistance = 0;
+
+	// One of ListViewPlusFooter's states, but never STATE_READY
+	private int mState = ListViewPlusFooter.STATE_NORMAL;
+	// Don't ask again by binding after a failure, only when the footer is
+	// clicked, or it would fail over and over
+	private boolean mLastLoadFailed = false;
+	private boolean mLoadPosted = false;
+	// Not View.post(), which waits for the view to be attached
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+	private final Runnable mLoadRunnable = new Runnable() {
+		@Override
+		public void run() {
+			mLoadPosted = false;
+			loadMore();
+		}
+	};
+
+	private final View.OnClickListener mFooterClickListener = new View.OnClickListener() {
+		@Override
+		public void onClick(View v) {
+			if (mState == ListViewPlusFooter.STATE_NORMAL) {
+				loadMore();
+			}
+		}
+	};
+
+	public LoadMoreRecyclerAdapter(RecyclerView.Adapter<VH> adapter) {
+		mAdapter = adapter;
+		setHasStableIds(adapter.hasStableIds());
+		adapter.registerAdapterDataObserver(new ForwardingObserver());
+	}
+
+	public RecyclerView.Adapter<VH> getWrappedAdapter() {
+		return mAdapter;
+	}
+
+	public void setOnLoadMoreListener(OnLoadMoreListener listener) {
+		mOnLoadMoreListener = listener;
+	}
+
+	/**
+	 * Sets how many items from the end more are asked for. 0, the default,
+	 * only asks once the footer is bound.
+	 */
+	public void setPrefetchDistance(int items) {
+		mPrefetchDistance = Math.max(items, 0);
+	}
+
+	/**
+	 * Makes the footer take a whole row of <var>layoutManager</var>, keeping
+	 * the span sizes of its SpanSizeLookup for the other items.
+	 */
+	public void fitFooterToGrid(final GridLayoutManager layoutManager) {
+		final GridLayoutManager.SpanSizeLookup lookup = layoutManager.getSpanSizeLookup();
+		layoutManager.setSpanSizeLookup(new GridLayoutManager.SpanSizeLookup() {
+			@Override
+			public int getSpanSize(int position) {
+				return isFooter(position) ? layoutManager.getSpanCount() : lookup.getSpanSize(position);
+			}
+		});
+	}
+
+	/**
+	 * @param hasMore - false if everything has been loaded, the footer then
+	 *            says so and no more is asked for until {@link #reset()}.
+	 */
+	public void loadMoreFinished(boolean hasMore) {
+		mLastLoadFailed = false;
+		setState(hasMore ? ListViewPlusFooter.STATE_NORMAL : ListViewPlusFooter.STATE_NO_MORE);
+	}
+
+	/**
+	 * Puts the footer back to normal. More is asked for again when the footer
+	 * is clicked.
+	 */
+	public void loadMoreFailed() {
+		mLastLoadFailed = true;
+		setState(ListViewPlusFooter.STATE_NORMAL);
+	}
+
+	/**
+	 * Asks for more again, for instance once the list has been refreshed.
+	 */
+	public void reset() {
+		mLastLoadFailed = false;
+		mState = ListViewPlusFooter.STATE_NORMAL;
+		// Bind the footer again, which asks for more if it is on screen
+		notifyItemChanged(mAdapter.getItemCount());
+	}
+
+	public boolean isLoading() {
+		return mState == ListViewPlusFooter.STATE_LOADING;
+	}
+
+	@Override
+	public int getItemCount() {
+		return mAdapter.getItemCount() + 1;
+	}
+
+	@Override
+	public int getItemViewType(int position) {
+		return isFooter(position) ? VIEW_TYPE_FOOTER : mAdapter.getItemViewType(position);
+	}
+
+	@Override
+	public long getItemId(int position) {
+		return isFooter(position) ? Long.MIN_VALUE : mAdapter.getItemId(position);
+	}
+
+	@Override
+	public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+		if (viewType != VIEW_TYPE_FOOTER) {
+			return mAdapter.onCreateViewHolder(parent, viewType);
+		}
+
+		final ListViewPlusFooter footer = new ListViewPlusFooter(parent.getContext());
+		footer.setOnClickListener(mFooterClickListener);
+		final RecyclerView.LayoutManager layoutManager = ((RecyclerView) parent).getLayoutManager();
+		if (layoutManager instanceof StaggeredGridLayoutManager) {
+			// Has to be set before it is laid out, which is before it is
+			// attached
+			final StaggeredGridLayoutManager.LayoutParams lp = new StaggeredGridLayoutManager.LayoutParams(
+					ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+			lp.setFullSpan(true);
+			footer.setLayoutParams(lp);
+		} else {
+			footer.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+					ViewGroup.LayoutParams.WRAP_CONTENT));
+		}
+		return new FooterViewHolder(footer);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+		if (holder instanceof FooterViewHolder) {
+			((ListViewPlusFooter) holder.itemView).setState(mState);
+		} else {
+			mAdapter.onBindViewHolder((VH) holder, position);
+		}
+
+		if (!mLoadPosted && shouldLoadMore(position)) {
+			// We're in the middle of a layout pass, so don't change the
+			// data under the RecyclerView here. Ask once the pass is done.
+			mLoadPosted = true;
+			mHandler.post(mLoadRunnable);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onViewRecycled(RecyclerView.ViewHolder holder) {
+		if (!(holder instanceof FooterViewHolder)) {
+			mAdapter.onViewRecycled((VH) holder);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onViewAttachedToWindow(RecyclerView.ViewHolder holder) {
+		if (!(holder instanceof FooterViewHolder)) {
+			mAdapter.onViewAttachedToWindow((VH) holder);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onViewDetachedFromWindow(RecyclerView.ViewHolder holder) {
+		if (!(holder instanceof FooterViewHolder)) {
+			mAdapter.onViewDetachedFromWindow((VH) holder);
+		}
+	}
+
+	private boolean isFooter(int position) {
+		return position == mAdapter.getItemCount();
+	}
+
+	private boolean shouldLoadMore(int position) {
+		return null != mOnLoadMoreListener && mState == ListViewPlusFooter.STATE_NORMAL && !mLastLoadFailed
+				&& position >= mAdapter.getItemCount() - mPrefetchDistance;
+	}
+
+	private void loadMore() {
+		if (null == mOnLoadMoreListener || mState != ListViewPlusFooter.STATE_NORMAL) {
+			return;
+		}
+		mLastLoadFailed = false;
+		setState(ListViewPlusFooter.STATE_LOADING);
+		mOnLoadMoreListener.onLoadMore();
+	}
+
+	private void setState(int state) {
+		if (mState != state) {
+			mState = state;
+			notifyItemChanged(mAdapter.getItemCount());
+		}
+	}
+
+	static final class FooterViewHolder extends RecyclerView.ViewHolder {
+		FooterViewHolder(View itemView) {
+			super(itemView);
+		}
+	}
+
+	/**
+	 * Passes the wrapped adapter's changes on. Its items come first, so the
+	 * positions are the same.
+	 */
+	final class ForwardingObserver extends RecyclerView.AdapterDataObserver {
+
+		@Override
+		public void onChanged() {
+			notifyDataSetChanged();
+		}
+
+		@Override
+		public void onItemRangeChanged(int positionStart, int itemCount) {
+			notifyItemRangeChanged(positionStart, itemCount);
+		}
+
+		@Override
+		public void onItemRangeInserted(int positionStart, int itemCount) {
+			notifyItemRangeInserted(positionStart, itemCount);
+		}
+
+		@Override
+		public void onItemRangeRemoved(int positionStart, int itemCount) {
+			notifyItemRangeRemoved(positionStart, itemCount);
+		}
+
+		// Not declared by the AdapterDataObserver of every RecyclerView
+		// version, so no @Override. Moves are always of a single item.
+		public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+			notifyItemMoved(fromPosition, toPosition);
+		}
+
+	}
+
+}
@@ -0,0 +1,320 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.TypedArray;
+import android.os.Bundle;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import cn.isif.widget.library.R;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.AnimationStyle;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Orientation;
+import cn.isif.widget.library.pulltorefresh.internal.LoadingLayout;
+
+/**
+ * Process-wide pool of LoadingLayouts, so that a widget which is created
+ * after another one has gone away (for instance tabs in a ViewPager) takes
+ * over its LoadingLayouts instead of inflating new ones.
+ * <p/>
+ * Only LoadingLayouts which aren't styled from XML are pooled, so that any two
+ * with the same key look the same. Layouts are keyed by Context, animation
+ * style, mode and orientation, and at most {@link #MAX_POOL_SIZE_PER_KEY} are
+ * kept per key. The layouts of an Activity are dropped when it is destroyed.
+ * <p/>
+ * A released layout stays a child of the widget which released it until it
+ * is obtained by another one. That way the widget can
+ * {@link #reclaim(LoadingLayout, ViewParent) reclaim} it if it is attached again before
+ * then, which is the common case, and only has to replace it otherwise.
+ * Since the layout holds on to that widget, and through it the rest of its
+ * detached hierarchy, the pool only holds released layouts weakly: a widget
+ * which is garbage collected takes its layouts with it, whatever Context
+ * they are keyed by.
+ * <p/>
+ * Must only be used from the main thread.
+ */
+final class LoadingLayoutPool {
+
+	static final int MAX_POOL_SIZE_PER_KEY = 4;
+
+	/**
+	 * The attributes which change how a LoadingLayout looks. A layout created
+	 * with any of these can't be handed to another widget.
+	 */
+	private static final int[] STYLE_ATTRS = { R.styleable.PullToRefresh_ptrHeaderBackground,
+			R.styleable.PullToRefresh_ptrHeaderTextColor, R.styleable.PullToRefresh_ptrHeaderSubTextColor,
+			R.styleable.PullToRefresh_ptrDrawable, R.styleable.PullToRefresh_ptrDrawableStart,
+			R.styleable.PullToRefresh_ptrDrawableEnd, R.styleable.PullToRefresh_ptrDrawableTop,
+			R.styleable.PullToRefresh_ptrDrawableBottom, R.styleable.PullToRefresh_ptrHeaderTextAppearance,
+			R.styleable.PullToRefresh_ptrSubHeaderTextAppearance,
+			R.styleable.PullToRefresh_ptrRotateDrawableWhilePulling };
+
+	private static final HashMap<Key, ArrayList<WeakReference<LoadingLayout>>> sPool = new HashMap<Key, ArrayList<WeakReference<LoadingLayout>>>();
+
+	// Every layout created by the pool, and the key it belongs to. The keys
+	// only hold their Context weakly, or an Activity whose hierarchy still has
+	// the layout in it would keep its own entry here alive
+	private static final WeakHashMap<LoadingLayout, Key> sMembers = new WeakHashMap<LoadingLayout, Key>();
+
+	private static boolean sEnabled = true;
+	private static boolean sLifecycleCallbacksRegistered = false;
+
+	// Counters, for benchmarks
+	static int sCreateCount = 0;
+	static int sReuseCount = 0;
+
+	private LoadingLayoutPool() {
+	}
+
+	/**
+	 * @return true if LoadingLayouts created with <var>attrs</var> can be
+	 *         pooled, i.e. none of the attributes which style them are set.
+	 */
+	static boolean canPool(TypedArray attrs) {
+		return sEnabled && isUnstyled(attrs);
+	}
+
+	/**
+	 * @return true if none of the attributes which style a LoadingLayout are
+	 *         set in <var>attrs</var>.
+	 */
+	static boolean isUnstyled(TypedArray attrs) {
+		for (int attr : STYLE_ATTRS) {
+			if (attrs.hasValue(attr)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Takes a LoadingLayout from the pool, or creates one if there are none.
+	 * The layout is reset, and removed from the widget which released it.
+	 *
+	 * @param attrs - Attributes to create the layout with, or null. Must pass
+	 *            {@link #canPool(TypedArray)}.
+	 */
+	static LoadingLayout obtain(Context context, AnimationStyle style, Mode mode, Orientation orientation,
+			TypedArray attrs) {
+		final Key key = new Key(context, style, mode, orientation);
+
+		final ArrayList<WeakReference<LoadingLayout>> layouts = sPool.get(key);
+		if (null != layouts) {
+			while (!layouts.isEmpty()) {
+				final LoadingLayout layout = layouts.remove(layouts.size() - 1).get();
+				if (null != layout) {
+					prepareForReuse(layout);
+					sReuseCount++;
+					return layout;
+				}
+			}
+			sPool.remove(key);
+		}
+
+		final LoadingLayout layout;
+		if (null != attrs) {
+			layout = style.createLoadingLayout(context, mode, orientation, attrs);
+		} else {
+			TypedArray a = context.obtainStyledAttributes(null, R.styleable.PullToRefresh);
+			layout = style.createLoadingLayout(context, mode, orientation, a);
+			a.recycle();
+		}
+		sMembers.put(layout, key);
+		sCreateCount++;
+		registerLifecycleCallbacks(context);
+		return layout;
+	}
+
+	/**
+	 * Puts <var>layout</var> in the pool, unless it wasn't created by the
+	 * pool, has been customised, isn't in a parent, or the pool for its key is
+	 * full. The layout should be left in its parent.
+	 *
+	 * @return true if the layout was pooled.
+	 */
+	static boolean release(LoadingLayout layout) {
+		final Key key = sEnabled && null != layout ? sMembers.get(layout) : null;
+		if (null == key || !layout.isRecyclable() || null == layout.getParent()) {
+			return false;
+		}
+
+		ArrayList<WeakReference<LoadingLayout>> layouts = sPool.get(key);
+		if (null == layouts) {
+			layouts = new ArrayList<WeakReference<LoadingLayout>>(MAX_POOL_SIZE_PER_KEY);
+			sPool.put(key, layouts);
+		} else if (!remove(layouts, layout) && layouts.size() >= MAX_POOL_SIZE_PER_KEY) {
+			return false;
+		}
+		layouts.add(new WeakReference<LoadingLayout>(layout));
+		return true;
+	}
+
+	/**
+	 * Takes a released <var>layout</var> back out of the pool.
+	 *
+	 * @param owner - Parent the caller left the layout in when releasing it
+	 * @return true if the layout is still the caller's, false if it has been
+	 *         obtained by somebody else since it was released.
+	 */
+	static boolean reclaim(LoadingLayout layout, ViewParent owner) {
+		final Key key = sMembers.get(layout);
+		if (null != key) {
+			final ArrayList<WeakReference<LoadingLayout>> layouts = sPool.get(key);
+			if (null != layouts) {
+				remove(layouts, layout);
+				if (layouts.isEmpty()) {
+					sPool.remove(key);
+				}
+			}
+		}
+		// Obtaining a layout removes it from its parent, and the widget which
+		// obtained it adds it to its own
+		return layout.getParent() == owner;
+	}
+
+	/**
+	 * Removes <var>layout</var> from <var>layouts</var>, along with any layout
+	 * which has been garbage collected.
+	 *
+	 * @return true if <var>layout</var> was there.
+	 */
+	private static boolean remove(ArrayList<WeakReference<LoadingLayout>> layouts, LoadingLayout layout) {
+		boolean found = false;
+		for (int i = layouts.size() - 1; i >= 0; i--) {
+			final LoadingLayout pooled = layouts.get(i).get();
+			if (null == pooled || pooled == layout) {
+				layouts.remove(i);
+				found |= null != pooled;
+			}
+		}
+		return found;
+	}
+
+	static void clear() {
+		sPool.clear();
+	}
+
+	static void setEnabled(boolean enabled) {
+		sEnabled = enabled;
+		if (!enabled) {
+			clear();
+		}
+	}
+
+	private static void prepareForReuse(LoadingLayout layout) {
+		final ViewParent parent = layout.getParent();
+		if (parent instanceof ViewGroup) {
+			((ViewGroup) parent).removeView(layout);
+		}
+		layout.reset();
+	}
+
+	private static void clear(Activity activity) {
+		for (Iterator<Map.Entry<Key, ArrayList<WeakReference<LoadingLayout>>>> i = sPool.entrySet().iterator(); i.hasNext();) {
+			if (i.next().getKey().belongsTo(activity)) {
+				i.remove();
+			}
+		}
+	}
+
+	private static void registerLifecycleCallbacks(Context context) {
+		if (sLifecycleCallbacksRegistered) {
+			return;
+		}
+		final Context appContext = context.getApplicationContext();
+		if (appContext instanceof Application) {
+			((Application) appContext).registerActivityLifecycleCallbacks(new ActivityDestroyedCallbacks());
+			sLifecycleCallbacksRegistered = true;
+		}
+	}
+
+	static final class Key {
+		final WeakReference<Context> context;
+		final AnimationStyle style;
+		final Mode mode;
+		final Orientation orientation;
+		private final int hashCode;
+
+		Key(Context context, AnimationStyle style, Mode mode, Orientation orientation) {
+			this.context = new WeakReference<Context>(context);
+			this.style = style;
+			this.mode = mode;
+			this.orientation = orientation;
+
+			int result = System.identityHashCode(context);
+			result = 31 * result + style.hashCode();
+			result = 31 * result + mode.hashCode();
+			result = 31 * result + orientation.hashCode();
+			hashCode = result;
+		}
+
+		boolean belongsTo(Activity activity) {
+			Context c = context.get();
+			while (c instanceof ContextWrapper) {
+				if (c == activity) {
+					return true;
+				}
+				c = ((ContextWrapper) c).getBaseContext();
+			}
+			return false;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return hashCode == other.hashCode && context.get() == other.context.get() && style == other.style
+					&& mode == other.mode && orientation == other.orientation;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	static final class ActivityDestroyedCallbacks implements Application.ActivityLifecycleCallbacks {
+
+		@Override
+		public void onActivityDestroyed(Activity activity) {
+			clear(activity);
+		}
+
+		@Override
+		public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+		}
+
+		@Override
+		public void onActivityStarted(Activity activity) {
+		}
+
+		@Override
+		public void onActivityResumed(Activity activity) {
+		}
+
+		@Override
+		public void onActivityPaused(Activity activity) {
+		}
+
+		@Override
+		public void onActivityStopped(Activity activity) {
+		}
+
+		@Override
+		public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+		}
+	}
+
+}
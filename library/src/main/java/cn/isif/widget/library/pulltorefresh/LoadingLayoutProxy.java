@@ -27,6 +27,8 @@ public class LoadingLayoutProxy implements ILoadingLayout {
 	 */
 	public void addLayout(LoadingLayout layout) {
 		if (null != layout) {
+			// Whatever is set through the proxy has to stay with this widget
+			layout.setRecyclable(false);
 			mLoadingLayouts.add(layout);
 		}
 	}
@@ -20,6 +20,7 @@ import android.util.Log;
 import android.view.View;
 import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.State;
 import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.internal.PullMath;
 
 @TargetApi(9)
 public final class OverscrollHelper {
@@ -133,34 +134,29 @@ public final class OverscrollHelper {
 							+ ", CurrentScroll: " + currentScrollValue);
 				}
 
-				if (newScrollValue < (0 - fuzzyThreshold)) {
-					// Check the mode supports the overscroll direction, and
-					// then move scroll
-					if (mode.showHeaderLoadingLayout()) {
-						// If we're currently at zero, we're about to start
-						// overscrolling, so change the state
-						if (currentScrollValue == 0) {
-							view.setState(State.OVERSCROLLING);
-						}
+				final int direction = PullMath.overScrollDirection(newScrollValue, scrollRange, fuzzyThreshold);
+				switch (direction) {
+					case PullMath.OVERSCROLL_START:
+					case PullMath.OVERSCROLL_END:
+						// Check the mode supports the overscroll direction, and
+						// then move scroll
+						final boolean supported = direction == PullMath.OVERSCROLL_START ? mode
+								.showHeaderLoadingLayout() : mode.showFooterLoadingLayout();
+						if (supported) {
+							// If we're currently at zero, we're about to start
+							// overscrolling, so change the state
+							if (currentScrollValue == 0) {
+								view.setState(State.OVERSCROLLING);
+							}
 
-						view.setHeaderScroll((int) (scaleFactor * (currentScrollValue + newScrollValue)));
-					}
-				} else if (newScrollValue > (scrollRange + fuzzyThreshold)) {
-					// Check the mode supports the overscroll direction, and
-					// then move scroll
-					if (mode.showFooterLoadingLayout()) {
-						// If we're currently at zero, we're about to start
-						// overscrolling, so change the state
-						if (currentScrollValue == 0) {
-							view.setState(State.OVERSCROLLING);
+							view.setHeaderScroll(PullMath.overScrollHeaderValue(direction, currentScrollValue,
+									newScrollValue, scrollRange, scaleFactor));
 						}
-
-						view.setHeaderScroll((int) (scaleFactor * (currentScrollValue + newScrollValue - scrollRange)));
-					}
-				} else if (Math.abs(newScrollValue) <= fuzzyThreshold
-						|| Math.abs(newScrollValue - scrollRange) <= fuzzyThreshold) {
-					// Means we've stopped overscrolling, so scroll back to 0
-					view.setState(State.RESET);
+						break;
+					case PullMath.OVERSCROLL_FINISHED:
+						// Means we've stopped overscrolling, so scroll back to 0
+						view.setState(State.RESET);
+						break;
 				}
 			} else if (isTouchEvent && State.OVERSCROLLING == view.getState()) {
 				// This condition means that we were overscrolling from a fling,
@@ -20,6 +20,8 @@ import android.content.res.TypedArray;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewParent;
@@ -34,6 +36,7 @@ import android.widget.ListAdapter;
 
 import cn.isif.widget.library.R;
 import cn.isif.widget.library.pulltorefresh.internal.EmptyViewMethodAccessor;
+import cn.isif.widget.library.pulltorefresh.internal.FlingPredictor;
 import cn.isif.widget.library.pulltorefresh.internal.IndicatorLayout;
 
 
@@ -57,6 +60,10 @@ public abstract class PullToRefreshAdapterViewBase<T extends AbsListView> extend
 	}
 
 	private boolean mLastItemVisible;
+	// Set when a fling's prediction has already called OnLastItemVisible
+	private boolean mLastItemPredicted;
+	private FlingPredictor mFlingPredictor;
+	private VelocityTracker mFlingVelocityTracker;
 	private OnScrollListener mOnScrollListener;
 	private OnLastItemVisibleListener mOnLastItemVisibleListener;
 	private View mEmptyView;
@@ -133,8 +140,11 @@ public abstract class PullToRefreshAdapterViewBase<T extends AbsListView> extend
 		 * Check that the scrolling has stopped, and that the last item is
 		 * visible.
 		 */
-		if (state == OnScrollListener.SCROLL_STATE_IDLE && null != mOnLastItemVisibleListener && mLastItemVisible) {
-			mOnLastItemVisibleListener.onLastItemVisible();
+		if (state == OnScrollListener.SCROLL_STATE_IDLE) {
+			if (null != mOnLastItemVisibleListener && mLastItemVisible && !mLastItemPredicted) {
+				mOnLastItemVisibleListener.onLastItemVisible();
+			}
+			mLastItemPredicted = false;
 		}
 
 		if (null != mOnScrollListener) {
@@ -214,6 +224,34 @@ public abstract class PullToRefreshAdapterViewBase<T extends AbsListView> extend
 		mOnLastItemVisibleListener = listener;
 	}
 
+	/**
+	 * Sets whether {@link OnLastItemVisibleListener#onLastItemVisible()} is
+	 * called as soon as the user lets go of a fling which will end with the
+	 * last item visible, rather than once the fling has stopped. It is then
+	 * not called again when the fling stops. Where the fling ends is
+	 * estimated from the rows on screen.
+	 * 
+	 * @param enabled - Whether to predict flings. Default is false.
+	 */
+	public final void setLastItemFlingPredictionEnabled(boolean enabled) {
+		if (enabled && null == mFlingPredictor) {
+			mFlingPredictor = new FlingPredictor(getContext());
+		} else if (!enabled) {
+			mFlingPredictor = null;
+			recycleFlingVelocityTracker();
+		}
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent ev) {
+		// The list takes the gesture from onInterceptTouchEvent() once it
+		// scrolls, so follow the fling from here
+		if (null != mFlingPredictor && null != mOnLastItemVisibleListener) {
+			trackFling(ev);
+		}
+		return super.dispatchTouchEvent(ev);
+	}
+
 	public final void setOnScrollListener(OnScrollListener listener) {
 		mOnScrollListener = listener;
 	}
@@ -401,6 +439,54 @@ public abstract class PullToRefreshAdapterViewBase<T extends AbsListView> extend
 		return false;
 	}
 
+	private void trackFling(MotionEvent ev) {
+		if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+			recycleFlingVelocityTracker();
+			mFlingVelocityTracker = VelocityTracker.obtain();
+		}
+		if (null == mFlingVelocityTracker) {
+			return;
+		}
+		mFlingVelocityTracker.addMovement(ev);
+
+		switch (ev.getActionMasked()) {
+			case MotionEvent.ACTION_UP:
+				mFlingVelocityTracker.computeCurrentVelocity(1000);
+				final float velocity = mFlingVelocityTracker.getYVelocity(ev.getPointerId(ev.getActionIndex()));
+				recycleFlingVelocityTracker();
+				predictLastItemVisible(velocity);
+				break;
+			case MotionEvent.ACTION_CANCEL:
+				recycleFlingVelocityTracker();
+				break;
+		}
+	}
+
+	private void predictLastItemVisible(float velocity) {
+		if (mLastItemVisible || isRefreshing() || getPullToRefreshScrollDirection() != Orientation.VERTICAL) {
+			// Already there, so it'll be called when the list stops
+			return;
+		}
+		final int distance = mFlingPredictor.predictDistance(velocity);
+		if (distance <= 0) {
+			return;
+		}
+		// Same test as onScroll() does for mLastItemVisible
+		final int totalItemCount = mRefreshableView.getCount();
+		if (totalItemCount > 0
+				&& FlingPredictor.projectLastVisibleItem(mRefreshableView, distance) >= totalItemCount - 1) {
+			mLastItemPredicted = true;
+			mOnLastItemVisibleListener.onLastItemVisible();
+		}
+	}
+
+	private void recycleFlingVelocityTracker() {
+		if (null != mFlingVelocityTracker) {
+			mFlingVelocityTracker.recycle();
+			mFlingVelocityTracker = null;
+		}
+	}
+
 	private boolean isLastItemVisible() {
 		final Adapter adapter = mRefreshableView.getAdapter();
 
@@ -28,15 +28,24 @@ import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.VelocityTracker;
 import android.view.ViewGroup;
-import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.widget.FrameLayout;
 import android.widget.LinearLayout;
+import android.widget.OverScroller;
 import cn.isif.widget.library.R;
+import cn.isif.widget.library.RefreshGovernor;
+import cn.isif.widget.library.metrics.PullMetrics;
+import cn.isif.widget.library.metrics.PullMetricsListener;
+import cn.isif.widget.library.metrics.PullMetricsRecorder;
+import cn.isif.widget.library.metrics.RefreshLatencyRecorder;
+import cn.isif.widget.library.pulltorefresh.internal.DragTracker;
 import cn.isif.widget.library.pulltorefresh.internal.FlipLoadingLayout;
 import cn.isif.widget.library.pulltorefresh.internal.LoadingLayout;
+import cn.isif.widget.library.pulltorefresh.internal.PullMath;
 import cn.isif.widget.library.pulltorefresh.internal.RotateLoadingLayout;
+import cn.isif.widget.library.pulltorefresh.internal.ScrollAnimator;
 import cn.isif.widget.library.pulltorefresh.internal.Utils;
 import cn.isif.widget.library.pulltorefresh.internal.ViewCompat;
 
@@ -47,9 +56,7 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	// Constants
 	// ===========================================================
 
-	static final boolean DEBUG = true;
-
-	static final boolean USE_HW_LAYERS = false;
+	static final boolean DEBUG = false;
 
 	static final String LOG_TAG = "PullToRefresh";
 
@@ -71,8 +78,7 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	// ===========================================================
 
 	private int mTouchSlop;
-	private float mLastMotionX, mLastMotionY;
-	private float mInitialMotionX, mInitialMotionY;
+	private final DragTracker mDragTracker = new DragTracker();
 
 	private boolean mIsBeingDragged = false;
 	private State mState = State.RESET;
@@ -87,18 +93,38 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	private boolean mFilterTouchEvents = true;
 	private boolean mOverScrollEnabled = true;
 	private boolean mLayoutVisibilityChangesEnabled = true;
+	private boolean mSpringSnapBackEnabled = false;
+
+	private VelocityTracker mVelocityTracker;
+	private float mReleaseVelocity;
+
+	private boolean mNestedScrollingPullEnabled = false;
+	// A nested scrolling child is scrolling, and passes us what it can't
+	private boolean mNestedScrollInProgress = false;
+	private boolean mIsBeingNestedPulled = false;
+	// How far the child has been pulled past its edge, before friction
+	private float mNestedPull;
+	private NestedFlingAbsorber mNestedFlingAbsorber;
 
 	private Interpolator mScrollAnimationInterpolator;
 	private AnimationStyle mLoadingAnimationStyle = AnimationStyle.getDefault();
 
 	private LoadingLayout mHeaderLayout;
 	private LoadingLayout mFooterLayout;
+	private boolean mHeaderLayoutReleased = false;
+	private boolean mFooterLayoutReleased = false;
 
 	private OnRefreshListener<T> mOnRefreshListener;
 	private OnRefreshListener2<T> mOnRefreshListener2;
 	private OnPullEventListener<T> mOnPullEventListener;
+	private PullMetricsRecorder mPullMetrics;
+	private RefreshLatencyRecorder mRefreshLatency;
+	private RefreshGovernor mRefreshGovernor;
+	// Whether the refresh we're running is counted by mRefreshGovernor
+	private boolean mHoldsRefreshGovernor = false;
 
-	private SmoothScrollRunnable mCurrentSmoothScrollRunnable;
+	private ScrollAnimator mScrollAnimator;
+	private OnSmoothScrollFinishedListener mSmoothScrollFinishedListener;
 
 	// ===========================================================
 	// Constructors
@@ -223,6 +249,11 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		return mScrollingWhileRefreshingEnabled;
 	}
 
+	@Override
+	public final boolean isSpringSnapBackEnabled() {
+		return mSpringSnapBackEnabled;
+	}
+
 	@Override
 	public final boolean onInterceptTouchEvent(MotionEvent event) {
 
@@ -230,13 +261,26 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 			return false;
 		}
 
-		final int action = event.getAction();
+		// The child scrolls itself and hands over what it can't, see
+		// onNestedScroll()
+		if (mNestedScrollInProgress) {
+			return false;
+		}
+
+		final int action = event.getActionMasked();
 
 		if (action == MotionEvent.ACTION_CANCEL || action == MotionEvent.ACTION_UP) {
 			mIsBeingDragged = false;
+			recycleVelocityTracker();
 			return false;
 		}
 
+		if (action == MotionEvent.ACTION_DOWN && null != mVelocityTracker) {
+			mVelocityTracker.clear();
+		}
+		trackVelocity(event);
+		final boolean hasActivePointer = Utils.trackPointers(mDragTracker, event);
+
 		if (action != MotionEvent.ACTION_DOWN && mIsBeingDragged) {
 			return true;
 		}
@@ -248,40 +292,35 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 					return true;
 				}
 
-				if (isReadyForPull()) {
-					final float y = event.getY(), x = event.getX();
+				if (hasActivePointer && isReadyForPull()) {
+					final float y = mDragTracker.getY(), x = mDragTracker.getX();
+					final float lastY = mDragTracker.getLastY(), lastX = mDragTracker.getLastX();
 					final float diff, oppositeDiff, absDiff;
 
 					// We need to use the correct values, based on scroll
 					// direction
 					switch (getPullToRefreshScrollDirection()) {
 						case HORIZONTAL:
-							diff = x - mLastMotionX;
-							oppositeDiff = y - mLastMotionY;
+							diff = x - lastX;
+							oppositeDiff = y - lastY;
 							break;
 						case VERTICAL:
 						default:
-							diff = y - mLastMotionY;
-							oppositeDiff = x - mLastMotionX;
+							diff = y - lastY;
+							oppositeDiff = x - lastX;
 							break;
 					}
 					absDiff = Math.abs(diff);
 
 					if (absDiff > mTouchSlop && (!mFilterTouchEvents || absDiff > Math.abs(oppositeDiff))) {
 						if (mMode.showHeaderLoadingLayout() && diff >= 1f && isReadyForPullStart()) {
-							mLastMotionY = y;
-							mLastMotionX = x;
+							mDragTracker.markLast();
 							mIsBeingDragged = true;
-							if (mMode == Mode.BOTH) {
-								mCurrentMode = Mode.PULL_FROM_START;
-							}
+							startPull(Mode.PULL_FROM_START);
 						} else if (mMode.showFooterLoadingLayout() && diff <= -1f && isReadyForPullEnd()) {
-							mLastMotionY = y;
-							mLastMotionX = x;
+							mDragTracker.markLast();
 							mIsBeingDragged = true;
-							if (mMode == Mode.BOTH) {
-								mCurrentMode = Mode.PULL_FROM_END;
-							}
+							startPull(Mode.PULL_FROM_END);
 						}
 					}
 				}
@@ -289,8 +328,6 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 			}
 			case MotionEvent.ACTION_DOWN: {
 				if (isReadyForPull()) {
-					mLastMotionY = mInitialMotionY = event.getY();
-					mLastMotionX = mInitialMotionX = event.getX();
 					mIsBeingDragged = false;
 				}
 				break;
@@ -303,6 +340,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	@Override
 	public final void onRefreshComplete() {
 		if (isRefreshing()) {
+			releaseRefreshGovernor();
+			if (null != mRefreshLatency) {
+				mRefreshLatency.onFinished(getPullMetricsEdge());
+			}
 			setState(State.RESET);
 		}
 	}
@@ -319,51 +360,48 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 			return true;
 		}
 
-		if (event.getAction() == MotionEvent.ACTION_DOWN && event.getEdgeFlags() != 0) {
+		if (event.getActionMasked() == MotionEvent.ACTION_DOWN && event.getEdgeFlags() != 0) {
 			return false;
 		}
 
-		switch (event.getAction()) {
+		switch (event.getActionMasked()) {
 			case MotionEvent.ACTION_MOVE: {
 				if (mIsBeingDragged) {
-					mLastMotionY = event.getY();
-					mLastMotionX = event.getX();
-					pullEvent();
+					trackVelocity(event);
+					// Moves of fingers other than the active one don't pull
+					if (Utils.trackPointers(mDragTracker, event)) {
+						mDragTracker.markLast();
+						pullEvent();
+					}
 					return true;
 				}
 				break;
 			}
 
 			case MotionEvent.ACTION_DOWN: {
+				Utils.trackPointers(mDragTracker, event);
 				if (isReadyForPull()) {
-					mLastMotionY = mInitialMotionY = event.getY();
-					mLastMotionX = mInitialMotionX = event.getX();
 					return true;
 				}
 				break;
 			}
 
+			case MotionEvent.ACTION_POINTER_DOWN:
+			case MotionEvent.ACTION_POINTER_UP: {
+				// Hand the drag over, without moving the Loading View
+				trackVelocity(event);
+				Utils.trackPointers(mDragTracker, event);
+				return mIsBeingDragged;
+			}
+
 			case MotionEvent.ACTION_CANCEL:
 			case MotionEvent.ACTION_UP: {
 				if (mIsBeingDragged) {
 					mIsBeingDragged = false;
 
-					if (mState == State.RELEASE_TO_REFRESH
-							&& (null != mOnRefreshListener || null != mOnRefreshListener2)) {
-						setState(State.REFRESHING, true);
-						return true;
-					}
-
-					// If we're already refreshing, just scroll back to the top
-					if (isRefreshing()) {
-						smoothScrollTo(0);
-						return true;
-					}
-
-					// If we haven't returned by here, then we're not in a state
-					// to pull, so just reset
-					setState(State.RESET);
-
+					trackVelocity(event);
+					computeReleaseVelocity();
+					releasePull();
 					return true;
 				}
 				break;
@@ -373,6 +411,146 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		return false;
 	}
 
+	@Override
+	public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+		if (!mNestedScrollingPullEnabled || !isPullToRefreshEnabled()) {
+			return false;
+		}
+		switch (getPullToRefreshScrollDirection()) {
+			case HORIZONTAL:
+				return (nestedScrollAxes & SCROLL_AXIS_HORIZONTAL) != 0;
+			case VERTICAL:
+			default:
+				return (nestedScrollAxes & SCROLL_AXIS_VERTICAL) != 0;
+		}
+	}
+
+	@Override
+	public void onNestedScrollAccepted(View child, View target, int nestedScrollAxes) {
+		super.onNestedScrollAccepted(child, target, nestedScrollAxes);
+		mNestedScrollInProgress = true;
+		mIsBeingNestedPulled = false;
+		mNestedPull = 0f;
+		if (null != mNestedFlingAbsorber) {
+			mNestedFlingAbsorber.stop();
+		}
+	}
+
+	@Override
+	public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+		final boolean horizontal = getPullToRefreshScrollDirection() == Orientation.HORIZONTAL;
+		final int delta = horizontal ? dx : dy;
+		final int axis = horizontal ? 0 : 1;
+
+		// If we're refreshing, and the flag is set. Eat the scroll
+		if (!mScrollingWhileRefreshingEnabled && isRefreshing()) {
+			consumed[axis] = delta;
+			return;
+		}
+
+		if (!mIsBeingNestedPulled || delta == 0) {
+			return;
+		}
+
+		// Pushing back takes the Loading View in before the child scrolls
+		final float pull = mNestedPull + delta;
+		if (mCurrentMode == Mode.PULL_FROM_END ? pull < 0f : pull > 0f) {
+			consumed[axis] = Math.round(-mNestedPull);
+			mNestedPull = 0f;
+		} else {
+			consumed[axis] = delta;
+			mNestedPull = pull;
+		}
+		updatePull(Math.round(mNestedPull / FRICTION));
+	}
+
+	@Override
+	public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+		final int delta = getPullToRefreshScrollDirection() == Orientation.HORIZONTAL ? dxUnconsumed : dyUnconsumed;
+		if (delta == 0) {
+			return;
+		}
+
+		// The child has reached an edge, and passes on what's left
+		if (!mIsBeingNestedPulled) {
+			if (mMode.showHeaderLoadingLayout() && delta < 0 && isReadyForPullStart()) {
+				startPull(Mode.PULL_FROM_START);
+			} else if (mMode.showFooterLoadingLayout() && delta > 0 && isReadyForPullEnd()) {
+				startPull(Mode.PULL_FROM_END);
+			} else {
+				return;
+			}
+			mIsBeingNestedPulled = true;
+		}
+
+		if (mCurrentMode == Mode.PULL_FROM_END ? delta > 0 : delta < 0) {
+			mNestedPull += delta;
+			updatePull(Math.round(mNestedPull / FRICTION));
+		}
+	}
+
+	@Override
+	public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+		if (mIsBeingNestedPulled) {
+			if (mSpringSnapBackEnabled) {
+				// The velocity of the content, the scroll value moves with it
+				final float velocity = getPullToRefreshScrollDirection() == Orientation.HORIZONTAL ? velocityX
+						: velocityY;
+				mReleaseVelocity = velocity / FRICTION;
+			}
+			return true;
+		}
+		return !mScrollingWhileRefreshingEnabled && isRefreshing();
+	}
+
+	@Override
+	public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+		if (!consumed || mIsBeingNestedPulled || mState != State.RESET) {
+			return false;
+		}
+
+		// The child flings. If it reaches an edge before the fling is over,
+		// what's left of it is carried on into the Loading View.
+		final float velocity = getPullToRefreshScrollDirection() == Orientation.HORIZONTAL ? velocityX : velocityY;
+		final Mode edge;
+		if (mMode.showHeaderLoadingLayout() && velocity < 0f) {
+			edge = Mode.PULL_FROM_START;
+		} else if (mMode.showFooterLoadingLayout() && velocity > 0f) {
+			edge = Mode.PULL_FROM_END;
+		} else {
+			return false;
+		}
+		if (null == mNestedFlingAbsorber) {
+			mNestedFlingAbsorber = new NestedFlingAbsorber();
+		}
+		mNestedFlingAbsorber.start(edge, velocity);
+		return false;
+	}
+
+	@Override
+	public void onStopNestedScroll(View target) {
+		super.onStopNestedScroll(target);
+		mNestedScrollInProgress = false;
+		if (mIsBeingNestedPulled) {
+			mIsBeingNestedPulled = false;
+			mNestedPull = 0f;
+			releasePull();
+		}
+	}
+
+	@Override
+	public final void setNestedScrollingPullEnabled(boolean enabled) {
+		if (VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
+			mNestedScrollingPullEnabled = enabled;
+			mRefreshableView.setNestedScrollingEnabled(enabled);
+		}
+	}
+
+	@Override
+	public final boolean isNestedScrollingPullEnabled() {
+		return mNestedScrollingPullEnabled;
+	}
+
 	public final void setScrollingWhileRefreshingEnabled(boolean allowScrollingWhileRefreshing) {
 		mScrollingWhileRefreshingEnabled = allowScrollingWhileRefreshing;
 	}
@@ -434,6 +612,72 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		mOnPullEventListener = listener;
 	}
 
+	/**
+	 * Only start refreshes, from pulls or {@link #setRefreshing()}, when
+	 * <var>governor</var> allows. See {@link RefreshGovernor}. Refreshes
+	 * which don't call a listener aren't counted, and a refresh stops being
+	 * counted when the widget is detached from its window.
+	 *
+	 * @param governor - Governor, which may be shared with other widgets, or
+	 *            null to allow all refreshes
+	 */
+	public final void setRefreshGovernor(RefreshGovernor governor) {
+		if (governor != mRefreshGovernor) {
+			releaseRefreshGovernor();
+			mRefreshGovernor = governor;
+		}
+	}
+
+	/**
+	 * Set the listener to be told the stats of each pull gesture. Metrics are
+	 * only recorded while a listener is set.
+	 *
+	 * @param listener - Listener, or null to stop recording
+	 */
+	public final void setPullMetricsListener(PullMetricsListener listener) {
+		if (null == listener) {
+			if (null != mPullMetrics) {
+				mPullMetrics.cancel();
+				mPullMetrics = null;
+			}
+			return;
+		}
+		if (null == mPullMetrics) {
+			mPullMetrics = new PullMetricsRecorder();
+		}
+		mPullMetrics.setListener(listener);
+	}
+
+	/**
+	 * @return The recent pull gestures, or null if no
+	 *         {@link PullMetricsListener} is set.
+	 */
+	public final PullMetricsRecorder getPullMetrics() {
+		return mPullMetrics;
+	}
+
+	/**
+	 * Records the time from the Refresh Listener being called until
+	 * {@link #onRefreshComplete()}. See {@link #getRefreshLatency()}.
+	 *
+	 * @param enabled - Whether to record refresh latency
+	 */
+	public final void setRefreshLatencyEnabled(boolean enabled) {
+		if (!enabled) {
+			mRefreshLatency = null;
+		} else if (null == mRefreshLatency) {
+			mRefreshLatency = new RefreshLatencyRecorder();
+		}
+	}
+
+	/**
+	 * @return Latencies of refreshes from the start and end, or null if not
+	 *         enabled.
+	 */
+	public final RefreshLatencyRecorder getRefreshLatency() {
+		return mRefreshLatency;
+	}
+
 	@Override
 	public final void setOnRefreshListener(OnRefreshListener<T> listener) {
 		mOnRefreshListener = listener;
@@ -483,7 +727,8 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 
 	@Override
 	public final void setRefreshing(boolean doScroll) {
-		if (!isRefreshing()) {
+		// The governor only has a say when a listener is going to be called
+		if (!isRefreshing() && (!hasRefreshListener() || acquireRefresh())) {
 			setState(State.MANUAL_REFRESHING, doScroll);
 		}
 	}
@@ -531,6 +776,14 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		mShowViewWhileRefreshing = showView;
 	}
 
+	@Override
+	public final void setSpringSnapBackEnabled(boolean enabled) {
+		mSpringSnapBackEnabled = enabled;
+		if (!enabled) {
+			recycleVelocityTracker();
+		}
+	}
+
 	/**
 	 * @return Either {@link Orientation#VERTICAL} or
 	 *         {@link Orientation#HORIZONTAL} depending on the scroll direction.
@@ -538,6 +791,9 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	public abstract Orientation getPullToRefreshScrollDirection();
 
 	final void setState(State state, final boolean... params) {
+		ensureLoadingLayouts();
+
+		final State oldState = mState;
 		mState = state;
 		if (DEBUG) {
 			Log.d(LOG_TAG, "State: " + mState.name());
@@ -545,7 +801,18 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 
 		switch (mState) {
 			case RESET:
+				if (null != mPullMetrics
+						&& (oldState == State.REFRESHING || oldState == State.MANUAL_REFRESHING)) {
+					mPullMetrics.onRefreshComplete();
+				}
 				onReset();
+				if (null != mPullMetrics) {
+					if (mScrollAnimator.isRunning()) {
+						mPullMetrics.onSnapBackStarted();
+					} else {
+						mPullMetrics.onAtRest();
+					}
+				}
 				break;
 			case PULL_TO_REFRESH:
 				onPullToRefresh();
@@ -555,6 +822,9 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 				break;
 			case REFRESHING:
 			case MANUAL_REFRESHING:
+				if (null != mPullMetrics) {
+					mPullMetrics.onRefreshing(getPullMetricsEdge());
+				}
 				onRefreshing(params[0]);
 				break;
 			case OVERSCROLLING:
@@ -585,8 +855,14 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	}
 
 	protected LoadingLayout createLoadingLayout(Context context, Mode mode, TypedArray attrs) {
-		LoadingLayout layout = mLoadingAnimationStyle.createLoadingLayout(context, mode,
-				getPullToRefreshScrollDirection(), attrs);
+		final LoadingLayout layout;
+		if (LoadingLayoutPool.canPool(attrs)) {
+			layout = LoadingLayoutPool.obtain(context, mLoadingAnimationStyle, mode,
+					getPullToRefreshScrollDirection(), attrs);
+		} else {
+			layout = mLoadingAnimationStyle.createLoadingLayout(context, mode, getPullToRefreshScrollDirection(),
+					attrs);
+		}
 		layout.setVisibility(View.INVISIBLE);
 		return layout;
 	}
@@ -596,13 +872,14 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	 * Allows derivative classes to include any extra LoadingLayouts.
 	 */
 	protected LoadingLayoutProxy createLoadingLayoutProxy(final boolean includeStart, final boolean includeEnd) {
+		ensureLoadingLayouts();
 		LoadingLayoutProxy proxy = new LoadingLayoutProxy();
 
 		if (includeStart && mMode.showHeaderLoadingLayout()) {
-			proxy.addLayout(mHeaderLayout);
+			proxy.addLayout(requireHeaderLayout());
 		}
 		if (includeEnd && mMode.showFooterLoadingLayout()) {
-			proxy.addLayout(mFooterLayout);
+			proxy.addLayout(requireFooterLayout());
 		}
 
 		return proxy;
@@ -628,20 +905,30 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		mLayoutVisibilityChangesEnabled = false;
 	}
 
+	/**
+	 * @return The footer Loading View, which is created now if the Mode
+	 *         hasn't needed it yet.
+	 */
 	protected final LoadingLayout getFooterLayout() {
-		return mFooterLayout;
+		ensureLoadingLayouts();
+		return requireFooterLayout();
 	}
 
 	protected final int getFooterSize() {
-		return mFooterLayout.getContentSize();
+		return requireFooterLayout().getContentSize();
 	}
 
+	/**
+	 * @return The header Loading View, which is created now if the Mode
+	 *         hasn't needed it yet.
+	 */
 	protected final LoadingLayout getHeaderLayout() {
-		return mHeaderLayout;
+		ensureLoadingLayouts();
+		return requireHeaderLayout();
 	}
 
 	protected final int getHeaderSize() {
-		return mHeaderLayout.getContentSize();
+		return requireHeaderLayout().getContentSize();
 	}
 
 	protected int getPullToRefreshScrollDuration() {
@@ -708,10 +995,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	protected void onPullToRefresh() {
 		switch (mCurrentMode) {
 			case PULL_FROM_END:
-				mFooterLayout.pullToRefresh();
+				requireFooterLayout().pullToRefresh();
 				break;
 			case PULL_FROM_START:
-				mHeaderLayout.pullToRefresh();
+				requireHeaderLayout().pullToRefresh();
 				break;
 			default:
 				// NO-OP
@@ -727,10 +1014,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	 */
 	protected void onRefreshing(final boolean doScroll) {
 		if (mMode.showHeaderLoadingLayout()) {
-			mHeaderLayout.refreshing();
+			requireHeaderLayout().refreshing();
 		}
 		if (mMode.showFooterLoadingLayout()) {
-			mFooterLayout.refreshing();
+			requireFooterLayout().refreshing();
 		}
 
 		if (doScroll) {
@@ -770,10 +1057,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	protected void onReleaseToRefresh() {
 		switch (mCurrentMode) {
 			case PULL_FROM_END:
-				mFooterLayout.releaseToRefresh();
+				requireFooterLayout().releaseToRefresh();
 				break;
 			case PULL_FROM_START:
-				mHeaderLayout.releaseToRefresh();
+				requireHeaderLayout().releaseToRefresh();
 				break;
 			default:
 				// NO-OP
@@ -790,8 +1077,12 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		mLayoutVisibilityChangesEnabled = true;
 
 		// Always reset both layouts, just in case...
-		mHeaderLayout.reset();
-		mFooterLayout.reset();
+		if (null != mHeaderLayout) {
+			mHeaderLayout.reset();
+		}
+		if (null != mFooterLayout) {
+			mFooterLayout.reset();
+		}
 
 		smoothScrollTo(0);
 	}
@@ -841,6 +1132,35 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		return bundle;
 	}
 
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		ensureLoadingLayouts();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+
+		// Don't keep counting frames for a widget which isn't shown
+		if (null != mPullMetrics) {
+			mPullMetrics.cancel();
+		}
+		if (null != mNestedFlingAbsorber) {
+			mNestedFlingAbsorber.stop();
+		}
+		// Nobody may call onRefreshComplete() for a widget which has gone, so
+		// don't leave widgets sharing the governor waiting for it
+		releaseRefreshGovernor();
+
+		// Lend the Loading Views to any widget created while we're detached.
+		// Not while anything is showing them though.
+		if (mState == State.RESET && !mScrollAnimator.isRunning()) {
+			mHeaderLayoutReleased = LoadingLayoutPool.release(mHeaderLayout);
+			mFooterLayoutReleased = LoadingLayoutPool.release(mFooterLayout);
+		}
+	}
+
 	@Override
 	protected final void onSizeChanged(int w, int h, int oldw, int oldh) {
 		if (DEBUG) {
@@ -882,14 +1202,14 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		switch (getPullToRefreshScrollDirection()) {
 			case HORIZONTAL:
 				if (mMode.showHeaderLoadingLayout()) {
-					mHeaderLayout.setWidth(maximumPullScroll);
+					requireHeaderLayout().setWidth(maximumPullScroll);
 					pLeft = -maximumPullScroll;
 				} else {
 					pLeft = 0;
 				}
 
 				if (mMode.showFooterLoadingLayout()) {
-					mFooterLayout.setWidth(maximumPullScroll);
+					requireFooterLayout().setWidth(maximumPullScroll);
 					pRight = -maximumPullScroll;
 				} else {
 					pRight = 0;
@@ -898,14 +1218,14 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 
 			case VERTICAL:
 				if (mMode.showHeaderLoadingLayout()) {
-					mHeaderLayout.setHeight(maximumPullScroll);
+					requireHeaderLayout().setHeight(maximumPullScroll);
 					pTop = -maximumPullScroll;
 				} else {
 					pTop = 0;
 				}
 
 				if (mMode.showFooterLoadingLayout()) {
-					mFooterLayout.setHeight(maximumPullScroll);
+					requireFooterLayout().setHeight(maximumPullScroll);
 					pBottom = -maximumPullScroll;
 				} else {
 					pBottom = 0;
@@ -947,41 +1267,32 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	 * @param value - New Scroll value
 	 */
 	protected final void setHeaderScroll(int value) {
-
 		if (DEBUG) {
 			Log.d(LOG_TAG, "setHeaderScroll: " + value);
-			Log.d(LOG_TAG, "mState: " + mState.getIntValue()  );
 		}
 
 		//浏览滑动过程中不出发刷新
-		if(mState.getIntValue()== 0x10) return;
+		if (mState == State.OVERSCROLLING) return;
 
 		// Clamp value to with pull scroll range
 		final int maximumPullScroll = getMaximumPullScroll();
-		Log.d(LOG_TAG, "maximumPullScroll: " + maximumPullScroll);
 		value = Math.min(maximumPullScroll, Math.max(-maximumPullScroll, value));
 
+		/**
+		 * This is called for every touch move and animation frame, so only
+		 * touch the Loading Layouts when their visibility actually changes.
+		 */
 		if (mLayoutVisibilityChangesEnabled) {
 			if (value < 0) {
-				mHeaderLayout.setVisibility(View.VISIBLE);
+				setLoadingLayoutVisibility(mHeaderLayout, View.VISIBLE);
 			} else if (value > 0) {
-				mFooterLayout.setVisibility(View.VISIBLE);
+				setLoadingLayoutVisibility(mFooterLayout, View.VISIBLE);
 			} else {
-				mHeaderLayout.setVisibility(View.INVISIBLE);
-				mFooterLayout.setVisibility(View.INVISIBLE);
+				setLoadingLayoutVisibility(mHeaderLayout, View.INVISIBLE);
+				setLoadingLayoutVisibility(mFooterLayout, View.INVISIBLE);
 			}
 		}
 
-		if (USE_HW_LAYERS) {
-			/**
-			 * Use a Hardware Layer on the Refreshable View if we've scrolled at
-			 * all. We don't use them on the Header/Footer Views as they change
-			 * often, which would negate any HW layer performance boost.
-			 */
-			ViewCompat.setLayerType(mRefreshableViewWrapper, value != 0 ? View.LAYER_TYPE_HARDWARE
-					: View.LAYER_TYPE_NONE);
-		}
-
 		switch (getPullToRefreshScrollDirection()) {
 			case VERTICAL:
 				scrollTo(0, value);
@@ -1032,20 +1343,23 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		// direction
 		final LayoutParams lp = getLoadingLayoutLayoutParams();
 
+		// Replace any Loading Views given away while we were detached
+		reclaimLoadingLayouts();
+
 		// Remove Header, and then add Header Loading View again if needed
-		if (this == mHeaderLayout.getParent()) {
+		if (null != mHeaderLayout && this == mHeaderLayout.getParent()) {
 			removeView(mHeaderLayout);
 		}
 		if (mMode.showHeaderLoadingLayout()) {
-			addViewInternal(mHeaderLayout, 0, lp);
+			addViewInternal(requireHeaderLayout(), 0, lp);
 		}
 
 		// Remove Footer, and then add Footer Loading View again if needed
-		if (this == mFooterLayout.getParent()) {
+		if (null != mFooterLayout && this == mFooterLayout.getParent()) {
 			removeView(mFooterLayout);
 		}
 		if (mMode.showFooterLoadingLayout()) {
-			addViewInternal(mFooterLayout, lp);
+			addViewInternal(requireFooterLayout(), lp);
 		}
 
 		// Hide Loading Views
@@ -1066,6 +1380,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	}
 
 	private void callRefreshListener() {
+		if (null != mRefreshLatency && hasRefreshListener()) {
+			mRefreshLatency.onTriggered(getPullMetricsEdge());
+		}
+
 		if (null != mOnRefreshListener) {
 			mOnRefreshListener.onRefresh(this);
 		} else if (null != mOnRefreshListener2) {
@@ -1094,6 +1412,27 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		ViewConfiguration config = ViewConfiguration.get(context);
 		mTouchSlop = config.getScaledTouchSlop();
 
+		mScrollAnimator = new ScrollAnimator(this, new ScrollAnimator.Callback() {
+			@Override
+			public void onAnimationUpdate(int value) {
+				setHeaderScroll(value);
+			}
+
+			@Override
+			public void onAnimationFinished() {
+				if (null != mPullMetrics && mState == State.RESET) {
+					mPullMetrics.onSnapBackFinished();
+					mPullMetrics.onAtRest();
+				}
+
+				final OnSmoothScrollFinishedListener listener = mSmoothScrollFinishedListener;
+				mSmoothScrollFinishedListener = null;
+				if (null != listener) {
+					listener.onSmoothScrollFinished();
+				}
+			}
+		});
+
 		// Styleables from XML
 		TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.PullToRefresh);
 
@@ -1111,9 +1450,12 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		mRefreshableView = createRefreshableView(context, attrs);
 		addRefreshableView(context, mRefreshableView);
 
-		// We need to create now layouts now
-		mHeaderLayout = createLoadingLayout(context, Mode.PULL_FROM_START, a);
-		mFooterLayout = createLoadingLayout(context, Mode.PULL_FROM_END, a);
+		// Unstyled Loading Views are created when the Mode first needs them.
+		// Styled ones need the attrs, which we only have now.
+		if (!LoadingLayoutPool.isUnstyled(a)) {
+			mHeaderLayout = createLoadingLayout(context, Mode.PULL_FROM_START, a);
+			mFooterLayout = createLoadingLayout(context, Mode.PULL_FROM_END, a);
+		}
 
 		/**
 		 * Styleables from XML
@@ -1140,6 +1482,10 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 					R.styleable.PullToRefresh_ptrScrollingWhileRefreshingEnabled, false);
 		}
 
+		if (a.hasValue(R.styleable.PullToRefresh_ptrSpringSnapBack)) {
+			mSpringSnapBackEnabled = a.getBoolean(R.styleable.PullToRefresh_ptrSpringSnapBack, false);
+		}
+
 		// Let the derivative classes have a go at handling attributes, then
 		// recycle them...
 		handleStyledAttributes(a);
@@ -1149,6 +1495,136 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		updateUIForMode();
 	}
 
+	/**
+	 * Takes back the Loading Views lent out in {@link #onDetachedFromWindow()},
+	 * and adds them again if any had to be replaced.
+	 */
+	private void ensureLoadingLayouts() {
+		if (reclaimLoadingLayouts()) {
+			updateUIForMode();
+		}
+	}
+
+	/**
+	 * @return true if any Loading View was given away and has been replaced.
+	 *         The replacement still needs adding.
+	 */
+	private boolean reclaimLoadingLayouts() {
+		boolean replaced = false;
+		if (mHeaderLayoutReleased) {
+			mHeaderLayoutReleased = false;
+			if (!LoadingLayoutPool.reclaim(mHeaderLayout, this)) {
+				mHeaderLayout = createUnstyledLoadingLayout(Mode.PULL_FROM_START);
+				replaced = true;
+			}
+		}
+		if (mFooterLayoutReleased) {
+			mFooterLayoutReleased = false;
+			if (!LoadingLayoutPool.reclaim(mFooterLayout, this)) {
+				mFooterLayout = createUnstyledLoadingLayout(Mode.PULL_FROM_END);
+				replaced = true;
+			}
+		}
+		return replaced;
+	}
+
+	private LoadingLayout requireHeaderLayout() {
+		if (null == mHeaderLayout) {
+			mHeaderLayout = createUnstyledLoadingLayout(Mode.PULL_FROM_START);
+		}
+		return mHeaderLayout;
+	}
+
+	private LoadingLayout requireFooterLayout() {
+		if (null == mFooterLayout) {
+			mFooterLayout = createUnstyledLoadingLayout(Mode.PULL_FROM_END);
+		}
+		return mFooterLayout;
+	}
+
+	/**
+	 * Creates a Loading View after construction, when the attrs it would have
+	 * been styled with are gone. Only used when there weren't any.
+	 */
+	final LoadingLayout createUnstyledLoadingLayout(Mode mode) {
+		TypedArray a = getContext().obtainStyledAttributes(null, R.styleable.PullToRefresh);
+		LoadingLayout layout = createLoadingLayout(getContext(), mode, a);
+		a.recycle();
+		return layout;
+	}
+
+	/**
+	 * @return The edge {@link #mCurrentMode} shows, as a {@link PullMetrics}
+	 *         edge.
+	 */
+	private int getPullMetricsEdge() {
+		return mCurrentMode.showHeaderLoadingLayout() ? PullMetrics.EDGE_START : PullMetrics.EDGE_END;
+	}
+
+	/**
+	 * @return true if the {@link RefreshGovernor} lets a refresh start, or
+	 *         there isn't one.
+	 */
+	private boolean acquireRefresh() {
+		if (null == mRefreshGovernor) {
+			return true;
+		}
+		mHoldsRefreshGovernor = mRefreshGovernor.requestRefresh();
+		return mHoldsRefreshGovernor;
+	}
+
+	/**
+	 * Tells the {@link RefreshGovernor} our refresh is over, if it counted
+	 * it.
+	 */
+	private void releaseRefreshGovernor() {
+		if (mHoldsRefreshGovernor) {
+			mHoldsRefreshGovernor = false;
+			mRefreshGovernor.onRefreshFinished();
+		}
+	}
+
+	private boolean hasRefreshListener() {
+		return null != mOnRefreshListener || null != mOnRefreshListener2;
+	}
+
+	/**
+	 * Starts pulling the Loading View of <var>mode</var>, which is either
+	 * {@link Mode#PULL_FROM_START} or {@link Mode#PULL_FROM_END}.
+	 */
+	private void startPull(Mode mode) {
+		if (mMode == Mode.BOTH) {
+			mCurrentMode = mode;
+		}
+		if (null != mPullMetrics) {
+			mPullMetrics.onPullStarted(getPullMetricsEdge());
+		}
+	}
+
+	/**
+	 * Called once the user lets go of a pull, however it was made.
+	 */
+	private void releasePull() {
+		if (null != mPullMetrics) {
+			mPullMetrics.onReleased();
+		}
+
+		if (mState == State.RELEASE_TO_REFRESH && hasRefreshListener() && acquireRefresh()) {
+			setState(State.REFRESHING, true);
+			return;
+		}
+
+		// If we're already refreshing, just scroll back to the top
+		if (isRefreshing()) {
+			smoothScrollTo(0);
+			return;
+		}
+
+		// If we haven't returned by here, then we're not in a state
+		// to pull, so just reset
+		setState(State.RESET);
+	}
+
 	private boolean isReadyForPull() {
 		switch (mMode) {
 			case PULL_FROM_START:
@@ -1170,50 +1646,59 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 	 */
 	private void pullEvent() {
 		final int newScrollValue;
-		final int itemDimension;
 		final float initialMotionValue, lastMotionValue;
 
 		switch (getPullToRefreshScrollDirection()) {
 			case HORIZONTAL:
-				initialMotionValue = mInitialMotionX;
-				lastMotionValue = mLastMotionX;
+				initialMotionValue = mDragTracker.getInitialX();
+				lastMotionValue = mDragTracker.getLastX();
 				break;
 			case VERTICAL:
 			default:
-				initialMotionValue = mInitialMotionY;
-				lastMotionValue = mLastMotionY;
+				initialMotionValue = mDragTracker.getInitialY();
+				lastMotionValue = mDragTracker.getLastY();
 				break;
 		}
 
 		switch (mCurrentMode) {
 			case PULL_FROM_END:
-				newScrollValue = Math.round(Math.max(initialMotionValue - lastMotionValue, 0) / FRICTION);
-				itemDimension = getFooterSize();
+				newScrollValue = PullMath.pullScrollValue(initialMotionValue, lastMotionValue, true, FRICTION);
 				break;
 			case PULL_FROM_START:
 			default:
-				newScrollValue = Math.round(Math.min(initialMotionValue - lastMotionValue, 0) / FRICTION);
-				itemDimension = getHeaderSize();
+				newScrollValue = PullMath.pullScrollValue(initialMotionValue, lastMotionValue, false, FRICTION);
 				break;
 		}
 
+		updatePull(newScrollValue);
+	}
+
+	/**
+	 * Moves the Loading View being pulled to <var>newScrollValue</var>, and
+	 * updates the State to match.
+	 */
+	private void updatePull(int newScrollValue) {
+		final int itemDimension = mCurrentMode == Mode.PULL_FROM_END ? getFooterSize() : getHeaderSize();
+
 		setHeaderScroll(newScrollValue);
 
 		if (newScrollValue != 0 && !isRefreshing()) {
-			float scale = Math.abs(newScrollValue) / (float) itemDimension;
+			float scale = PullMath.pullScale(newScrollValue, itemDimension);
 			switch (mCurrentMode) {
 				case PULL_FROM_END:
-					mFooterLayout.onPull(scale);
+					requireFooterLayout().onPull(scale);
 					break;
 				case PULL_FROM_START:
 				default:
-					mHeaderLayout.onPull(scale);
+					requireHeaderLayout().onPull(scale);
 					break;
 			}
 
-			if (mState != State.PULL_TO_REFRESH && itemDimension >= Math.abs(newScrollValue)) {
+			final boolean pastThreshold = PullMath.isPastRefreshThreshold(newScrollValue, itemDimension);
+			if (mState != State.PULL_TO_REFRESH && !pastThreshold) {
 				setState(State.PULL_TO_REFRESH);
-			} else if (mState == State.PULL_TO_REFRESH && itemDimension < Math.abs(newScrollValue)) {
+			} else if (mState != State.RELEASE_TO_REFRESH && pastThreshold) {
+				// A nested scroll can pass the threshold with its first step
 				setState(State.RELEASE_TO_REFRESH);
 			}
 		}
@@ -1241,6 +1726,59 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		}
 	}
 
+	private void trackVelocity(MotionEvent event) {
+		if (!mSpringSnapBackEnabled) {
+			return;
+		}
+		if (null == mVelocityTracker) {
+			mVelocityTracker = VelocityTracker.obtain();
+		}
+		mVelocityTracker.addMovement(event);
+	}
+
+	/**
+	 * Works out the velocity of the scroll value at the point the user
+	 * released, so that the following snap-back can carry it on.
+	 */
+	private void computeReleaseVelocity() {
+		mReleaseVelocity = 0f;
+
+		if (null != mVelocityTracker) {
+			mVelocityTracker.computeCurrentVelocity(1000);
+
+			// Only the finger doing the pulling counts
+			final int pointerId = mDragTracker.getActivePointerId();
+			final float velocity;
+			switch (getPullToRefreshScrollDirection()) {
+				case HORIZONTAL:
+					velocity = mVelocityTracker.getXVelocity(pointerId);
+					break;
+				case VERTICAL:
+				default:
+					velocity = mVelocityTracker.getYVelocity(pointerId);
+					break;
+			}
+
+			// The scroll value moves opposite to the finger, slowed by friction
+			mReleaseVelocity = -velocity / FRICTION;
+			recycleVelocityTracker();
+		}
+	}
+
+	private void recycleVelocityTracker() {
+		if (null != mVelocityTracker) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
+		}
+	}
+
+	private static void setLoadingLayoutVisibility(LoadingLayout layout, int visibility) {
+		// Not created yet, as the Mode doesn't use it
+		if (null != layout && layout.getVisibility() != visibility) {
+			layout.setVisibility(visibility);
+		}
+	}
+
 	/**
 	 * Smooth Scroll to position using the specific duration
 	 * 
@@ -1253,9 +1791,8 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 
 	private final void smoothScrollTo(int newScrollValue, long duration, long delayMillis,
 			OnSmoothScrollFinishedListener listener) {
-		if (null != mCurrentSmoothScrollRunnable) {
-			mCurrentSmoothScrollRunnable.stop();
-		}
+		mScrollAnimator.cancel();
+		mSmoothScrollFinishedListener = null;
 
 		final int oldScrollValue;
 		switch (getPullToRefreshScrollDirection()) {
@@ -1269,30 +1806,94 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		}
 
 		if (oldScrollValue != newScrollValue) {
-			if (null == mScrollAnimationInterpolator) {
-				// Default interpolator is a Decelerate Interpolator
-				mScrollAnimationInterpolator = new DecelerateInterpolator();
-			}
-			mCurrentSmoothScrollRunnable = new SmoothScrollRunnable(oldScrollValue, newScrollValue, duration, listener);
-
-			if (delayMillis > 0) {
-				postDelayed(mCurrentSmoothScrollRunnable, delayMillis);
+			mSmoothScrollFinishedListener = listener;
+			if (mSpringSnapBackEnabled && delayMillis == 0) {
+				mScrollAnimator.startSpring(oldScrollValue, newScrollValue, mReleaseVelocity);
 			} else {
-				post(mCurrentSmoothScrollRunnable);
+				mScrollAnimator.setInterpolator(mScrollAnimationInterpolator);
+				mScrollAnimator.start(oldScrollValue, newScrollValue, duration, delayMillis);
 			}
 		}
+
+		// The release velocity only applies to the scroll straight after it
+		mReleaseVelocity = 0f;
 	}
 
 	private final void smoothScrollToAndBack(int y) {
+		smoothScrollToAndBack(y, DEMO_SCROLL_INTERVAL);
+	}
+
+	private final void smoothScrollToAndBack(int y, final long backDelayMillis) {
+		if (y == 0) {
+			return;
+		}
 		smoothScrollTo(y, SMOOTH_SCROLL_DURATION_MS, 0, new OnSmoothScrollFinishedListener() {
 
 			@Override
 			public void onSmoothScrollFinished() {
-				smoothScrollTo(0, SMOOTH_SCROLL_DURATION_MS, DEMO_SCROLL_INTERVAL, null);
+				smoothScrollTo(0, SMOOTH_SCROLL_DURATION_MS, backDelayMillis, null);
 			}
 		});
 	}
 
+	/**
+	 * Watches a fling of a nested scrolling child, and once the child reaches
+	 * <var>mEdge</var>, moves the Loading View out by as far as what's left
+	 * of the fling would carry it, and back. Flings in step with the child's,
+	 * as the child doesn't say how fast it was going when it stopped.
+	 */
+	final class NestedFlingAbsorber implements Runnable {
+
+		private final OverScroller mScroller = new OverScroller(getContext());
+		private Mode mEdge;
+		private boolean mRunning = false;
+
+		void start(Mode edge, float velocity) {
+			mEdge = edge;
+			mScroller.fling(0, 0, 0, Math.round(velocity), 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			if (!mRunning) {
+				mRunning = true;
+				ViewCompat.postOnAnimation(PullToRefreshBase.this, this);
+			}
+		}
+
+		void stop() {
+			mRunning = false;
+			mScroller.abortAnimation();
+		}
+
+		@Override
+		public void run() {
+			if (!mRunning) {
+				return;
+			}
+			if (!mScroller.computeScrollOffset() || mState != State.RESET) {
+				stop();
+				return;
+			}
+
+			final boolean atEdge = mEdge == Mode.PULL_FROM_START ? isReadyForPullStart() : isReadyForPullEnd();
+			if (!atEdge) {
+				ViewCompat.postOnAnimation(PullToRefreshBase.this, this);
+				return;
+			}
+
+			// Slowed by friction like a pull, no further than the Loading View
+			final int velocity = Math.round(mScroller.getCurrVelocity() / FRICTION);
+			stop();
+			mScroller.fling(0, 0, 0, velocity, 0, 0, 0, Integer.MAX_VALUE);
+			final int distance = mScroller.getFinalY();
+			mScroller.abortAnimation();
+
+			if (mEdge == Mode.PULL_FROM_START) {
+				smoothScrollToAndBack(-Math.min(distance, getHeaderSize()), 0);
+			} else {
+				smoothScrollToAndBack(Math.min(distance, getFooterSize()), 0);
+			}
+		}
+
+	}
+
 	public static enum AnimationStyle {
 		/**
 		 * This is the default for Android-PullToRefresh. Allows you to use any
@@ -1593,66 +2194,6 @@ public abstract class PullToRefreshBase<T extends View> extends LinearLayout imp
 		}
 	}
 
-	final class SmoothScrollRunnable implements Runnable {
-		private final Interpolator mInterpolator;
-		private final int mScrollToY;
-		private final int mScrollFromY;
-		private final long mDuration;
-		private OnSmoothScrollFinishedListener mListener;
-
-		private boolean mContinueRunning = true;
-		private long mStartTime = -1;
-		private int mCurrentY = -1;
-
-		public SmoothScrollRunnable(int fromY, int toY, long duration, OnSmoothScrollFinishedListener listener) {
-			mScrollFromY = fromY;
-			mScrollToY = toY;
-			mInterpolator = mScrollAnimationInterpolator;
-			mDuration = duration;
-			mListener = listener;
-		}
-
-		@Override
-		public void run() {
-
-			/**
-			 * Only set mStartTime if this is the first time we're starting,
-			 * else actually calculate the Y delta
-			 */
-			if (mStartTime == -1) {
-				mStartTime = System.currentTimeMillis();
-			} else {
-
-				/**
-				 * We do do all calculations in long to reduce software float
-				 * calculations. We use 1000 as it gives us good accuracy and
-				 * small rounding errors
-				 */
-				long normalizedTime = (1000 * (System.currentTimeMillis() - mStartTime)) / mDuration;
-				normalizedTime = Math.max(Math.min(normalizedTime, 1000), 0);
-
-				final int deltaY = Math.round((mScrollFromY - mScrollToY)
-						* mInterpolator.getInterpolation(normalizedTime / 1000f));
-				mCurrentY = mScrollFromY - deltaY;
-				setHeaderScroll(mCurrentY);
-			}
-
-			// If we're not at the target Y, keep going...
-			if (mContinueRunning && mScrollToY != mCurrentY) {
-				ViewCompat.postOnAnimation(PullToRefreshBase.this, this);
-			} else {
-				if (null != mListener) {
-					mListener.onSmoothScrollFinished();
-				}
-			}
-		}
-
-		public void stop() {
-			mContinueRunning = false;
-			removeCallbacks(this);
-		}
-	}
-
 	static interface OnSmoothScrollFinishedListener {
 		void onSmoothScrollFinished();
 	}
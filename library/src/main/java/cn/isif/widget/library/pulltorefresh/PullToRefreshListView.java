@@ -39,7 +39,9 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 	private LoadingLayout mHeaderLoadingView;
 	private LoadingLayout mFooterLoadingView;
 
+	private FrameLayout mLvHeaderLoadingFrame;
 	private FrameLayout mLvFooterLoadingFrame;
+	private boolean mListViewLoadingViewsReleased = false;
 
 	private boolean mListViewExtrasEnabled;
 
@@ -70,6 +72,8 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 		 * If we're not showing the Refreshing view, or the list is empty, the
 		 * the header/footer views won't show so we use the normal method.
 		 */
+		ensureListViewLoadingViews();
+
 		ListAdapter adapter = mRefreshableView.getAdapter();
 		if (!mListViewExtrasEnabled || !getShowViewWhileRefreshing() || null == adapter || adapter.isEmpty()) {
 			super.onRefreshing(doScroll);
@@ -85,7 +89,7 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 			case MANUAL_REFRESH_ONLY:
 			case PULL_FROM_END:
 				origLoadingView = getFooterLayout();
-				listViewLoadingView = mFooterLoadingView;
+				listViewLoadingView = requireFooterLoadingView();
 				oppositeListViewLoadingView = mHeaderLoadingView;
 				selection = mRefreshableView.getCount() - 1;
 				scrollToY = getScrollY() - getFooterSize();
@@ -93,7 +97,7 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 			case PULL_FROM_START:
 			default:
 				origLoadingView = getHeaderLayout();
-				listViewLoadingView = mHeaderLoadingView;
+				listViewLoadingView = requireHeaderLoadingView();
 				oppositeListViewLoadingView = mFooterLoadingView;
 				selection = 0;
 				scrollToY = getScrollY() + getHeaderSize();
@@ -104,8 +108,10 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 		origLoadingView.reset();
 		origLoadingView.hideAllViews();
 
-		// Make sure the opposite end is hidden too
-		oppositeListViewLoadingView.setVisibility(View.GONE);
+		// Make sure the opposite end is hidden too, if it's been created
+		if (null != oppositeListViewLoadingView) {
+			oppositeListViewLoadingView.setVisibility(View.GONE);
+		}
 
 		// Show the ListView Loading View and set it to refresh.
 		listViewLoadingView.setVisibility(View.VISIBLE);
@@ -138,6 +144,8 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 			return;
 		}
 
+		ensureListViewLoadingViews();
+
 		final LoadingLayout originalLoadingLayout, listViewLoadingLayout;
 		final int scrollToHeight, selection;
 		final boolean scrollLvToEdge;
@@ -163,7 +171,7 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 
 		// If the ListView header loading layout is showing, then we need to
 		// flip so that the original one is showing instead
-		if (listViewLoadingLayout.getVisibility() == View.VISIBLE) {
+		if (null != listViewLoadingLayout && listViewLoadingLayout.getVisibility() == View.VISIBLE) {
 
 			// Set our Original View to Visible
 			originalLoadingLayout.showInvisibleViews();
@@ -191,13 +199,14 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 		LoadingLayoutProxy proxy = super.createLoadingLayoutProxy(includeStart, includeEnd);
 
 		if (mListViewExtrasEnabled) {
+			ensureListViewLoadingViews();
 			final Mode mode = getMode();
 
 			if (includeStart && mode.showHeaderLoadingLayout()) {
-				proxy.addLayout(mHeaderLoadingView);
+				proxy.addLayout(requireHeaderLoadingView());
 			}
 			if (includeEnd && mode.showFooterLoadingLayout()) {
-				proxy.addLayout(mFooterLoadingView);
+				proxy.addLayout(requireFooterLoadingView());
 			}
 		}
 
@@ -230,20 +239,18 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 		mListViewExtrasEnabled = a.getBoolean(R.styleable.PullToRefresh_ptrListViewExtrasEnabled, true);
 
 		if (mListViewExtrasEnabled) {
-			final FrameLayout.LayoutParams lp = new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT,
-					FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER_HORIZONTAL);
-
-			// Create Loading Views ready for use later
-			FrameLayout frame = new FrameLayout(getContext());
-			mHeaderLoadingView = createLoadingLayout(getContext(), Mode.PULL_FROM_START, a);
-			mHeaderLoadingView.setVisibility(View.GONE);
-			frame.addView(mHeaderLoadingView, lp);
-			mRefreshableView.addHeaderView(frame, null, false);
-
+			// The frames have to be added to the ListView now, but unstyled
+			// Loading Views are only created the first time we refresh
+			mLvHeaderLoadingFrame = new FrameLayout(getContext());
+			mRefreshableView.addHeaderView(mLvHeaderLoadingFrame, null, false);
 			mLvFooterLoadingFrame = new FrameLayout(getContext());
-			mFooterLoadingView = createLoadingLayout(getContext(), Mode.PULL_FROM_END, a);
-			mFooterLoadingView.setVisibility(View.GONE);
-			mLvFooterLoadingFrame.addView(mFooterLoadingView, lp);
+
+			if (!LoadingLayoutPool.isUnstyled(a)) {
+				mHeaderLoadingView = addListViewLoadingView(mLvHeaderLoadingFrame,
+						createLoadingLayout(getContext(), Mode.PULL_FROM_START, a));
+				mFooterLoadingView = addListViewLoadingView(mLvFooterLoadingFrame,
+						createLoadingLayout(getContext(), Mode.PULL_FROM_END, a));
+			}
 
 			/**
 			 * If the value for Scrolling While Refreshing hasn't been
@@ -255,6 +262,69 @@ public class PullToRefreshListView extends PullToRefreshAdapterViewBase<ListView
 		}
 	}
 
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		ensureListViewLoadingViews();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+
+		// Same as the normal Loading Views, lend them out while detached
+		if (mListViewExtrasEnabled && getState() == State.RESET) {
+			final boolean headerReleased = LoadingLayoutPool.release(mHeaderLoadingView);
+			final boolean footerReleased = LoadingLayoutPool.release(mFooterLoadingView);
+			mListViewLoadingViewsReleased = headerReleased || footerReleased;
+		}
+	}
+
+	/**
+	 * Takes back the ListView Loading Views lent out while we were detached,
+	 * replacing any which have been given to another widget.
+	 */
+	private void ensureListViewLoadingViews() {
+		if (!mListViewLoadingViewsReleased) {
+			return;
+		}
+		mListViewLoadingViewsReleased = false;
+		mHeaderLoadingView = reclaimListViewLoadingView(mHeaderLoadingView, mLvHeaderLoadingFrame,
+				Mode.PULL_FROM_START);
+		mFooterLoadingView = reclaimListViewLoadingView(mFooterLoadingView, mLvFooterLoadingFrame,
+				Mode.PULL_FROM_END);
+	}
+
+	private LoadingLayout reclaimListViewLoadingView(LoadingLayout layout, FrameLayout frame, Mode mode) {
+		if (null == layout || LoadingLayoutPool.reclaim(layout, frame)) {
+			return layout;
+		}
+		return addListViewLoadingView(frame, createUnstyledLoadingLayout(mode));
+	}
+
+	private LoadingLayout requireHeaderLoadingView() {
+		if (null == mHeaderLoadingView) {
+			mHeaderLoadingView = addListViewLoadingView(mLvHeaderLoadingFrame,
+					createUnstyledLoadingLayout(Mode.PULL_FROM_START));
+		}
+		return mHeaderLoadingView;
+	}
+
+	private LoadingLayout requireFooterLoadingView() {
+		if (null == mFooterLoadingView) {
+			mFooterLoadingView = addListViewLoadingView(mLvFooterLoadingFrame,
+					createUnstyledLoadingLayout(Mode.PULL_FROM_END));
+		}
+		return mFooterLoadingView;
+	}
+
+	private static LoadingLayout addListViewLoadingView(FrameLayout frame, LoadingLayout layout) {
+		layout.setVisibility(View.GONE);
+		frame.addView(layout, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT,
+				FrameLayout.LayoutParams.WRAP_CONTENT, Gravity.CENTER_HORIZONTAL));
+		return layout;
+	}
+
 	@TargetApi(9)
 	final class InternalListViewSDK9 extends InternalListView {
 
@@ -0,0 +1,112 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.util.AttributeSet;
+import android.view.View;
+
+import cn.isif.widget.library.R;
+
+/**
+ * Pull-to-Refresh for a {@link RecyclerView}, which recycles its rows
+ * through ViewHolders instead of binding them again as a ListView does.
+ * <p/>
+ * The RecyclerView starts with a vertical {@link LinearLayoutManager}, which
+ * can be replaced with any vertical {@link LinearLayoutManager},
+ * {@link android.support.v7.widget.GridLayoutManager} or
+ * {@link StaggeredGridLayoutManager}, reversed or not. Use
+ * {@link LoadMoreRecyclerAdapter} around the adapter to load more as the end
+ * is reached, rather than pulling from the end.
+ * <p/>
+ * RecyclerView draws its own edge effects rather than overscrolling, so
+ * {@link #setPullToRefreshOverScrollEnabled(boolean)} has no effect.
+ */
+public class PullToRefreshRecyclerView extends PullToRefreshBase<RecyclerView> {
+
+	public PullToRefreshRecyclerView(Context context) {
+		super(context);
+	}
+
+	public PullToRefreshRecyclerView(Context context, AttributeSet attrs) {
+		super(context, attrs);
+	}
+
+	public PullToRefreshRecyclerView(Context context, Mode mode) {
+		super(context, mode);
+	}
+
+	public PullToRefreshRecyclerView(Context context, Mode mode, AnimationStyle style) {
+		super(context, mode, style);
+	}
+
+	@Override
+	public final Orientation getPullToRefreshScrollDirection() {
+		return Orientation.VERTICAL;
+	}
+
+	@Override
+	protected RecyclerView createRefreshableView(Context context, AttributeSet attrs) {
+		RecyclerView recyclerView = new RecyclerView(context, attrs);
+		recyclerView.setLayoutManager(new LinearLayoutManager(context));
+		recyclerView.setId(R.id.recyclerview);
+		return recyclerView;
+	}
+
+	@Override
+	protected boolean isReadyForPullStart() {
+		return isEdgeItemVisible(true);
+	}
+
+	@Override
+	protected boolean isReadyForPullEnd() {
+		return isEdgeItemVisible(false);
+	}
+
+	/**
+	 * Checks the item at an edge of the list is laid out, and that no item
+	 * goes past that edge. In a grid those are the other items of the first
+	 * or last row; in a staggered grid the first or last item of every column,
+	 * the last item of the list not always being the lowest.
+	 *
+	 * @param top - true for the top edge, false for the bottom
+	 */
+	private boolean isEdgeItemVisible(boolean top) {
+		final RecyclerView.Adapter<?> adapter = mRefreshableView.getAdapter();
+		final RecyclerView.LayoutManager layoutManager = mRefreshableView.getLayoutManager();
+		if (null == adapter || null == layoutManager || adapter.getItemCount() == 0) {
+			// Nothing to scroll, so it can be pulled either way
+			return true;
+		}
+
+		final boolean reversed = isReverseLayout(layoutManager);
+		final int position = top != reversed ? 0 : adapter.getItemCount() - 1;
+		if (null == layoutManager.findViewByPosition(position)) {
+			return false;
+		}
+
+		final int edge = top ? mRefreshableView.getPaddingTop() : mRefreshableView.getHeight()
+				- mRefreshableView.getPaddingBottom();
+		for (int i = 0, z = mRefreshableView.getChildCount(); i < z; i++) {
+			final View child = mRefreshableView.getChildAt(i);
+			final RecyclerView.LayoutParams lp = (RecyclerView.LayoutParams) child.getLayoutParams();
+			if (top ? layoutManager.getDecoratedTop(child) - lp.topMargin < edge : layoutManager
+					.getDecoratedBottom(child) + lp.bottomMargin > edge) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isReverseLayout(RecyclerView.LayoutManager layoutManager) {
+		if (layoutManager instanceof LinearLayoutManager) {
+			// Includes GridLayoutManager
+			return ((LinearLayoutManager) layoutManager).getReverseLayout();
+		} else if (layoutManager instanceof StaggeredGridLayoutManager) {
+			return ((StaggeredGridLayoutManager) layoutManager).getReverseLayout();
+		}
+		return false;
+	}
+
+}
@@ -22,18 +22,46 @@ import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
 import android.util.AttributeSet;
 import android.util.FloatMath;
+import android.webkit.JavascriptInterface;
 import android.webkit.WebChromeClient;
 import android.webkit.WebView;
 
+import java.util.Locale;
+
 import cn.isif.widget.library.R;
 
 public class PullToRefreshWebView extends PullToRefreshBase<WebView> {
 
+	/**
+	 * The page refreshed itself, see {@link #setSoftRefreshEnabled(boolean)}.
+	 */
+	public static final int REFRESH_PATH_SOFT = 0;
+
+	/**
+	 * The page was reloaded.
+	 */
+	public static final int REFRESH_PATH_RELOAD = 1;
+
+	static final String JS_SOFT_REFRESH_INTERFACE = "ptrSoftRefresh";
+
+	static final long SOFT_REFRESH_TIMEOUT_MS = 10000;
+
+	/**
+	 * Calls the page's window.ptrRefresh(done). The hook returns true if it
+	 * will call done() once it has finished, otherwise it is taken to have
+	 * finished when it returns. The id of the refresh is sent back, so that
+	 * a late answer to an older refresh is ignored.
+	 */
+	static final String SOFT_REFRESH_JS = "(function(){var p=window." + JS_SOFT_REFRESH_INTERFACE + ",id=%d;"
+			+ "if(typeof window.ptrRefresh!=='function'){p.onHookMissing(id);return;}"
+			+ "var called=false;function done(){if(!called){called=true;p.onRefreshed(id);}}"
+			+ "try{if(window.ptrRefresh(done)!==true){done();}}catch(e){p.onHookMissing(id);}})();";
+
 	private static final OnRefreshListener<WebView> defaultOnRefreshListener = new OnRefreshListener<WebView>() {
 
 		@Override
 		public void onRefresh(PullToRefreshBase<WebView> refreshView) {
-			refreshView.getRefreshableView().reload();
+			((PullToRefreshWebView) refreshView).refreshPage();
 		}
 
 	};
@@ -42,13 +70,38 @@ public class PullToRefreshWebView extends PullToRefreshBase<WebView> {
 
 		@Override
 		public void onProgressChanged(WebView view, int newProgress) {
+			if (mSoftRefreshEnabled && newProgress < 100) {
+				// A new page, which is given the interface
+				mSoftRefreshReady = true;
+			}
 			if (newProgress == 100) {
 				onRefreshComplete();
+				if (mRefreshPath == REFRESH_PATH_RELOAD) {
+					onPageRefreshed();
+				}
 			}
+			onPageProgressChanged(newProgress);
 		}
 
 	};
 
+	private boolean mSoftRefreshEnabled = false;
+	// Whether the page loaded since ptrSoftRefresh was added, and so can see it
+	private boolean mSoftRefreshReady = false;
+	private OnPageRefreshedListener mOnPageRefreshedListener;
+	// Which way the refresh in progress is going, -1 if there isn't one
+	private int mRefreshPath = -1;
+	private int mRefreshId = 0;
+
+	private final Runnable mSoftRefreshTimeoutRunnable = new Runnable() {
+		@Override
+		public void run() {
+			if (mRefreshPath == REFRESH_PATH_SOFT) {
+				onPageRefreshed();
+			}
+		}
+	};
+
 	public PullToRefreshWebView(Context context) {
 		super(context);
 
@@ -107,6 +160,108 @@ public class PullToRefreshWebView extends PullToRefreshBase<WebView> {
 		return webView;
 	}
 
+	/**
+	 * Sets whether the default refresh should ask the page to refresh
+	 * itself, rather than reloading it. The page does so by defining
+	 * <code>window.ptrRefresh(done)</code>, which updates the page and
+	 * returns, or returns true and calls <code>done()</code> once it has
+	 * updated. Pages without it are reloaded. A page which hasn't called
+	 * <code>done()</code> after {@value #SOFT_REFRESH_TIMEOUT_MS} ms is taken
+	 * to have finished.
+	 * <p/>
+	 * The page is only given the <code>ptrSoftRefresh</code> interface while
+	 * this is enabled, and WebView hands it over as a page loads. So the
+	 * page showing when it is enabled is reloaded on the first refresh, and
+	 * refreshed through its hook after that.
+	 * <p/>
+	 * Has no effect if the {@link OnRefreshListener} or the WebChromeClient
+	 * has been replaced, or before JELLY_BEAN_MR1, where pages are always
+	 * reloaded.
+	 *
+	 * @param enabled - true to refresh through the page's hook
+	 */
+	public final void setSoftRefreshEnabled(boolean enabled) {
+		enabled = enabled && VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN_MR1;
+		if (enabled == mSoftRefreshEnabled) {
+			return;
+		}
+		mSoftRefreshEnabled = enabled;
+		mSoftRefreshReady = false;
+
+		if (enabled) {
+			// Only annotated methods can be reached from the page from
+			// JELLY_BEAN_MR1, before it the whole object could be
+			mRefreshableView.addJavascriptInterface(new SoftRefreshCallback(), JS_SOFT_REFRESH_INTERFACE);
+		} else {
+			mRefreshableView.removeJavascriptInterface(JS_SOFT_REFRESH_INTERFACE);
+			if (mRefreshPath == REFRESH_PATH_SOFT) {
+				// The page's answer would be ignored now
+				removeCallbacks(mSoftRefreshTimeoutRunnable);
+				reloadPage();
+			}
+		}
+	}
+
+	public final boolean isSoftRefreshEnabled() {
+		return mSoftRefreshEnabled;
+	}
+
+	/**
+	 * Sets the listener told once the default refresh has finished, and
+	 * whether the page refreshed itself or was reloaded.
+	 */
+	public final void setOnPageRefreshedListener(OnPageRefreshedListener listener) {
+		mOnPageRefreshedListener = listener;
+	}
+
+	/**
+	 * Runs <var>script</var> in the page, with evaluateJavascript() where
+	 * there is one, so the page isn't navigated.
+	 */
+	protected static void evaluateJavascript(WebView webView, String script) {
+		if (VERSION.SDK_INT >= VERSION_CODES.KITKAT) {
+			evaluateJavascriptKitKat(webView, script);
+		} else {
+			webView.loadUrl("javascript:" + script);
+		}
+	}
+
+	@TargetApi(19)
+	private static void evaluateJavascriptKitKat(WebView webView, String script) {
+		webView.evaluateJavascript(script, null);
+	}
+
+	private void refreshPage() {
+		removeCallbacks(mSoftRefreshTimeoutRunnable);
+		mRefreshId++;
+		if (mSoftRefreshEnabled && mSoftRefreshReady) {
+			mRefreshPath = REFRESH_PATH_SOFT;
+			postDelayed(mSoftRefreshTimeoutRunnable, SOFT_REFRESH_TIMEOUT_MS);
+			evaluateJavascript(mRefreshableView, String.format(Locale.US, SOFT_REFRESH_JS, mRefreshId));
+		} else {
+			reloadPage();
+		}
+	}
+
+	private void reloadPage() {
+		// Completes through the WebChromeClient, once the page has loaded
+		mRefreshPath = REFRESH_PATH_RELOAD;
+		mRefreshableView.reload();
+	}
+
+	private void onPageRefreshed() {
+		final int path = mRefreshPath;
+		mRefreshPath = -1;
+		removeCallbacks(mSoftRefreshTimeoutRunnable);
+
+		if (path == REFRESH_PATH_SOFT) {
+			onRefreshComplete();
+		}
+		if (null != mOnPageRefreshedListener) {
+			mOnPageRefreshedListener.onPageRefreshed(this, path);
+		}
+	}
+
 	@Override
 	protected boolean isReadyForPullStart() {
 		return mRefreshableView.getScrollY() == 0;
@@ -118,6 +273,15 @@ public class PullToRefreshWebView extends PullToRefreshBase<WebView> {
 		return mRefreshableView.getScrollY() >= (exactContentHeight - mRefreshableView.getHeight());
 	}
 
+	/**
+	 * Called as a page loads, by the WebChromeClient set up by default. Not
+	 * called once the WebChromeClient has been replaced.
+	 *
+	 * @param newProgress - Progress of the load, 100 once it has finished
+	 */
+	protected void onPageProgressChanged(int newProgress) {
+	}
+
 	@Override
 	protected void onPtrRestoreInstanceState(Bundle savedInstanceState) {
 		super.onPtrRestoreInstanceState(savedInstanceState);
@@ -130,6 +294,53 @@ public class PullToRefreshWebView extends PullToRefreshBase<WebView> {
 		mRefreshableView.saveState(saveState);
 	}
 
+	/**
+	 * Told when the default refresh of a {@link PullToRefreshWebView} has
+	 * finished.
+	 */
+	public static interface OnPageRefreshedListener {
+
+		/**
+		 * @param refreshView - View which has been refreshed
+		 * @param path - {@link #REFRESH_PATH_SOFT} if the page refreshed
+		 *            itself, {@link #REFRESH_PATH_RELOAD} if it was reloaded
+		 */
+		public void onPageRefreshed(PullToRefreshWebView refreshView, int path);
+
+	}
+
+	/**
+	 * Answers from {@link #SOFT_REFRESH_JS}. Called on the JavaScript thread,
+	 * so they are handed to the UI thread.
+	 */
+	final class SoftRefreshCallback {
+
+		@JavascriptInterface
+		public void onRefreshed(final int id) {
+			post(new Runnable() {
+				@Override
+				public void run() {
+					if (id == mRefreshId && mRefreshPath == REFRESH_PATH_SOFT) {
+						onPageRefreshed();
+					}
+				}
+			});
+		}
+
+		@JavascriptInterface
+		public void onHookMissing(final int id) {
+			post(new Runnable() {
+				@Override
+				public void run() {
+					if (id == mRefreshId && mRefreshPath == REFRESH_PATH_SOFT) {
+						removeCallbacks(mSoftRefreshTimeoutRunnable);
+						reloadPage();
+					}
+				}
+			});
+		}
+	}
+
 	@TargetApi(9)
 	final class InternalWebViewSDK9 extends WebView {
 
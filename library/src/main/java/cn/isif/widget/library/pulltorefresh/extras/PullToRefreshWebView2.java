@@ -16,19 +16,65 @@
 package cn.isif.widget.library.pulltorefresh.extras;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.webkit.JavascriptInterface;
 import android.webkit.WebView;
 
-
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Locale;
 
 import cn.isif.widget.library.pulltorefresh.PullToRefreshWebView;
 
+/**
+ * A {@link PullToRefreshWebView} for pages which scroll inside an element of
+ * their own, rather than scrolling the WebView.
+ * <p/>
+ * A probe is added to each page once it has loaded. It listens for scroll
+ * events anywhere in the page and tells this widget whenever the element
+ * being scrolled reaches or leaves its top or bottom, no more often than
+ * {@link #setProbeInterval(long)}. Checking whether the page can be pulled is
+ * then only a matter of reading what it last said, so touch events never
+ * call into JavaScript.
+ * <p/>
+ * The probe is added by the WebChromeClient set up by default. If it has
+ * been replaced, the probe is added when first needed, and until the page
+ * has answered the WebView's own scroll position is used.
+ * <p/>
+ * Pages may still call <code>ptr.isReadyForPullDownResponse(boolean)</code>
+ * and <code>ptr.isReadyForPullUpResponse(boolean)</code> themselves.
+ */
 public class PullToRefreshWebView2 extends PullToRefreshWebView {
 
 	static final String JS_INTERFACE_PKG = "ptr";
-	static final String DEF_JS_READY_PULL_DOWN_CALL = "javascript:isReadyForPullDown();";
-	static final String DEF_JS_READY_PULL_UP_CALL = "javascript:isReadyForPullUp();";
+
+	static final long DEFAULT_PROBE_INTERVAL_MS = 100;
+
+	// How often a missing probe is added again, at most
+	static final long PROBE_RETRY_INTERVAL_MS = 1000;
+
+	/**
+	 * Added once per document, guarded by window.__ptrProbe, which is the
+	 * probe's report function. Adding it again to a document which has it
+	 * makes it report straight away. The element scrolled last is the one
+	 * measured, or the document if it was the document. Otherwise reports are
+	 * only sent when an edge changes, after the interval has passed since the
+	 * scroll which started them.
+	 */
+	static final String PROBE_JS = "(function(){"
+			+ "if(typeof window.__ptrProbe==='function'){window.__ptrProbe(true);return;}"
+			+ "var el=null,top=null,bottom=null,timer=0;"
+			+ "function report(force){timer=0;"
+			+ "var s=el||document.scrollingElement||document.documentElement;"
+			+ "var y=el?s.scrollTop:window.pageYOffset,h=el?s.clientHeight:window.innerHeight;"
+			+ "var t=y<=0,b=y+h>=s.scrollHeight-1;"
+			+ "if(force===true||t!==top||b!==bottom){top=t;bottom=b;"
+			+ JS_INTERFACE_PKG + ".onScrollEdges(t,b,location.href);}}"
+			+ "window.__ptrProbe=report;"
+			+ "function schedule(){if(!timer){timer=setTimeout(report,%d);}}"
+			+ "document.addEventListener('scroll',function(e){var n=e.target;"
+			+ "el=n&&n.nodeType===1&&n!==document.documentElement&&n!==document.body?n:null;schedule();},true);"
+			+ "window.addEventListener('resize',schedule);"
+			+ "report(true);})();";
 
 	public PullToRefreshWebView2(Context context) {
 		super(context);
@@ -43,8 +89,21 @@ public class PullToRefreshWebView2 extends PullToRefreshWebView {
 	}
 
 	private JsValueCallback mJsCallback;
-	private final AtomicBoolean mIsReadyForPullDown = new AtomicBoolean(false);
-	private final AtomicBoolean mIsReadyForPullUp = new AtomicBoolean(false);
+
+	// Written by the JavaScript thread, read on touch events
+	private volatile PageEdges mPageEdges;
+
+	private long mProbeInterval = DEFAULT_PROBE_INTERVAL_MS;
+	private String mProbeScript;
+	private boolean mPageLoading = false;
+	private long mLastProbeTime = -PROBE_RETRY_INTERVAL_MS;
+
+	private final Runnable mAddProbeRunnable = new Runnable() {
+		@Override
+		public void run() {
+			addProbe();
+		}
+	};
 
 	@Override
 	protected WebView createRefreshableView(Context context, AttributeSet attrs) {
@@ -57,41 +116,110 @@ public class PullToRefreshWebView2 extends PullToRefreshWebView {
 		return webView;
 	}
 
+	/**
+	 * Sets how long the page waits after a scroll before saying whether it
+	 * has reached an edge. Takes effect on the next page loaded.
+	 *
+	 * @param intervalMillis - Interval, the default is
+	 *            {@value #DEFAULT_PROBE_INTERVAL_MS} ms
+	 */
+	public void setProbeInterval(long intervalMillis) {
+		mProbeInterval = Math.max(intervalMillis, 0);
+		mProbeScript = null;
+	}
+
 	@Override
 	protected boolean isReadyForPullStart() {
-		// Call Javascript...
-		getRefreshableView().loadUrl(DEF_JS_READY_PULL_DOWN_CALL);
-
-		// Response will be given to JsValueCallback, which will update
-		// mIsReadyForPullDown
-
-		return mIsReadyForPullDown.get();
+		final PageEdges edges = getPageEdges();
+		return null != edges ? edges.top : super.isReadyForPullStart();
 	}
 
 	@Override
 	protected boolean isReadyForPullEnd() {
-		// Call Javascript...
-		getRefreshableView().loadUrl(DEF_JS_READY_PULL_UP_CALL);
+		final PageEdges edges = getPageEdges();
+		return null != edges ? edges.bottom : super.isReadyForPullEnd();
+	}
 
-		// Response will be given to JsValueCallback, which will update
-		// mIsReadyForPullUp
+	@Override
+	protected void onPageProgressChanged(int newProgress) {
+		if (newProgress < 100) {
+			// A new document, which knows nothing of the old one's probe
+			if (!mPageLoading) {
+				mPageLoading = true;
+				mPageEdges = null;
+			}
+		} else {
+			mPageLoading = false;
+			addProbe();
+		}
+	}
 
-		return mIsReadyForPullUp.get();
+	/**
+	 * @return What the current page last said about its edges, or null if it
+	 *         hasn't said anything yet, in which case a probe is added
+	 *         shortly.
+	 */
+	private PageEdges getPageEdges() {
+		final PageEdges edges = mPageEdges;
+		if (null != edges && (null == edges.url || edges.url.equals(getRefreshableView().getUrl()))) {
+			return edges;
+		}
+
+		// Not from within the touch event, and not on every one of them
+		final long now = SystemClock.uptimeMillis();
+		if (now - mLastProbeTime >= PROBE_RETRY_INTERVAL_MS) {
+			mLastProbeTime = now;
+			post(mAddProbeRunnable);
+		}
+		return null;
+	}
+
+	private void addProbe() {
+		mLastProbeTime = SystemClock.uptimeMillis();
+		if (null == mProbeScript) {
+			mProbeScript = String.format(Locale.US, PROBE_JS, mProbeInterval);
+		}
+		evaluateJavascript(getRefreshableView(), mProbeScript);
+	}
+
+	/**
+	 * What a page last said about its edges.
+	 */
+	static final class PageEdges {
+		final boolean top;
+		final boolean bottom;
+		// null if the page didn't say which it was
+		final String url;
+
+		PageEdges(boolean top, boolean bottom, String url) {
+			this.top = top;
+			this.bottom = bottom;
+			this.url = url;
+		}
 	}
 
 	/**
-	 * Used for response from Javascript
+	 * Used for response from Javascript. Called on the JavaScript thread.
 	 * 
 	 * @author Chris Banes
 	 */
 	final class JsValueCallback {
 
+		@JavascriptInterface
+		public void onScrollEdges(boolean top, boolean bottom, String url) {
+			mPageEdges = new PageEdges(top, bottom, url);
+		}
+
+		@JavascriptInterface
 		public void isReadyForPullUpResponse(boolean response) {
-			mIsReadyForPullUp.set(response);
+			final PageEdges edges = mPageEdges;
+			mPageEdges = new PageEdges(null != edges && edges.top, response, null);
 		}
 
+		@JavascriptInterface
 		public void isReadyForPullDownResponse(boolean response) {
-			mIsReadyForPullDown.set(response);
+			final PageEdges edges = mPageEdges;
+			mPageEdges = new PageEdges(response, null != edges && edges.bottom, null);
 		}
 	}
 }
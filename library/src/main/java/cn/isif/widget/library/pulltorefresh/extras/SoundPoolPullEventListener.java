@@ -0,0 +1,215 @@
+package cn.isif.widget.library.pulltorefresh.extras;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.SoundPool;
+import android.os.AsyncTask;
+import android.util.SparseBooleanArray;
+import android.view.View;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.State;
+
+/**
+ * Plays a sound for each Pull Event, like {@link SoundPullEventListener}, but
+ * from a {@link SoundPool}. Sounds are decoded once, as they are added,
+ * rather than each time they are played, so a Pull Event only starts a
+ * stream: nothing is decoded or allocated on the UI thread during a pull.
+ * Suits short sounds; a sound which hasn't finished loading is skipped.
+ * <p/>
+ * Use {@link #attach(PullToRefreshBase)} so the SoundPool is released when
+ * the widget is detached from its window, and loaded again if it is
+ * attached again. Otherwise call {@link #release()} once it is no longer
+ * needed.
+ *
+ * @param <V> - Type of the Refreshable View
+ */
+public class SoundPoolPullEventListener<V extends View> implements PullToRefreshBase.OnPullEventListener<V>,
+		View.OnAttachStateChangeListener {
+
+	static final int NO_SOUND = 0;
+
+	private static final State[] STATES = State.values();
+
+	private final Context mContext;
+	private final Executor mExecutor;
+
+	// Resource of the sound for each State, by ordinal. Guarded by this
+	private final int[] mResIds = new int[STATES.length];
+	// SoundPool's id for each State's sound once load() has returned,
+	// written by the loading thread
+	private final AtomicIntegerArray mSoundIds = new AtomicIntegerArray(STATES.length);
+	// Sound ids which have finished decoding, only touched on the UI thread
+	private final SparseBooleanArray mLoaded = new SparseBooleanArray();
+
+	// Guarded by this, only replaced on the UI thread
+	private SoundPool mSoundPool;
+	private int mStreamId = NO_SOUND;
+
+	private final SoundPool.OnLoadCompleteListener mLoadCompleteListener = new SoundPool.OnLoadCompleteListener() {
+		@Override
+		public void onLoadComplete(SoundPool soundPool, int sampleId, int status) {
+			if (soundPool == mSoundPool && status == 0) {
+				mLoaded.put(sampleId, true);
+			}
+		}
+	};
+
+	/**
+	 * Constructor
+	 *
+	 * @param context - Context
+	 */
+	public SoundPoolPullEventListener(Context context) {
+		this(context, AsyncTask.SERIAL_EXECUTOR);
+	}
+
+	/**
+	 * @param context - Context
+	 * @param executor - Executor the sound resources are opened on
+	 */
+	public SoundPoolPullEventListener(Context context, Executor executor) {
+		mContext = context.getApplicationContext();
+		mExecutor = executor;
+	}
+
+	/**
+	 * Sets this as <var>refreshView</var>'s {@link PullToRefreshBase.OnPullEventListener},
+	 * and releases the sounds whenever it is detached from its window.
+	 */
+	public void attach(PullToRefreshBase<V> refreshView) {
+		refreshView.setOnPullEventListener(this);
+		refreshView.addOnAttachStateChangeListener(this);
+	}
+
+	@Override
+	public final void onPullEvent(PullToRefreshBase<V> refreshView, State event, Mode direction) {
+		final SoundPool soundPool = mSoundPool;
+		final int soundId = mSoundIds.get(event.ordinal());
+		if (null == soundPool || soundId == NO_SOUND || !mLoaded.get(soundId)) {
+			return;
+		}
+
+		// Only one sound at a time, as with SoundPullEventListener
+		if (mStreamId != NO_SOUND) {
+			soundPool.stop(mStreamId);
+		}
+		mStreamId = soundPool.play(soundId, 1f, 1f, 0, 0, 1f);
+	}
+
+	/**
+	 * Set the Sounds to be played when a Pull Event happens. You specify which
+	 * sound plays for which events by calling this method multiple times for
+	 * each event. The sound starts loading straight away, off the UI thread.
+	 *
+	 * If you've already set a sound for a certain event, and add another sound
+	 * for that event, only the new sound will be played.
+	 *
+	 * @param event - The event for which the sound will be played.
+	 * @param resId - Resource Id of the sound file to be played (e.g.
+	 *            <var>R.raw.pull_sound</var>)
+	 */
+	public void addSoundEvent(State event, int resId) {
+		final int index = event.ordinal();
+		synchronized (this) {
+			mResIds[index] = resId;
+		}
+		unloadSound(index);
+		load(ensureSoundPool(), index, resId);
+	}
+
+	/**
+	 * Clears all of the previously set sounds and events.
+	 */
+	public void clearSounds() {
+		synchronized (this) {
+			for (int i = 0; i < STATES.length; i++) {
+				mResIds[i] = NO_SOUND;
+			}
+		}
+		for (int i = 0; i < STATES.length; i++) {
+			unloadSound(i);
+		}
+	}
+
+	/**
+	 * Releases the SoundPool. The sounds are kept, and loaded again by the
+	 * next {@link #addSoundEvent(State, int)} or when the widget is attached.
+	 */
+	public void release() {
+		synchronized (this) {
+			if (null == mSoundPool) {
+				return;
+			}
+			mSoundPool.release();
+			mSoundPool = null;
+		}
+		mStreamId = NO_SOUND;
+		mLoaded.clear();
+		for (int i = 0; i < STATES.length; i++) {
+			mSoundIds.set(i, NO_SOUND);
+		}
+	}
+
+	@Override
+	public void onViewAttachedToWindow(View v) {
+		if (null == mSoundPool) {
+			final SoundPool soundPool = ensureSoundPool();
+			for (int i = 0; i < STATES.length; i++) {
+				if (mResIds[i] != NO_SOUND) {
+					load(soundPool, i, mResIds[i]);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void onViewDetachedFromWindow(View v) {
+		release();
+	}
+
+	@SuppressWarnings("deprecation")
+	private SoundPool ensureSoundPool() {
+		if (null == mSoundPool) {
+			// SoundPool.Builder is Lollipop only
+			final SoundPool soundPool = new SoundPool(1, AudioManager.STREAM_MUSIC, 0);
+			soundPool.setOnLoadCompleteListener(mLoadCompleteListener);
+			synchronized (this) {
+				mSoundPool = soundPool;
+			}
+		}
+		return mSoundPool;
+	}
+
+	private void unloadSound(int index) {
+		final int soundId = mSoundIds.getAndSet(index, NO_SOUND);
+		if (soundId != NO_SOUND && null != mSoundPool) {
+			mSoundPool.unload(soundId);
+			mLoaded.delete(soundId);
+		}
+	}
+
+	private void load(final SoundPool soundPool, final int index, final int resId) {
+		mExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (SoundPoolPullEventListener.this) {
+					// Released, or the sound replaced, before we got here
+					if (soundPool != mSoundPool || mResIds[index] != resId) {
+						return;
+					}
+					final int soundId = soundPool.load(mContext, resId, 1);
+					final int previous = mSoundIds.getAndSet(index, soundId);
+					if (previous != NO_SOUND) {
+						soundPool.unload(previous);
+					}
+				}
+			}
+		});
+	}
+
+}
@@ -25,6 +25,11 @@ import cn.isif.widget.library.pulltorefresh.PullToRefreshBase;
 import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.State;
 import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
 
+/**
+ * Plays a sound for each Pull Event through a MediaPlayer, which is created
+ * for every sound played. For short sounds,
+ * {@link SoundPoolPullEventListener} decodes them once, up front.
+ */
 public class SoundPullEventListener<V extends View> implements PullToRefreshBase.OnPullEventListener<V> {
 
 	private final Context mContext;
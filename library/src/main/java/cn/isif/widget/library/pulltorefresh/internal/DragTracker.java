@@ -0,0 +1,125 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+/**
+ * Follows one pointer of a drag, handing over to another pointer when a
+ * finger is added or lifted. On a hand-over the initial and last positions
+ * are moved by the distance between the two fingers, so the drag carries on
+ * from where it was rather than jumping to the new finger.
+ * <p/>
+ * Kept free of Android classes so it can be tested and benchmarked on the
+ * JVM. The widgets feed it their MotionEvents with
+ * {@link Utils#trackPointers(DragTracker, android.view.MotionEvent)}.
+ */
+public final class DragTracker {
+
+	public static final int INVALID_POINTER = -1;
+
+	private int mActivePointerId = INVALID_POINTER;
+
+	// Where the drag started
+	private float mInitialX, mInitialY;
+	// Where the caller last acted on the drag, see markLast()
+	private float mLastX, mLastY;
+	// Where the active pointer is now
+	private float mX, mY;
+
+	/**
+	 * The first finger has gone down, and starts the drag.
+	 */
+	public void onDown(int pointerId, float x, float y) {
+		mActivePointerId = pointerId;
+		mInitialX = mLastX = mX = x;
+		mInitialY = mLastY = mY = y;
+	}
+
+	/**
+	 * Another finger has gone down. It takes over the drag, the same as a
+	 * platform ScrollView does.
+	 */
+	public void onPointerDown(int pointerId, float x, float y) {
+		handOver(pointerId, x, y);
+	}
+
+	/**
+	 * A finger has been lifted while others are still down. If it was the
+	 * active one, the drag is handed to <var>newPointerId</var>.
+	 *
+	 * @param pointerId - Pointer which went up
+	 * @param newPointerId - A pointer which is still down
+	 * @param newX - Position of <var>newPointerId</var>
+	 * @param newY - Position of <var>newPointerId</var>
+	 * @return true if the drag was handed over.
+	 */
+	public boolean onPointerUp(int pointerId, int newPointerId, float newX, float newY) {
+		if (pointerId != mActivePointerId) {
+			return false;
+		}
+		handOver(newPointerId, newX, newY);
+		return true;
+	}
+
+	/**
+	 * @param x - Position of the active pointer
+	 * @param y - Position of the active pointer
+	 */
+	public void onMove(float x, float y) {
+		mX = x;
+		mY = y;
+	}
+
+	/**
+	 * Sets the last position to the active pointer's current one.
+	 */
+	public void markLast() {
+		mLastX = mX;
+		mLastY = mY;
+	}
+
+	public void reset() {
+		mActivePointerId = INVALID_POINTER;
+	}
+
+	public int getActivePointerId() {
+		return mActivePointerId;
+	}
+
+	public float getInitialX() {
+		return mInitialX;
+	}
+
+	public float getInitialY() {
+		return mInitialY;
+	}
+
+	public float getLastX() {
+		return mLastX;
+	}
+
+	public float getLastY() {
+		return mLastY;
+	}
+
+	public float getX() {
+		return mX;
+	}
+
+	public float getY() {
+		return mY;
+	}
+
+	private void handOver(int pointerId, float x, float y) {
+		if (mActivePointerId == INVALID_POINTER) {
+			onDown(pointerId, x, y);
+			return;
+		}
+		final float dx = x - mX, dy = y - mY;
+		mInitialX += dx;
+		mInitialY += dy;
+		mLastX += dx;
+		mLastY += dy;
+		mX = x;
+		mY = y;
+		mActivePointerId = pointerId;
+	}
+
+}
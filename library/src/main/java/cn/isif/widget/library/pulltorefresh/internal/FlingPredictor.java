@@ -0,0 +1,67 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.AbsListView;
+import android.widget.OverScroller;
+
+/**
+ * Predicts where a fling of a list will come to rest as the finger is
+ * lifted, so the next page can be asked for while the fling is still
+ * running, rather than once it has reached the end. It flings an
+ * {@link OverScroller} of its own, which is what AbsListView flings with, and
+ * takes its final position.
+ */
+public final class FlingPredictor {
+
+	private final OverScroller mScroller;
+	private final int mMinimumVelocity;
+	private final int mMaximumVelocity;
+
+	public FlingPredictor(Context context) {
+		mScroller = new OverScroller(context);
+		final ViewConfiguration configuration = ViewConfiguration.get(context);
+		mMinimumVelocity = configuration.getScaledMinimumFlingVelocity();
+		mMaximumVelocity = configuration.getScaledMaximumFlingVelocity();
+	}
+
+	/**
+	 * @param velocity - Velocity of the finger as it was lifted, in pixels per
+	 *            second, as given by a VelocityTracker. Negative when moving
+	 *            up or left.
+	 * @return How far the content will scroll towards its end, 0 if it isn't
+	 *         flung that way.
+	 */
+	public int predictDistance(float velocity) {
+		// the content moves the other way to the finger
+		final int contentVelocity = (int) -Math.max(-mMaximumVelocity, Math.min(velocity, mMaximumVelocity));
+		if (contentVelocity < mMinimumVelocity) {
+			return 0;
+		}
+		mScroller.fling(0, 0, 0, contentVelocity, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		final int distance = mScroller.getFinalY();
+		mScroller.abortAnimation();
+		return distance;
+	}
+
+	/**
+	 * @param distance - From {@link #predictDistance(float)}
+	 * @return The position after the last row which will be on screen once
+	 *         the fling is over, estimated from the heights of the rows on
+	 *         screen now.
+	 */
+	public static long projectLastVisibleItem(AbsListView list, int distance) {
+		final int childCount = list.getChildCount();
+		final int lastVisibleItem = list.getFirstVisiblePosition() + childCount;
+		if (childCount == 0) {
+			return lastVisibleItem;
+		}
+		final View first = list.getChildAt(0);
+		final View last = list.getChildAt(childCount - 1);
+		final int rowHeight = (last.getBottom() - first.getTop()) / childCount;
+		final int overhang = Math.max(last.getBottom() - (list.getHeight() - list.getPaddingBottom()), 0);
+		return PullMath.projectLastVisibleItem(lastVisibleItem, distance, overhang, rowHeight);
+	}
+
+}
@@ -64,6 +64,8 @@ public abstract class LoadingLayout extends FrameLayout implements ILoadingLayou
 	private CharSequence mRefreshingLabel;
 	private CharSequence mReleaseLabel;
 
+	private boolean mRecyclable = true;
+
 	public LoadingLayout(Context context, final Mode mode, final Orientation scrollDirection, TypedArray attrs) {
 		super(context);
 		mMode = mode;
@@ -178,6 +180,9 @@ public abstract class LoadingLayout extends FrameLayout implements ILoadingLayou
 		setLoadingDrawable(imageDrawable);
 
 		reset();
+
+		// Only changes made after construction count as customising
+		mRecyclable = true;
 	}
 
 	public final void setHeight(int height) {
@@ -217,6 +222,21 @@ public abstract class LoadingLayout extends FrameLayout implements ILoadingLayou
 		}
 	}
 
+	/**
+	 * @return false if this layout has been customised, e.g. its labels
+	 *         changed, and so can't be handed over to another widget.
+	 */
+	public final boolean isRecyclable() {
+		return mRecyclable;
+	}
+
+	/**
+	 * Marks this layout as customised (or not), see {@link #isRecyclable()}.
+	 */
+	public final void setRecyclable(boolean recyclable) {
+		mRecyclable = recyclable;
+	}
+
 	public final void onPull(float scaleOfLayout) {
 		if (!mUseIntrinsicAnimation) {
 			onPullImpl(scaleOfLayout);
@@ -282,10 +302,13 @@ public abstract class LoadingLayout extends FrameLayout implements ILoadingLayou
 
 	@Override
 	public void setLastUpdatedLabel(CharSequence label) {
+		mRecyclable = false;
 		setSubHeaderText(label);
 	}
 
 	public final void setLoadingDrawable(Drawable imageDrawable) {
+		mRecyclable = false;
+
 		// Set Drawable
 		mHeaderImage.setImageDrawable(imageDrawable);
 		mUseIntrinsicAnimation = (imageDrawable instanceof AnimationDrawable);
@@ -295,19 +318,23 @@ public abstract class LoadingLayout extends FrameLayout implements ILoadingLayou
 	}
 
 	public void setPullLabel(CharSequence pullLabel) {
+		mRecyclable = false;
 		mPullLabel = pullLabel;
 	}
 
 	public void setRefreshingLabel(CharSequence refreshingLabel) {
+		mRecyclable = false;
 		mRefreshingLabel = refreshingLabel;
 	}
 
 	public void setReleaseLabel(CharSequence releaseLabel) {
+		mRecyclable = false;
 		mReleaseLabel = releaseLabel;
 	}
 
 	@Override
 	public void setTextTypeface(Typeface tf) {
+		mRecyclable = false;
 		mHeaderText.setTypeface(tf);
 	}
 
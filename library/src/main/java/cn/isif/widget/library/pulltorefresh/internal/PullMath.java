@@ -0,0 +1,115 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+/**
+ * The arithmetic behind pulling and overscrolling, used by
+ * {@link cn.isif.widget.library.pulltorefresh.PullToRefreshBase} and
+ * {@link cn.isif.widget.library.pulltorefresh.OverscrollHelper}. It doesn't
+ * touch any Android classes, so that it can be benchmarked on the JVM.
+ */
+public final class PullMath {
+
+	/**
+	 * Results of {@link #overScrollDirection(int, int, int)}.
+	 */
+	public static final int OVERSCROLL_NONE = 0;
+	public static final int OVERSCROLL_START = 1;
+	public static final int OVERSCROLL_END = 2;
+	public static final int OVERSCROLL_FINISHED = 3;
+
+	private PullMath() {
+	}
+
+	/**
+	 * Calculates the header scroll for a pull.
+	 *
+	 * @param initialMotionValue - Position of the pointer when the pull started
+	 * @param lastMotionValue - Current position of the pointer
+	 * @param fromEnd - true if pulling from the end, false from the start
+	 * @param friction - How much the pull is slowed down by
+	 * @return The header scroll value, negative when pulling from the start,
+	 *         positive when pulling from the end.
+	 */
+	public static int pullScrollValue(float initialMotionValue, float lastMotionValue, boolean fromEnd,
+			float friction) {
+		if (fromEnd) {
+			return Math.round(Math.max(initialMotionValue - lastMotionValue, 0) / friction);
+		} else {
+			return Math.round(Math.min(initialMotionValue - lastMotionValue, 0) / friction);
+		}
+	}
+
+	/**
+	 * @return How far through the Loading View the pull is, 1 being the whole
+	 *         of it.
+	 */
+	public static float pullScale(int scrollValue, int itemDimension) {
+		return Math.abs(scrollValue) / (float) itemDimension;
+	}
+
+	/**
+	 * @return true if the pull has gone past the Loading View, so releasing it
+	 *         would refresh.
+	 */
+	public static boolean isPastRefreshThreshold(int scrollValue, int itemDimension) {
+		return itemDimension < Math.abs(scrollValue);
+	}
+
+	/**
+	 * Works out which way a View is overscrolling, from the values passed to
+	 * its overScrollBy call.
+	 *
+	 * @param newScrollValue - Scroll value after the delta has been applied
+	 * @param scrollRange - Scroll Range of the View
+	 * @param fuzzyThreshold - How many pixels from the edge still count as at
+	 *            the edge
+	 * @return One of {@link #OVERSCROLL_START}, {@link #OVERSCROLL_END},
+	 *         {@link #OVERSCROLL_FINISHED} if the View is back at an edge, or
+	 *         {@link #OVERSCROLL_NONE}.
+	 */
+	public static int overScrollDirection(int newScrollValue, int scrollRange, int fuzzyThreshold) {
+		if (newScrollValue < (0 - fuzzyThreshold)) {
+			return OVERSCROLL_START;
+		} else if (newScrollValue > (scrollRange + fuzzyThreshold)) {
+			return OVERSCROLL_END;
+		} else if (Math.abs(newScrollValue) <= fuzzyThreshold
+				|| Math.abs(newScrollValue - scrollRange) <= fuzzyThreshold) {
+			return OVERSCROLL_FINISHED;
+		}
+		return OVERSCROLL_NONE;
+	}
+
+	/**
+	 * @param direction - {@link #OVERSCROLL_START} or {@link #OVERSCROLL_END}
+	 * @return The header scroll value to show an overscroll of the View.
+	 */
+	public static int overScrollHeaderValue(int direction, int currentScrollValue, int newScrollValue,
+			int scrollRange, float scaleFactor) {
+		if (direction == OVERSCROLL_END) {
+			return (int) (scaleFactor * (currentScrollValue + newScrollValue - scrollRange));
+		}
+		return (int) (scaleFactor * (currentScrollValue + newScrollValue));
+	}
+
+	/**
+	 * Works out how far down a list a fling will get, from how far it will
+	 * travel and the rows on screen.
+	 *
+	 * @param lastVisibleItem - Position after the last row on screen
+	 * @param flingDistance - Distance the fling will travel towards the end
+	 * @param lastRowOverhang - How much of the last row on screen is off the
+	 *            end of the list
+	 * @param rowHeight - Average height of the rows on screen
+	 * @return The position after the last row on screen once the fling ends,
+	 *         or <var>lastVisibleItem</var> if it doesn't head for the end.
+	 */
+	public static long projectLastVisibleItem(int lastVisibleItem, int flingDistance, int lastRowOverhang,
+			int rowHeight) {
+		if (flingDistance <= lastRowOverhang || rowHeight <= 0) {
+			return lastVisibleItem;
+		}
+		// a row counts as soon as any of it scrolls on screen
+		final long rows = ((long) flingDistance - lastRowOverhang + rowHeight - 1) / rowHeight;
+		return lastVisibleItem + rows;
+	}
+
+}
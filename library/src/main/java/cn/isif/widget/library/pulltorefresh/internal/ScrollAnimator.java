@@ -0,0 +1,272 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import android.annotation.TargetApi;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * Animates a single int value (usually a scroll offset or a height) in step
+ * with the display's frames. One instance is created per View and re-used for
+ * every animation, so starting a new animation never allocates.
+ * <p/>
+ * On JELLY_BEAN and above frames are driven by {@link Choreographer} and the
+ * value is computed from the vsync timestamp of each frame, rather than from
+ * the wall clock at the time the callback happens to run. On older platforms
+ * it falls back to posting on the View every 16ms. A start delay is waited
+ * out with a single delayed frame.
+ * <p/>
+ * Cancelling only marks the animator as idle. Any frame which is already
+ * scheduled sees this and does nothing, so there is no need to remove
+ * callbacks from the View or Choreographer.
+ */
+public final class ScrollAnimator {
+
+	static final long FALLBACK_FRAME_DELAY_MS = 16;
+
+	static final long NANOS_PER_MS = 1000000L;
+
+	static final Interpolator DEFAULT_INTERPOLATOR = new DecelerateInterpolator();
+
+	static final float NANOS_PER_SECOND = 1000000000f;
+
+	/**
+	 * Receives the animated values.
+	 */
+	public static interface Callback {
+
+		/**
+		 * Called once per frame with the new value.
+		 */
+		public void onAnimationUpdate(int value);
+
+		/**
+		 * Called when the animation reaches its end value. Not called if the
+		 * animation is cancelled or replaced by a new one.
+		 */
+		public void onAnimationFinished();
+
+	}
+
+	private final View mView;
+	private final Callback mCallback;
+	private final FrameDriver mDriver;
+
+	private Interpolator mInterpolator = DEFAULT_INTERPOLATOR;
+	private SpringIntegrator mSpring;
+	private boolean mUseSpring = false;
+
+	private boolean mRunning = false;
+	private boolean mFrameScheduled = false;
+	private boolean mFrameDelayed = false;
+	// Changes with every start and cancel, so a frame can tell whether the
+	// callback replaced its animation
+	private int mGeneration = 0;
+
+	private int mFrom;
+	private int mTo;
+	private int mCurrent;
+	private long mDurationNanos;
+	private long mStartTimeNanos;
+
+	public ScrollAnimator(View view, Callback callback) {
+		mView = view;
+		mCallback = callback;
+
+		if (VERSION.SDK_INT >= VERSION_CODES.JELLY_BEAN) {
+			mDriver = new SDK16FrameDriver();
+		} else {
+			mDriver = new PostDelayedFrameDriver();
+		}
+	}
+
+	/**
+	 * For tests, which run the frames themselves.
+	 */
+	ScrollAnimator(Callback callback, FrameDriver driver) {
+		mView = null;
+		mCallback = callback;
+		mDriver = driver;
+	}
+
+	/**
+	 * Sets the Interpolator used by subsequent animations. Passing null
+	 * restores the default, a DecelerateInterpolator.
+	 */
+	public void setInterpolator(Interpolator interpolator) {
+		mInterpolator = null != interpolator ? interpolator : DEFAULT_INTERPOLATOR;
+	}
+
+	public void start(int from, int to, long durationMillis) {
+		start(from, to, durationMillis, 0);
+	}
+
+	/**
+	 * Starts animating from <var>from</var> to <var>to</var>, replacing any
+	 * animation which is currently running.
+	 *
+	 * @param from - Start value
+	 * @param to - End value
+	 * @param durationMillis - Duration of animation in milliseconds
+	 * @param delayMillis - Delay before the first value is changed
+	 */
+	public void start(int from, int to, long durationMillis, long delayMillis) {
+		mUseSpring = false;
+		mDurationNanos = Math.max(durationMillis, 1) * NANOS_PER_MS;
+		startInternal(from, to, delayMillis);
+	}
+
+	/**
+	 * Starts a spring animation from <var>from</var> to <var>to</var>,
+	 * replacing any animation which is currently running. Instead of a fixed
+	 * duration, the time taken depends on the distance and on the initial
+	 * velocity: a fling towards <var>to</var> settles sooner. The value never
+	 * passes <var>to</var>.
+	 *
+	 * @param from - Start value
+	 * @param to - End value
+	 * @param velocity - Initial velocity in units per second
+	 */
+	public void startSpring(int from, int to, float velocity) {
+		if (null == mSpring) {
+			mSpring = new SpringIntegrator();
+		}
+		mUseSpring = true;
+		mSpring.start(from, to, velocity);
+		startInternal(from, to, 0);
+	}
+
+	private void startInternal(int from, int to, long delayMillis) {
+		mFrom = from;
+		mTo = to;
+		mCurrent = from;
+
+		// The clock starts on the first frame we're given, which is posted
+		// once the delay is over
+		mStartTimeNanos = -1;
+		mRunning = true;
+		mGeneration++;
+
+		scheduleFrame(Math.max(delayMillis, 0));
+	}
+
+	/**
+	 * Stops the current animation, if any, leaving the value where it is.
+	 */
+	public void cancel() {
+		mRunning = false;
+		mGeneration++;
+	}
+
+	public boolean isRunning() {
+		return mRunning;
+	}
+
+	public int getCurrentValue() {
+		return mCurrent;
+	}
+
+	public int getFinalValue() {
+		return mTo;
+	}
+
+	void doFrame(long frameTimeNanos) {
+		mFrameScheduled = false;
+		mFrameDelayed = false;
+
+		if (!mRunning) {
+			return;
+		}
+
+		if (mStartTimeNanos == -1) {
+			mStartTimeNanos = frameTimeNanos;
+		}
+
+		final boolean finished;
+		if (mUseSpring) {
+			finished = mSpring.update((frameTimeNanos - mStartTimeNanos) / NANOS_PER_SECOND);
+			mCurrent = Math.round(mSpring.getValue());
+		} else {
+			final float normalizedTime = Math.min(1f, (frameTimeNanos - mStartTimeNanos) / (float) mDurationNanos);
+			mCurrent = mFrom + Math.round((mTo - mFrom) * mInterpolator.getInterpolation(normalizedTime));
+			finished = normalizedTime >= 1f || mCurrent == mTo;
+		}
+		final int generation = mGeneration;
+		mCallback.onAnimationUpdate(mCurrent);
+
+		// The callback may have cancelled or restarted us, in which case
+		// this frame's animation is over, but not finished
+		if (!mRunning || generation != mGeneration) {
+			return;
+		}
+
+		if (!finished) {
+			scheduleFrame(0);
+		} else {
+			mRunning = false;
+			mCallback.onAnimationFinished();
+		}
+	}
+
+	private void scheduleFrame(long delayMillis) {
+		// Only ever have one frame outstanding, a cancelled or restarted
+		// animation just picks up the frame which is already scheduled,
+		// unless that frame or this one is held back by a delay
+		if (mFrameScheduled) {
+			if (!mFrameDelayed && delayMillis == 0) {
+				return;
+			}
+			mDriver.removeFrame();
+		}
+		mFrameScheduled = true;
+		mFrameDelayed = delayMillis > 0;
+		mDriver.postFrame(delayMillis);
+	}
+
+	static interface FrameDriver {
+		void postFrame(long delayMillis);
+
+		void removeFrame();
+	}
+
+	@TargetApi(16)
+	final class SDK16FrameDriver implements FrameDriver, Choreographer.FrameCallback {
+
+		@Override
+		public void postFrame(long delayMillis) {
+			Choreographer.getInstance().postFrameCallbackDelayed(this, delayMillis);
+		}
+
+		@Override
+		public void removeFrame() {
+			Choreographer.getInstance().removeFrameCallback(this);
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			ScrollAnimator.this.doFrame(frameTimeNanos);
+		}
+	}
+
+	final class PostDelayedFrameDriver implements FrameDriver, Runnable {
+
+		@Override
+		public void postFrame(long delayMillis) {
+			mView.postDelayed(this, Math.max(delayMillis, FALLBACK_FRAME_DELAY_MS));
+		}
+
+		@Override
+		public void removeFrame() {
+			mView.removeCallbacks(this);
+		}
+
+		@Override
+		public void run() {
+			ScrollAnimator.this.doFrame(System.nanoTime());
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+/**
+ * A critically damped spring which pulls a value towards a target, used for
+ * velocity-aware snap-back of the header and footer.
+ * <p/>
+ * The spring is solved analytically from the time since it was started, so
+ * the result only depends on the elapsed time and not on how many frames were
+ * rendered in between. A critically damped spring is the fastest one which
+ * does not oscillate, and the value is additionally clamped so that it never
+ * moves past the target, or further away than where it started.
+ */
+public final class SpringIntegrator {
+
+	/**
+	 * Default stiffness, the same as the 'medium' stiffness used by the
+	 * support library's spring animations.
+	 */
+	public static final float DEFAULT_STIFFNESS = 1500f;
+
+	/**
+	 * Within this many pixels of the target, and moving slower than
+	 * {@link #REST_VELOCITY_THRESHOLD}, the spring is considered at rest.
+	 */
+	static final float REST_VALUE_THRESHOLD = 0.5f;
+	static final float REST_VELOCITY_THRESHOLD = 50f;
+
+	private final float mNaturalFrequency;
+
+	private float mTarget;
+	private float mStartDisplacement;
+	private float mStartVelocity;
+
+	private float mValue;
+	private float mVelocity;
+	private boolean mAtRest = true;
+
+	public SpringIntegrator() {
+		this(DEFAULT_STIFFNESS);
+	}
+
+	/**
+	 * @param stiffness - Stiffness of the spring, for a unit mass. Must be
+	 *            greater than 0.
+	 */
+	public SpringIntegrator(float stiffness) {
+		if (stiffness <= 0f) {
+			throw new IllegalArgumentException("Spring stiffness must be greater than 0");
+		}
+		mNaturalFrequency = (float) Math.sqrt(stiffness);
+	}
+
+	/**
+	 * Starts the spring.
+	 *
+	 * @param from - Start value
+	 * @param to - Value the spring settles at
+	 * @param velocity - Initial velocity in units per second. Velocity which
+	 *            points away from the target is ignored, so that the value
+	 *            never leaves the range between <var>from</var> and
+	 *            <var>to</var>.
+	 */
+	public void start(float from, float to, float velocity) {
+		mTarget = to;
+		mStartDisplacement = from - to;
+
+		// Only keep velocity which is heading towards the target
+		mStartVelocity = (velocity * mStartDisplacement < 0f) ? velocity : 0f;
+
+		mValue = from;
+		mVelocity = mStartVelocity;
+		mAtRest = mStartDisplacement == 0f;
+		if (mAtRest) {
+			mVelocity = 0f;
+		}
+	}
+
+	/**
+	 * Moves the spring to where it is <var>elapsedSeconds</var> after
+	 * {@link #start(float, float, float)} was called.
+	 *
+	 * @return true if the spring is now at rest.
+	 */
+	public boolean update(float elapsedSeconds) {
+		if (mAtRest) {
+			return true;
+		}
+
+		final float w = mNaturalFrequency;
+		final float x0 = mStartDisplacement;
+		final float t = Math.max(elapsedSeconds, 0f);
+
+		// x(t) = (x0 + (v0 + w * x0) * t) * e^(-w * t)
+		final float b = mStartVelocity + w * x0;
+		final float decay = (float) Math.exp(-w * t);
+		float displacement = (x0 + b * t) * decay;
+		float velocity = (mStartVelocity - w * b * t) * decay;
+
+		if (displacement * x0 <= 0f) {
+			// We've reached (or would cross) the target, stop right there
+			displacement = 0f;
+			velocity = 0f;
+		} else if (Math.abs(displacement) > Math.abs(x0)) {
+			displacement = x0;
+		}
+
+		mValue = mTarget + displacement;
+		mVelocity = velocity;
+
+		if (Math.abs(displacement) < REST_VALUE_THRESHOLD && Math.abs(velocity) < REST_VELOCITY_THRESHOLD) {
+			mValue = mTarget;
+			mVelocity = 0f;
+			mAtRest = true;
+		}
+
+		return mAtRest;
+	}
+
+	public float getValue() {
+		return mValue;
+	}
+
+	public float getVelocity() {
+		return mVelocity;
+	}
+
+	public float getTarget() {
+		return mTarget;
+	}
+
+	public boolean isAtRest() {
+		return mAtRest;
+	}
+
+}
@@ -1,6 +1,7 @@
 package cn.isif.widget.library.pulltorefresh.internal;
 
 import android.util.Log;
+import android.view.MotionEvent;
 
 public class Utils {
 
@@ -10,4 +11,39 @@ public class Utils {
 		Log.w(LOG_TAG, "You're using the deprecated " + depreacted + " attr, please switch over to " + replacement);
 	}
 
+	/**
+	 * Feeds <var>event</var> to <var>tracker</var>, handing the drag over when
+	 * fingers are added or lifted.
+	 *
+	 * @return false for a move which doesn't include the active pointer.
+	 */
+	public static boolean trackPointers(DragTracker tracker, MotionEvent event) {
+		switch (event.getActionMasked()) {
+			case MotionEvent.ACTION_DOWN:
+				tracker.onDown(event.getPointerId(0), event.getX(), event.getY());
+				break;
+			case MotionEvent.ACTION_POINTER_DOWN: {
+				final int index = event.getActionIndex();
+				tracker.onPointerDown(event.getPointerId(index), event.getX(index), event.getY(index));
+				break;
+			}
+			case MotionEvent.ACTION_POINTER_UP: {
+				final int index = event.getActionIndex();
+				final int newIndex = index == 0 ? 1 : 0;
+				tracker.onPointerUp(event.getPointerId(index), event.getPointerId(newIndex), event.getX(newIndex),
+						event.getY(newIndex));
+				break;
+			}
+			case MotionEvent.ACTION_MOVE: {
+				final int index = event.findPointerIndex(tracker.getActivePointerId());
+				if (index < 0) {
+					return false;
+				}
+				tracker.onMove(event.getX(index), event.getY(index));
+				break;
+			}
+		}
+		return true;
+	}
+
 }
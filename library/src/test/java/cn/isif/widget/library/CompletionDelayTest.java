@@ -0,0 +1,82 @@
+package cn.isif.widget.library;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the delays of {@link ListViewPlus#setAutoRefreshing()} and
+ * {@link ListViewPlus#headerFinished(int)} are configurable, coalesced and
+ * never hide the header of a newer refresh.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CompletionDelayTest {
+
+    private ListViewPlus list;
+    private int triggered;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        list = new ListViewPlus(RuntimeEnvironment.application);
+        list.showHeader(true);
+        list.setCallback(new ListViewPlus.Callback() {
+            @Override
+            public void onHeaderTriggerd() {
+                triggered++;
+            }
+
+            @Override
+            public void onFooterTriggerd() {
+            }
+        });
+    }
+
+    @Test
+    public void repeatedAutoRefreshingTriggersOnce() throws Exception {
+        list.setAutoRefreshing();
+        list.setAutoRefreshing();
+        list.setAutoRefreshing();
+        ShadowLooper.idleMainLooper(300);
+
+        assertEquals(1, triggered);
+        assertTrue(list.header.isRefreshing());
+    }
+
+    @Test
+    public void zeroDelayRefreshesStraightAway() throws Exception {
+        list.setAutoRefreshDelay(0);
+        list.setAutoRefreshing();
+        assertEquals(1, triggered);
+
+        list.setHeaderFinishDelay(0);
+        list.headerFinished(ListViewPlusHeader.STATE_SUCCESS);
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void finishedHeaderIsNotHiddenUnderNewRefresh() throws Exception {
+        list.setAutoRefreshDelay(0);
+        list.setAutoRefreshing();
+        list.headerFinished(ListViewPlusHeader.STATE_SUCCESS);
+
+        // a new refresh starts before the old header is hidden
+        list.setAutoRefreshing();
+        final int height = list.header.getVisiableHeight();
+        ShadowLooper.idleMainLooper(300);
+
+        assertEquals(2, triggered);
+        assertTrue(list.header.isRefreshing());
+        assertEquals(height, list.header.getVisiableHeight());
+    }
+
+}
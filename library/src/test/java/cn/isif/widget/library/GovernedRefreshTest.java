@@ -0,0 +1,151 @@
+package cn.isif.widget.library;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.widget.FrameLayout;
+import android.widget.ScrollView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshScrollView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks widgets only hold a {@link RefreshGovernor} for refreshes the app
+ * is told about, and let go of it when they are detached.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GovernedRefreshTest {
+
+    private FrameLayout container;
+    private RefreshGovernor governor;
+    private int triggered;
+
+    @Before
+    public void setUp() throws Exception {
+        final Activity activity = Robolectric.setupActivity(Activity.class);
+        container = new FrameLayout(activity);
+        activity.setContentView(container);
+        governor = new RefreshGovernor();
+    }
+
+    @Test
+    public void autoRefreshWithoutCallbackIsNotCounted() throws Exception {
+        final ListViewPlus list = newList();
+        list.setAutoRefreshing();
+
+        assertTrue(list.header.isRefreshing());
+        assertFalse(governor.isRefreshing());
+    }
+
+    @Test
+    public void detachedListLetsGoOfGovernor() throws Exception {
+        final ListViewPlus list = newList();
+        list.setCallback(newCallback());
+        container.addView(list);
+        list.setAutoRefreshing();
+        assertTrue(governor.isRefreshing());
+
+        container.removeView(list);
+        assertFalse(governor.isRefreshing());
+
+        // finishing afterwards doesn't end anybody else's refresh
+        assertTrue(governor.requestRefresh());
+        list.headerFinished(ListViewPlusHeader.STATE_SUCCESS);
+        assertTrue(governor.isRefreshing());
+    }
+
+    @Test
+    public void pullDuringRefreshIsPartOfIt() throws Exception {
+        final ListViewPlus list = newList();
+        list.setCallback(newCallback());
+        container.addView(list);
+        pull(list);
+        assertEquals(1, triggered);
+        assertTrue(governor.isRefreshing());
+
+        pull(list);
+        assertEquals(1, triggered);
+        assertTrue(list.header.isRefreshing());
+
+        list.headerFinished(ListViewPlusHeader.STATE_SUCCESS);
+        assertFalse(governor.isRefreshing());
+    }
+
+    @Test
+    public void setRefreshingWithoutListenerIsNotCounted() throws Exception {
+        final PullToRefreshScrollView view = new PullToRefreshScrollView(container.getContext());
+        view.setRefreshGovernor(governor);
+        view.setRefreshing(false);
+
+        assertTrue(view.isRefreshing());
+        assertFalse(governor.isRefreshing());
+    }
+
+    @Test
+    public void detachedPullToRefreshLetsGoOfGovernor() throws Exception {
+        final PullToRefreshScrollView view = new PullToRefreshScrollView(container.getContext());
+        view.setRefreshGovernor(governor);
+        view.setOnRefreshListener(new PullToRefreshBase.OnRefreshListener<ScrollView>() {
+            @Override
+            public void onRefresh(PullToRefreshBase<ScrollView> refreshView) {
+            }
+        });
+        container.addView(view);
+        view.setRefreshing(false);
+        assertTrue(governor.isRefreshing());
+
+        container.removeView(view);
+        assertFalse(governor.isRefreshing());
+    }
+
+    private ListViewPlus.Callback newCallback() {
+        return new ListViewPlus.Callback() {
+            @Override
+            public void onHeaderTriggerd() {
+                triggered++;
+            }
+
+            @Override
+            public void onFooterTriggerd() {
+            }
+        };
+    }
+
+    /**
+     * Pulls the header well past its height and lets go.
+     */
+    private static void pull(ListViewPlus list) {
+        final long downTime = SystemClock.uptimeMillis();
+        touch(list, downTime, MotionEvent.ACTION_DOWN, 0);
+        touch(list, downTime, MotionEvent.ACTION_MOVE, 100);
+        touch(list, downTime, MotionEvent.ACTION_MOVE, 600);
+        touch(list, downTime, MotionEvent.ACTION_UP, 600);
+    }
+
+    private static void touch(ListViewPlus list, long downTime, int action, float y) {
+        final MotionEvent ev = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, 10, y, 0);
+        list.onTouchEvent(ev);
+        ev.recycle();
+    }
+
+    private ListViewPlus newList() {
+        final ListViewPlus list = new ListViewPlus(container.getContext());
+        list.showHeader(true);
+        list.setAutoRefreshDelay(0);
+        list.setRefreshGovernor(governor);
+        return list;
+    }
+
+}
@@ -0,0 +1,130 @@
+package cn.isif.widget.library;
+
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link ListViewPlus} keeps its state across a configuration change,
+ * and doesn't refresh content the app has restored.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class InstanceStateTest {
+
+    private int triggered;
+    private String restoredCursor;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @Test
+    public void listStateSurvivesRecreation() throws Exception {
+        ListViewPlus before = create(true);
+        before.showFooter(true);
+        before.setIsAutoLoadMore(false);
+        before.header.setLastUpdateTime(1234L);
+        before.footer.setState(ListViewPlusFooter.STATE_NO_MORE);
+
+        ListViewPlus after = create(true);
+        after.onRestoreInstanceState(before.onSaveInstanceState());
+
+        assertEquals(1234L, after.header.getLastUpdateTime());
+        assertEquals(ListViewPlusFooter.STATE_NO_MORE, after.footer.getState());
+        assertEquals("page-3", restoredCursor);
+    }
+
+    @Test
+    public void loadingFooterIsNotRestored() throws Exception {
+        ListViewPlus before = create(false);
+        before.showFooter(true);
+        before.footer.setState(ListViewPlusFooter.STATE_LOADING);
+
+        ListViewPlus after = create(false);
+        after.onRestoreInstanceState(before.onSaveInstanceState());
+
+        assertFalse(after.footer.isLoading());
+    }
+
+    @Test
+    public void restoredContentIsNotRefreshedAgain() throws Exception {
+        Parcelable state = create(true).onSaveInstanceState();
+
+        // the app asks for a refresh in onCreate, as it would the first time
+        ListViewPlus after = create(true);
+        after.setAutoRefreshing();
+        after.onRestoreInstanceState(state);
+        ShadowLooper.idleMainLooper(1000);
+
+        assertEquals(0, triggered);
+    }
+
+    @Test
+    public void restoredContentIsNotRefreshedWithoutDelay() throws Exception {
+        Parcelable state = create(true).onSaveInstanceState();
+
+        ListViewPlus after = create(true);
+        after.setAutoRefreshDelay(0);
+        after.setAutoRefreshing();
+        after.onRestoreInstanceState(state);
+        ShadowLooper.idleMainLooper(1000);
+
+        assertEquals(0, triggered);
+        assertFalse(after.header.isRefreshing());
+    }
+
+    @Test
+    public void contentIsRefreshedIfAppDidNotRestoreIt() throws Exception {
+        Parcelable state = create(false).onSaveInstanceState();
+
+        ListViewPlus after = create(false);
+        after.setAutoRefreshing();
+        after.onRestoreInstanceState(state);
+        ShadowLooper.idleMainLooper(1000);
+
+        assertEquals(1, triggered);
+        assertTrue(after.header.isRefreshing());
+    }
+
+    private ListViewPlus create(final boolean appRestores) {
+        ListViewPlus list = new ListViewPlus(RuntimeEnvironment.application);
+        list.showHeader(true);
+        list.setCallback(new ListViewPlus.Callback() {
+            @Override
+            public void onHeaderTriggerd() {
+                triggered++;
+            }
+
+            @Override
+            public void onFooterTriggerd() {
+            }
+        });
+        list.setStateCallback(new ListViewPlus.StateCallback() {
+            @Override
+            public void onSaveState(Bundle outState) {
+                outState.putString("cursor", "page-3");
+            }
+
+            @Override
+            public boolean onRestoreState(Bundle savedState) {
+                restoredCursor = savedState.getString("cursor");
+                return appRestores;
+            }
+        });
+        return list;
+    }
+
+}
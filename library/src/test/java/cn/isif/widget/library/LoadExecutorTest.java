@@ -0,0 +1,256 @@
+package cn.isif.widget.library;
+
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link LoadExecutor}'s loads on an Executor the test drains by hand,
+ * so loads can be superseded or cancelled while they are running.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LoadExecutorTest {
+
+    private final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    private ListViewPlus list;
+    private RecordingLoader loader;
+    private LoadExecutor<String> executor;
+    private int notifies;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        list = new ListViewPlus(RuntimeEnvironment.application);
+        list.showHeader(true);
+        list.showFooter(true);
+        list.setHeaderFinishDelay(0);
+
+        final BaseAdapter adapter = new BaseAdapter() {
+            @Override
+            public int getCount() {
+                return 0;
+            }
+
+            @Override
+            public Object getItem(int position) {
+                return null;
+            }
+
+            @Override
+            public long getItemId(int position) {
+                return position;
+            }
+
+            @Override
+            public View getView(int position, View convertView, ViewGroup parent) {
+                return null;
+            }
+        };
+        adapter.registerDataSetObserver(new DataSetObserver() {
+            @Override
+            public void onChanged() {
+                notifies++;
+            }
+        });
+        list.setAdapter(adapter);
+
+        loader = new RecordingLoader();
+        executor = new LoadExecutor<String>(list, loader, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+    }
+
+    @Test
+    public void refreshIsAppliedAndFinishesTheHeader() throws Exception {
+        startRefresh();
+        runTasks();
+
+        assertEquals("refresh 1", loader.refreshed);
+        assertEquals(1, notifies);
+        assertFalse(executor.isRefreshing());
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void supersededRefreshIsDropped() throws Exception {
+        startRefresh();
+        executor.refresh();
+        runTasks();
+
+        // both finish before the frame, only the newer one is applied
+        assertEquals("refresh 2", loader.refreshed);
+        assertEquals(1, loader.refreshes);
+        assertEquals(1, notifies);
+    }
+
+    @Test
+    public void refreshCancelsRunningLoadMore() throws Exception {
+        startLoadMore();
+        startRefresh();
+        assertEquals(ListViewPlusFooter.STATE_NORMAL, list.footer.getState());
+        assertFalse(executor.isLoadingMore());
+
+        runTasks();
+        assertEquals(0, loader.moreLoads);
+        assertEquals("refresh 1", loader.refreshed);
+        assertEquals(1, notifies);
+        assertEquals(ListViewPlusFooter.STATE_NORMAL, list.footer.getState());
+    }
+
+    @Test
+    public void loadMoreWhileRefreshingIsDropped() throws Exception {
+        startRefresh();
+        startLoadMore();
+
+        assertEquals(ListViewPlusFooter.STATE_NORMAL, list.footer.getState());
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void lastPageLeavesFooterWithNoMore() throws Exception {
+        loader.hasMore = false;
+        startLoadMore();
+        runTasks();
+
+        assertEquals(1, loader.moreLoads);
+        assertEquals(1, notifies);
+        assertEquals(ListViewPlusFooter.STATE_NO_MORE, list.footer.getState());
+    }
+
+    @Test
+    public void cancelAllDropsEverythingRunning() throws Exception {
+        startLoadMore();
+        executor.cancelAll();
+        startRefresh();
+        executor.cancelAll();
+
+        assertFalse(list.header.isRefreshing());
+        assertEquals(ListViewPlusFooter.STATE_NORMAL, list.footer.getState());
+
+        runTasks();
+        assertEquals(0, loader.refreshes);
+        assertEquals(0, loader.moreLoads);
+        assertEquals(0, loader.failures);
+        assertEquals(0, notifies);
+    }
+
+    @Test
+    public void failedRefreshIsReportedWithoutNotifying() throws Exception {
+        loader.error = new Exception("refresh");
+        startRefresh();
+        runTasks();
+
+        assertEquals(1, loader.failures);
+        assertTrue(loader.lastFailureWasRefresh);
+        assertEquals(0, loader.refreshes);
+        assertEquals(0, notifies);
+        assertFalse(executor.isRefreshing());
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void failedLoadMorePutsFooterBackToNormal() throws Exception {
+        loader.error = new Exception("more");
+        startLoadMore();
+        runTasks();
+
+        assertEquals(1, loader.failures);
+        assertFalse(loader.lastFailureWasRefresh);
+        assertEquals(0, notifies);
+        assertFalse(executor.isLoadingMore());
+        assertEquals(ListViewPlusFooter.STATE_NORMAL, list.footer.getState());
+    }
+
+    private void startRefresh() {
+        // as ListViewPlus does before calling onHeaderTriggerd
+        list.header.setState(ListViewPlusHeader.STATE_REFRESHING);
+        executor.onHeaderTriggerd();
+    }
+
+    private void startLoadMore() {
+        list.footer.setState(ListViewPlusFooter.STATE_LOADING);
+        executor.onFooterTriggerd();
+    }
+
+    /**
+     * Runs the loads, then lets the main thread deliver their results and
+     * the frame they are applied on.
+     */
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+        ShadowLooper.idleMainLooper(100);
+    }
+
+    static final class RecordingLoader implements LoadExecutor.Loader<String> {
+
+        Exception error;
+        boolean hasMore = true;
+
+        int refreshCalls;
+        int moreCalls;
+        int refreshes;
+        int moreLoads;
+        int failures;
+        boolean lastFailureWasRefresh;
+        String refreshed;
+
+        @Override
+        public String loadRefresh() throws Exception {
+            refreshCalls++;
+            if (null != error) {
+                throw error;
+            }
+            return "refresh " + refreshCalls;
+        }
+
+        @Override
+        public String loadMore() throws Exception {
+            moreCalls++;
+            if (null != error) {
+                throw error;
+            }
+            return "more " + moreCalls;
+        }
+
+        @Override
+        public void onRefreshed(String result) {
+            refreshes++;
+            refreshed = result;
+        }
+
+        @Override
+        public boolean onMoreLoaded(String result) {
+            moreLoads++;
+            return hasMore;
+        }
+
+        @Override
+        public void onLoadFailed(boolean isRefresh, Exception error) {
+            failures++;
+            lastFailureWasRefresh = isRefresh;
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package cn.isif.widget.library;
+
+import org.junit.Test;
+
+import cn.isif.widget.library.pulltorefresh.internal.PullMath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks flings are projected onto the rows of a list the way
+ * {@link ListViewPlus} uses them to load more before a fling ends.
+ */
+public class LoadMoreDetectorTest {
+
+    // 8 rows of 100px on screen, the last one 40px off the end
+    private static final int FIRST_VISIBLE = 10;
+    private static final int VISIBLE = 8;
+    private static final int ROW_HEIGHT = 100;
+    private static final int OVERHANG = 40;
+
+    @Test
+    public void flingShorterThanOverhangDoesNotMove() throws Exception {
+        assertEquals(18, PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 40, OVERHANG, ROW_HEIGHT));
+        assertEquals(18, PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 0, OVERHANG, ROW_HEIGHT));
+    }
+
+    @Test
+    public void rowCountsOnceAnyOfItIsShown() throws Exception {
+        assertEquals(19, PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 41, OVERHANG, ROW_HEIGHT));
+        assertEquals(19, PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 140, OVERHANG, ROW_HEIGHT));
+        assertEquals(20, PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 141, OVERHANG, ROW_HEIGHT));
+    }
+
+    @Test
+    public void longFlingDoesNotOverflow() throws Exception {
+        assertTrue(PullMath.projectLastVisibleItem(Integer.MAX_VALUE - 1, Integer.MAX_VALUE, 0, 1) > Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void flingReachingPrefetchDistanceLoadsMore() throws Exception {
+        final LoadMoreDetector detector = new LoadMoreDetector();
+        detector.setPrefetchDistance(5);
+        // 40 rows and the footer, the fling ends with row 35 on screen
+        final long projected = PullMath.projectLastVisibleItem(FIRST_VISIBLE + VISIBLE, 1740, OVERHANG, ROW_HEIGHT);
+        assertEquals(35, projected);
+        assertFalse(detector.onFling(projected, 41));
+        assertTrue(detector.onFling(projected + 1, 41));
+    }
+
+    @Test
+    public void consumedDetectorIgnoresFlingsUntilScrolledAway() throws Exception {
+        final LoadMoreDetector detector = new LoadMoreDetector();
+        assertTrue(detector.onFling(41, 41));
+        detector.consume();
+        assertFalse(detector.onFling(41, 41));
+
+        // the list scrolls on, the page hasn't arrived
+        assertFalse(detector.onScroll(40, 1, 41));
+        // the page arrived, and the list is away from the new end
+        assertFalse(detector.onScroll(30, 8, 61));
+        assertTrue(detector.onFling(61, 61));
+    }
+
+}
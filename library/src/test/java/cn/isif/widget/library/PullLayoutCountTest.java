@@ -0,0 +1,140 @@
+package cn.isif.widget.library;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.ArrayAdapter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts the list layouts the header and footer pulls of {@link ListViewPlus}
+ * cause. Each frame applies one step of a pull and then runs a layout pass if
+ * one was requested, the same as a real traversal would. The default
+ * LayoutParams based pull is compared with the layout-free modes.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PullLayoutCountTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+    private static final int FRAMES = 120;
+
+    @Test
+    public void headerPullLayoutCounts() throws Exception {
+        assertTrue(pullHeader(false) >= FRAMES);
+        assertEquals(0, pullHeader(true));
+    }
+
+    @Test
+    public void footerPullLayoutCounts() throws Exception {
+        assertTrue(pullFooter(false) >= FRAMES);
+        assertEquals(0, pullFooter(true));
+    }
+
+    @Test
+    public void revealHeaderKeepsVisibleHeight() throws Exception {
+        CountingListViewPlus list = createList();
+        list.setHeaderRevealEnabled(true);
+
+        list.header.setVisiableHeight(75);
+        assertEquals(75, list.header.getVisiableHeight());
+        assertEquals(75, list.header.getRevealOffset());
+
+        list.header.commitVisiableHeight();
+        runTraversal(list);
+        assertEquals(0, list.header.getRevealOffset());
+        assertEquals(75, list.header.getHeight());
+    }
+
+    @Test
+    public void stretchFooterKeepsBottomMargin() throws Exception {
+        CountingListViewPlus list = createList();
+        list.setFooterStretchEnabled(true);
+
+        list.footer.setBottomMargin(40);
+        assertEquals(40, list.footer.getBottomMargin());
+        assertEquals(40, list.footer.getStretchOffset());
+
+        list.setFooterStretchEnabled(false);
+        assertEquals(40, list.footer.getBottomMargin());
+        assertEquals(0, list.footer.getStretchOffset());
+    }
+
+    /**
+     * @return the number of list layouts the pull caused.
+     */
+    private int pullHeader(boolean reveal) {
+        CountingListViewPlus list = createList();
+        list.setHeaderRevealEnabled(reveal);
+        list.layouts = 0;
+
+        for (int i = 1; i <= FRAMES; i++) {
+            list.header.setVisiableHeight(i);
+            runTraversal(list);
+        }
+        return list.layouts;
+    }
+
+    /**
+     * @return the number of list layouts the pull caused.
+     */
+    private int pullFooter(boolean stretch) {
+        CountingListViewPlus list = createList();
+        list.setFooterStretchEnabled(stretch);
+        list.layouts = 0;
+
+        for (int i = 1; i <= FRAMES; i++) {
+            list.footer.setBottomMargin(i);
+            runTraversal(list);
+        }
+        return list.layouts;
+    }
+
+    private static CountingListViewPlus createList() {
+        CountingListViewPlus list = new CountingListViewPlus(RuntimeEnvironment.application);
+        String[] items = new String[50];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = "Item " + i;
+        }
+        list.setAdapter(new ArrayAdapter<String>(RuntimeEnvironment.application,
+                android.R.layout.simple_list_item_1, items));
+        list.showFooter(true);
+        runTraversal(list);
+        return list;
+    }
+
+    /**
+     * Stand-in for a frame's traversal: only measures and lays out if
+     * something asked for it.
+     */
+    private static void runTraversal(View view) {
+        if (view.isLayoutRequested()) {
+            view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, WIDTH, HEIGHT);
+        }
+    }
+
+    static final class CountingListViewPlus extends ListViewPlus {
+        int layouts;
+
+        CountingListViewPlus(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void layoutChildren() {
+            layouts++;
+            super.layoutChildren();
+        }
+    }
+
+}
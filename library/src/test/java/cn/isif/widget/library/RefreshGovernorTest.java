@@ -0,0 +1,113 @@
+package cn.isif.widget.library;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RefreshGovernorTest {
+
+    private long now;
+    private RefreshGovernor governor;
+    private final ArrayList<Integer> skipped = new ArrayList<Integer>();
+
+    @Before
+    public void setUp() throws Exception {
+        governor = new RefreshGovernor(500, 2000) {
+            @Override
+            long now() {
+                return now;
+            }
+        };
+        governor.setOnRefreshSkippedListener(new RefreshGovernor.OnRefreshSkippedListener() {
+            @Override
+            public void onRefreshSkipped(int reason) {
+                skipped.add(reason);
+            }
+        });
+    }
+
+    @Test
+    public void triggersDuringRefreshAreSkipped() throws Exception {
+        assertTrue(governor.requestRefresh());
+        now = 5000;
+        assertFalse(governor.requestRefresh());
+        assertTrue(governor.isRefreshing());
+        assertEquals(Arrays.asList(RefreshGovernor.SKIPPED_IN_FLIGHT), skipped);
+    }
+
+    @Test
+    public void triggersWithinWindowAreCoalesced() throws Exception {
+        assertTrue(governor.requestRefresh());
+        now = 100;
+        governor.onRefreshFinished();
+        now = 400;
+        assertFalse(governor.requestRefresh());
+        assertEquals(Arrays.asList(RefreshGovernor.SKIPPED_COALESCED), skipped);
+    }
+
+    @Test
+    public void triggersSoonAfterFinishingAreRateLimited() throws Exception {
+        assertTrue(governor.requestRefresh());
+        now = 1000;
+        governor.onRefreshFinished();
+
+        now = 2999;
+        assertFalse(governor.requestRefresh());
+        now = 3000;
+        assertTrue(governor.requestRefresh());
+        assertEquals(Arrays.asList(RefreshGovernor.SKIPPED_RATE_LIMITED), skipped);
+    }
+
+    @Test
+    public void resetLetsNextTriggerThrough() throws Exception {
+        assertTrue(governor.requestRefresh());
+        governor.onRefreshFinished();
+        governor.reset();
+        assertTrue(governor.requestRefresh());
+        assertTrue(skipped.isEmpty());
+    }
+
+    @Test
+    public void unfinishedRefreshIsGivenUpOnAfterTimeout() throws Exception {
+        governor.setInFlightTimeout(10000);
+        assertTrue(governor.requestRefresh());
+
+        now = 9999;
+        assertFalse(governor.requestRefresh());
+        now = 10000;
+        assertFalse(governor.isRefreshing());
+        // never finished, so not rate limited either
+        assertTrue(governor.requestRefresh());
+        assertEquals(Arrays.asList(RefreshGovernor.SKIPPED_IN_FLIGHT), skipped);
+    }
+
+    @Test
+    public void zeroTimeoutWaitsForFinish() throws Exception {
+        governor.setInFlightTimeout(0);
+        assertTrue(governor.requestRefresh());
+        now = RefreshGovernor.DEFAULT_IN_FLIGHT_TIMEOUT * 10;
+        assertTrue(governor.isRefreshing());
+        assertFalse(governor.requestRefresh());
+    }
+
+    @Test
+    public void defaultOnlySkipsDuringRefresh() throws Exception {
+        RefreshGovernor open = new RefreshGovernor() {
+            @Override
+            long now() {
+                return 0;
+            }
+        };
+        assertTrue(open.requestRefresh());
+        assertFalse(open.requestRefresh());
+        open.onRefreshFinished();
+        assertTrue(open.requestRefresh());
+    }
+
+}
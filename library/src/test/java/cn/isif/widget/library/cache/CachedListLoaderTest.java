@@ -0,0 +1,253 @@
+package cn.isif.widget.library.cache;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.ListViewPlus;
+import cn.isif.widget.library.ListViewPlusHeader;
+import cn.isif.widget.library.diff.DiffListAdapter;
+import cn.isif.widget.library.diff.MyersDiff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link CachedListLoader} with an Executor the test drains itself, so
+ * a pull can arrive while a fetch is running.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CachedListLoaderTest {
+
+    private static final String KEY = "feed/1";
+    private static final long MAX_AGE = 60 * 1000;
+
+    private static final MyersDiff.ItemCallback<String> BY_VALUE = new MyersDiff.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    };
+
+    private MapPageCache disk;
+    private LruPageCache<String, List<String>> cache;
+    private ListViewPlus list;
+    private DiffListAdapter<String> adapter;
+    private CachedListLoader<String, String> loader;
+
+    private List<String> page = Arrays.asList("c", "d");
+    private Exception error;
+    private int fetches;
+    private int failures;
+    private boolean lastFailureInBackground;
+
+    @Before
+    public void setUp() throws Exception {
+        disk = new MapPageCache();
+        cache = new LruPageCache<String, List<String>>(4, disk);
+
+        list = new ListViewPlus(RuntimeEnvironment.application);
+        list.showHeader(true);
+        list.setAutoRefreshDelay(0);
+        list.setHeaderFinishDelay(0);
+        adapter = new DiffListAdapter<String>(BY_VALUE, executor) {
+            @Override
+            protected View getItemView(int position, View convertView, ViewGroup parent) {
+                return new View(parent.getContext());
+            }
+        };
+        list.setAdapter(adapter);
+
+        loader = new CachedListLoader<String, String>(list, cache, KEY, new CachedListLoader.Fetcher<String>() {
+            @Override
+            public List<String> fetch() throws Exception {
+                fetches++;
+                if (null != error) {
+                    throw error;
+                }
+                return page;
+            }
+        }, adapter, executor);
+        loader.setMaxAge(MAX_AGE);
+        loader.setOnFetchFailedListener(new CachedListLoader.OnFetchFailedListener() {
+            @Override
+            public void onFetchFailed(boolean inBackground, Exception error) {
+                failures++;
+                lastFailureInBackground = inBackground;
+            }
+        });
+        list.setCallback(loader);
+    }
+
+    @Test
+    public void memoryHitIsShownBeforeStartReturns() throws Exception {
+        cache.put(KEY, fresh("a", "b"));
+        loader.start();
+
+        assertEquals(Arrays.asList("a", "b"), adapter.getItems());
+        assertTrue(tasks.isEmpty());
+        assertEquals(0, fetches);
+    }
+
+    @Test
+    public void diskHitIsReadInTheBackground() throws Exception {
+        disk.put(KEY, fresh("a", "b"));
+        loader.start();
+        assertTrue(adapter.getItems().isEmpty());
+
+        runTasks();
+        assertEquals(Arrays.asList("a", "b"), adapter.getItems());
+        assertEquals(0, fetches);
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void staleEntryIsFetchedAgainWithoutTheHeader() throws Exception {
+        disk.put(KEY, stale("a", "b"));
+        loader.start();
+        runTasks();
+
+        assertEquals(1, fetches);
+        assertEquals(page, adapter.getItems());
+        assertEquals(page, disk.get(KEY).value);
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void pullJoinsTheFetchWhichIsRunning() throws Exception {
+        cache.put(KEY, stale("a", "b"));
+        loader.start();
+        assertTrue(loader.isFetching());
+        assertEquals(1, tasks.size());
+
+        pull();
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(1, fetches);
+        assertEquals(page, adapter.getItems());
+        assertFalse(loader.isFetching());
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void backgroundFailureKeepsTheCachedPage() throws Exception {
+        error = new Exception("offline");
+        cache.put(KEY, stale("a", "b"));
+        loader.start();
+        runTasks();
+
+        assertEquals(1, failures);
+        assertTrue(lastFailureInBackground);
+        assertEquals(Arrays.asList("a", "b"), adapter.getItems());
+    }
+
+    @Test
+    public void failureWithTheHeaderShowingIsNotInTheBackground() throws Exception {
+        error = new Exception("offline");
+        // nothing cached, so the list refreshes with the header
+        loader.start();
+        runTasks();
+
+        assertEquals(1, fetches);
+        assertEquals(1, failures);
+        assertFalse(lastFailureInBackground);
+        assertFalse(list.header.isRefreshing());
+    }
+
+    @Test
+    public void nullPageIsAFailure() throws Exception {
+        page = null;
+        final PageCache.Entry<List<String>> cached = stale("a", "b");
+        cache.put(KEY, cached);
+        loader.start();
+        runTasks();
+
+        assertEquals(1, failures);
+        assertEquals(Arrays.asList("a", "b"), adapter.getItems());
+        // nothing was cached for it
+        assertSame(cached, disk.get(KEY));
+    }
+
+    private void pull() {
+        // as ListViewPlus does on releasing a pull
+        list.header.setState(ListViewPlusHeader.STATE_REFRESHING);
+        loader.onHeaderTriggerd();
+    }
+
+    /**
+     * Runs the background work, including anything it queues. Results are
+     * posted to the main thread, which Robolectric runs straight away.
+     */
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static PageCache.Entry<List<String>> fresh(String... items) {
+        return new PageCache.Entry<List<String>>(Arrays.asList(items));
+    }
+
+    private static PageCache.Entry<List<String>> stale(String... items) {
+        return new PageCache.Entry<List<String>>(Arrays.asList(items), System.currentTimeMillis() - 2 * MAX_AGE);
+    }
+
+    /**
+     * The disk tier, without the disk.
+     */
+    static final class MapPageCache implements PageCache<String, List<String>> {
+
+        private final HashMap<String, Entry<List<String>>> entries = new HashMap<String, Entry<List<String>>>();
+
+        @Override
+        public synchronized Entry<List<String>> get(String key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public synchronized void put(String key, Entry<List<String>> entry) {
+            entries.put(key, entry);
+        }
+
+        @Override
+        public synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+}
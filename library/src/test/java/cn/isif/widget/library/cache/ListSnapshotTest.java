@@ -0,0 +1,172 @@
+package cn.isif.widget.library.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ListSnapshotTest {
+
+    private static final class Row {
+        final long id;
+        final String title;
+
+        Row(long id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Row && ((Row) o).id == id
+                    && (title == null ? ((Row) o).title == null : title.equals(((Row) o).title));
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) id;
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + title;
+        }
+    }
+
+    private static class RowCodec implements ListSnapshot.RecordCodec<Row> {
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encode(Row item, ByteBuffer out) {
+            out.putLong(item.id);
+            ListSnapshot.putString(out, item.title);
+        }
+
+        @Override
+        public Row decode(ByteBuffer in) {
+            return new Row(in.getLong(), ListSnapshot.getString(in));
+        }
+    }
+
+    private static final RowCodec CODEC = new RowCodec();
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("snapshot", ".bin");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void rowsSurviveFile() throws Exception {
+        final List<Row> rows = rows(1000);
+        ListSnapshot.write(file, rows, CODEC);
+        assertEquals(rows, ListSnapshot.open(file, CODEC).readAll());
+    }
+
+    @Test
+    public void rowsSurviveBytes() throws Exception {
+        final List<Row> rows = Arrays.asList(new Row(1, "caf\u00e9"), new Row(2, null), new Row(3, ""));
+        final byte[] bytes = ListSnapshot.toBytes(rows, CODEC);
+        assertEquals(rows, ListSnapshot.read(ByteBuffer.wrap(bytes), CODEC).readAll());
+    }
+
+    @Test
+    public void recordLargerThanBuffersIsWritten() throws Exception {
+        final char[] title = new char[200 * 1024];
+        Arrays.fill(title, 'x');
+        final List<Row> rows = Arrays.asList(new Row(1, "a"), new Row(2, new String(title)), new Row(3, "c"));
+        ListSnapshot.write(file, rows, CODEC);
+        assertEquals(rows, ListSnapshot.open(file, CODEC).readAll());
+    }
+
+    @Test
+    public void firstScreenIsReadBeforeTheRest() throws Exception {
+        final List<Row> rows = rows(100);
+        ListSnapshot.write(file, rows, CODEC);
+
+        final ListSnapshot.Reader<Row> reader = ListSnapshot.open(file, CODEC);
+        assertEquals(100, reader.size());
+        final ArrayList<Row> read = new ArrayList<Row>();
+        assertEquals(12, reader.read(read, 12));
+        assertEquals(rows.subList(0, 12), read);
+        assertTrue(reader.hasNext());
+
+        assertEquals(88, reader.read(read, Integer.MAX_VALUE));
+        assertEquals(rows, read);
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void otherRecordVersionIsNotOpened() throws Exception {
+        ListSnapshot.write(file, rows(3), CODEC);
+        try {
+            ListSnapshot.open(file, new RowCodec() {
+                @Override
+                public int getVersion() {
+                    return 2;
+                }
+            });
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void snapshotCutShortIsFoundOut() throws Exception {
+        ListSnapshot.write(file, rows(10), CODEC);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 3);
+        raf.close();
+
+        final ListSnapshot.Reader<Row> reader = ListSnapshot.open(file, CODEC);
+        final ArrayList<Row> read = new ArrayList<Row>();
+        try {
+            reader.read(read, Integer.MAX_VALUE);
+            fail();
+        } catch (IOException expected) {
+        }
+        // the rows before the cut are still good
+        assertEquals(rows(9), read);
+    }
+
+    @Test
+    public void pagesCanBeCachedAsSnapshots() throws Exception {
+        final File directory = new File(file.getPath() + ".pages");
+        final MappedFilePageCache<String, List<Row>> cache =
+                new MappedFilePageCache<String, List<Row>>(directory, ListSnapshot.pageCodec(CODEC), 1 << 20);
+        cache.put("feed", new PageCache.Entry<List<Row>>(rows(5)));
+        assertEquals(rows(5), cache.get("feed").value);
+        cache.clear();
+        directory.delete();
+    }
+
+    private static List<Row> rows(int count) {
+        final ArrayList<Row> rows = new ArrayList<Row>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(i, "row " + i));
+        }
+        return rows;
+    }
+
+}
@@ -0,0 +1,134 @@
+package cn.isif.widget.library.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheTest {
+
+    /**
+     * Pages of ints, as a count followed by the values.
+     */
+    private static final MappedFilePageCache.Codec<List<Integer>> CODEC = new MappedFilePageCache.Codec<List<Integer>>() {
+        @Override
+        public byte[] encode(List<Integer> value) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(4 + 4 * value.size());
+            buffer.putInt(value.size());
+            for (int item : value) {
+                buffer.putInt(item);
+            }
+            return buffer.array();
+        }
+
+        @Override
+        public List<Integer> decode(ByteBuffer buffer) throws IOException {
+            final int size = buffer.getInt();
+            final ArrayList<Integer> value = new ArrayList<Integer>(size);
+            for (int i = 0; i < size; i++) {
+                value.add(buffer.getInt());
+            }
+            return value;
+        }
+    };
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("pages", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void pageSurvivesNewCache() throws Exception {
+        new MappedFilePageCache<String, List<Integer>>(directory, CODEC, 1 << 20)
+                .put("feed/1", new PageCache.Entry<List<Integer>>(Arrays.asList(1, 2, 3), 1234L));
+
+        final PageCache.Entry<List<Integer>> entry =
+                new MappedFilePageCache<String, List<Integer>>(directory, CODEC, 1 << 20).get("feed/1");
+        assertEquals(Arrays.asList(1, 2, 3), entry.value);
+        assertEquals(1234L, entry.savedAtMillis);
+    }
+
+    @Test
+    public void cutShortPageIsDropped() throws Exception {
+        final MappedFilePageCache<String, List<Integer>> cache =
+                new MappedFilePageCache<String, List<Integer>>(directory, CODEC, 1 << 20);
+        cache.put("feed/1", new PageCache.Entry<List<Integer>>(Arrays.asList(1, 2, 3)));
+
+        final File file = directory.listFiles()[0];
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(file.length() - 4);
+        raf.close();
+
+        assertNull(cache.get("feed/1"));
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void filesAreTrimmedToMaxBytes() throws Exception {
+        // each page is 16 bytes of header and 4 + 4 * 10 of payload
+        final MappedFilePageCache<Integer, List<Integer>> cache =
+                new MappedFilePageCache<Integer, List<Integer>>(directory, CODEC, 150);
+        final List<Integer> page = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, new PageCache.Entry<List<Integer>>(page));
+        }
+        assertTrue(cache.size() <= 150);
+        assertEquals(page, cache.get(4).value);
+    }
+
+    @Test
+    public void lruEvictsEldestAndReadsThrough() throws Exception {
+        final MappedFilePageCache<String, List<Integer>> disk =
+                new MappedFilePageCache<String, List<Integer>>(directory, CODEC, 1 << 20);
+        final LruPageCache<String, List<Integer>> cache = new LruPageCache<String, List<Integer>>(2, disk);
+
+        cache.put("a", new PageCache.Entry<List<Integer>>(Arrays.asList(1)));
+        cache.put("b", new PageCache.Entry<List<Integer>>(Arrays.asList(2)));
+        cache.get("a");
+        cache.put("c", new PageCache.Entry<List<Integer>>(Arrays.asList(3)));
+
+        // b was the least recently used
+        assertNull(cache.peek("b"));
+        assertEquals(Arrays.asList(2), cache.get("b").value);
+        assertEquals(Arrays.asList(2), cache.peek("b").value);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void staleness() throws Exception {
+        final PageCache.Entry<String> entry = new PageCache.Entry<String>("page", 1000L);
+        assertTrue(entry.isStale(2000L, 0));
+        assertTrue(!entry.isStale(1500L, 1000L));
+        assertTrue(entry.isStale(2000L, 1000L));
+        // saved in the future, the clock must have changed
+        assertTrue(entry.isStale(500L, 1000L));
+    }
+
+}
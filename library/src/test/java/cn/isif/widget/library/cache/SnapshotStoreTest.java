@@ -0,0 +1,144 @@
+package cn.isif.widget.library.cache;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.diff.DiffListAdapter;
+import cn.isif.widget.library.diff.MyersDiff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks a restore never puts the snapshot over fresher items.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SnapshotStoreTest {
+
+    private static final ListSnapshot.RecordCodec<String> CODEC = new ListSnapshot.RecordCodec<String>() {
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encode(String item, ByteBuffer out) {
+            ListSnapshot.putString(out, item);
+        }
+
+        @Override
+        public String decode(ByteBuffer in) {
+            return ListSnapshot.getString(in);
+        }
+    };
+
+    private static final MyersDiff.ItemCallback<String> BY_VALUE = new MyersDiff.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+    private final Executor executor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+    };
+
+    private File file;
+    private SnapshotStore<String> store;
+    private DiffListAdapter<String> adapter;
+    private int restored;
+
+    private final SnapshotStore.OnRestoredListener listener = new SnapshotStore.OnRestoredListener() {
+        @Override
+        public void onRestored(boolean restored) {
+            SnapshotStoreTest.this.restored++;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("snapshot", "");
+        store = new SnapshotStore<String>(file, CODEC, executor);
+        store.setFirstScreen(2);
+        adapter = new DiffListAdapter<String>(BY_VALUE, executor) {
+            @Override
+            protected View getItemView(int position, View convertView, ViewGroup parent) {
+                return new View(parent.getContext());
+            }
+        };
+        store.save(Arrays.asList("a", "b", "c", "d"));
+        runTasks();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void snapshotIsRestored() throws Exception {
+        // in two goes, the first screen setting items doesn't stop the rest
+        store.restore(adapter, listener);
+        runTasks();
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), adapter.getItems());
+        assertEquals(1, restored);
+    }
+
+    @Test
+    public void submittedItemsStopTheRestore() throws Exception {
+        store.restore(adapter, listener);
+        final List<String> fresh = Arrays.asList("x", "y");
+        adapter.submitList(fresh);
+        runTasks();
+
+        assertEquals(fresh, adapter.getItems());
+        assertEquals(0, restored);
+    }
+
+    @Test
+    public void cancelledRestoreLeavesAdapterAlone() throws Exception {
+        store.restore(adapter, listener);
+        store.cancelRestore();
+        runTasks();
+
+        assertTrue(adapter.getItems().isEmpty());
+        assertEquals(0, restored);
+    }
+
+    /**
+     * Runs the background work. Results are posted to the main thread, which
+     * Robolectric runs straight away.
+     */
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+}
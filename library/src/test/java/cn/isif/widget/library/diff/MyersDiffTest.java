@@ -0,0 +1,100 @@
+package cn.isif.widget.library.diff;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MyersDiffTest {
+
+    private static final MyersDiff.ItemCallback<String> BY_FIRST_CHAR = new MyersDiff.ItemCallback<String>() {
+        @Override
+        public boolean areItemsTheSame(String oldItem, String newItem) {
+            return oldItem.charAt(0) == newItem.charAt(0);
+        }
+
+        @Override
+        public boolean areContentsTheSame(String oldItem, String newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    @Test
+    public void sameListIsEmpty() throws Exception {
+        List<String> items = Arrays.asList("a", "b", "c");
+        assertTrue(MyersDiff.calculate(items, new ArrayList<String>(items), BY_FIRST_CHAR).isEmpty());
+    }
+
+    @Test
+    public void insertedAtTop() throws Exception {
+        MyersDiff.Result result = MyersDiff.calculate(Arrays.asList("a", "b", "c"),
+                Arrays.asList("x", "y", "a", "b", "c"), BY_FIRST_CHAR);
+
+        assertTrue(result.isInserted(0));
+        assertTrue(result.isInserted(1));
+        assertEquals(2, result.getNewPosition(0));
+        assertEquals(4, result.getNewPosition(2));
+        assertFalse(result.isEmpty());
+    }
+
+    @Test
+    public void removedAndChanged() throws Exception {
+        MyersDiff.Result result = MyersDiff.calculate(Arrays.asList("a", "b1", "c", "d"),
+                Arrays.asList("a", "b2", "d"), BY_FIRST_CHAR);
+
+        assertEquals(MyersDiff.Result.NO_POSITION, result.getNewPosition(2));
+        assertEquals(1, result.getOldPosition(1));
+        assertTrue(result.isChanged(1));
+        assertFalse(result.isChanged(0));
+        assertFalse(result.isChanged(2));
+    }
+
+    @Test
+    public void matchesLongestCommonSubsequence() throws Exception {
+        Random random = new Random(42);
+        for (int run = 0; run < 2000; run++) {
+            List<String> oldList = randomList(random, random.nextInt(25));
+            List<String> newList = randomList(random, random.nextInt(25));
+            MyersDiff.Result result = MyersDiff.calculate(oldList, newList, BY_FIRST_CHAR);
+
+            int matches = 0, lastNew = -1;
+            for (int oldPos = 0; oldPos < oldList.size(); oldPos++) {
+                int newPos = result.getNewPosition(oldPos);
+                if (newPos != MyersDiff.Result.NO_POSITION) {
+                    assertTrue(newPos > lastNew);
+                    assertEquals(oldList.get(oldPos), newList.get(newPos));
+                    assertEquals(oldPos, result.getOldPosition(newPos));
+                    lastNew = newPos;
+                    matches++;
+                }
+            }
+            assertEquals(oldList + " -> " + newList, lcs(oldList, newList), matches);
+        }
+    }
+
+    private static List<String> randomList(Random random, int size) {
+        List<String> list = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(String.valueOf((char) ('a' + random.nextInt(6))));
+        }
+        return list;
+    }
+
+    private static int lcs(List<String> a, List<String> b) {
+        int[][] lengths = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                lengths[i][j] = a.get(i).equals(b.get(j)) ? lengths[i + 1][j + 1] + 1
+                        : Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+        return lengths[0][0];
+    }
+
+}
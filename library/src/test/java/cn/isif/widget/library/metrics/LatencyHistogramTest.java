@@ -0,0 +1,83 @@
+package cn.isif.widget.library.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() throws Exception {
+        for (long value = 0; value < 256; value++) {
+            final int index = LatencyHistogram.countsIndex(value);
+            assertTrue(LatencyHistogram.lowestEquivalentValue(index) <= value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+        }
+        assertEquals(127, LatencyHistogram.lowestEquivalentValue(LatencyHistogram.countsIndex(127)));
+    }
+
+    @Test
+    public void bucketsCoverValuesWithinPrecision() throws Exception {
+        final Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            final long value = (long) (Math.pow(10, random.nextDouble() * 9));
+            final int index = LatencyHistogram.countsIndex(value);
+            final long lowest = LatencyHistogram.lowestEquivalentValue(index);
+            final long highest = LatencyHistogram.highestEquivalentValue(index);
+            assertTrue(value + " in [" + lowest + ", " + highest + "]", lowest <= value && value <= highest);
+            assertTrue((highest - lowest) <= value / 50);
+        }
+    }
+
+    @Test
+    public void percentiles() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram(1000000);
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertWithin(500, histogram.getP50());
+        assertWithin(900, histogram.getP90());
+        assertWithin(990, histogram.getP99());
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void valuesAboveRangeAreClamped() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram(1000);
+        histogram.record(5000);
+
+        assertEquals(5000, histogram.getMax());
+        assertWithin(1000, histogram.getP50());
+    }
+
+    @Test
+    public void addAndDump() throws Exception {
+        final LatencyHistogram a = new LatencyHistogram(1000);
+        final LatencyHistogram b = new LatencyHistogram(1000);
+        a.record(10);
+        b.record(20);
+        b.record(20);
+        a.add(b);
+
+        assertEquals(3, a.getTotalCount());
+        final StringBuilder out = new StringBuilder();
+        a.dump(out);
+        assertEquals("count=3 min=10 max=20 p50=20 p90=20 p99=20\n10\t1\n20\t2\n", out.toString());
+
+        a.reset();
+        assertEquals(0, a.getTotalCount());
+        assertEquals(0, a.getP99());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected " + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 50);
+    }
+
+}
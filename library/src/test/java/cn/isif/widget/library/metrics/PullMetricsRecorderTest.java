@@ -0,0 +1,131 @@
+package cn.isif.widget.library.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import cn.isif.widget.library.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link PullMetricsRecorder} follows the phases of a gesture, and
+ * keeps the latest gestures in its ring buffer.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PullMetricsRecorderTest {
+
+    private static final long FRAME = PullMetricsRecorder.DEFAULT_FRAME_INTERVAL_NANOS;
+
+    private PullMetricsRecorder mRecorder;
+    private int mReported;
+    private PullMetrics mLast;
+
+    @Before
+    public void setUp() throws Exception {
+        mRecorder = new PullMetricsRecorder(4);
+        mRecorder.setListener(new PullMetricsListener() {
+            @Override
+            public void onPullMetrics(PullMetrics metrics) {
+                mReported++;
+                mLast = metrics;
+            }
+        });
+    }
+
+    @Test
+    public void pullReleasedEarlyIsReportedOnceAtRest() throws Exception {
+        mRecorder.onPullStarted(PullMetrics.EDGE_START);
+        mRecorder.onReleased();
+        mRecorder.onSnapBackStarted();
+        mRecorder.onAtRest();
+        assertEquals(0, mReported);
+
+        mRecorder.onSnapBackFinished();
+        mRecorder.onAtRest();
+        assertEquals(1, mReported);
+        assertTrue(mLast.isDragged());
+        assertFalse(mLast.isRefreshed());
+        assertEquals(PullMetrics.NONE, mLast.getRefreshingNanos());
+        assertTrue(mLast.getSnapBackNanos() >= 0);
+    }
+
+    @Test
+    public void refreshIsTimedUntilComplete() throws Exception {
+        mRecorder.onPullStarted(PullMetrics.EDGE_END);
+        mRecorder.onReleased();
+        mRecorder.onRefreshing(PullMetrics.EDGE_END);
+        mRecorder.onAtRest();
+        assertEquals(0, mReported);
+
+        mRecorder.onRefreshComplete();
+        mRecorder.onAtRest();
+        assertEquals(1, mReported);
+        assertEquals(PullMetrics.EDGE_END, mLast.getEdge());
+        assertTrue(mLast.isRefreshed());
+        assertTrue(mLast.getReleaseToRefreshingNanos() >= 0);
+        assertTrue(mLast.getRefreshingNanos() >= 0);
+    }
+
+    @Test
+    public void refreshFromCodeIsNotDragged() throws Exception {
+        mRecorder.onRefreshing(PullMetrics.EDGE_START);
+        mRecorder.onRefreshComplete();
+        mRecorder.onAtRest();
+
+        assertEquals(1, mReported);
+        assertFalse(mLast.isDragged());
+        assertEquals(PullMetrics.NONE, mLast.getReleaseToRefreshingNanos());
+    }
+
+    @Test
+    public void framesLaterThanTheBudgetAreCounted() throws Exception {
+        mRecorder.onPullStarted(PullMetrics.EDGE_START);
+        mRecorder.onFrame(FRAME, 0);
+        mRecorder.onFrame(2 * FRAME, FRAME);
+        mRecorder.onFrame(4 * FRAME, 2 * FRAME);
+        mRecorder.onReleased();
+        mRecorder.onAtRest();
+
+        assertEquals(3, mLast.getFrameCount());
+        assertEquals(1, mLast.getFramesOverBudget());
+        assertEquals(3, mRecorder.getTotalFrames());
+        assertEquals(1, mRecorder.getTotalFramesOverBudget());
+    }
+
+    @Test
+    public void ringBufferKeepsLatestGestures() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            mRecorder.onPullStarted(i % 2 == 0 ? PullMetrics.EDGE_START : PullMetrics.EDGE_END);
+            mRecorder.onReleased();
+            mRecorder.onAtRest();
+        }
+
+        assertEquals(4, mRecorder.size());
+        assertEquals(6, mRecorder.getTotalGestures());
+        // Gestures 2 to 5 are left, the oldest first
+        assertEquals(PullMetrics.EDGE_START, mRecorder.get(0).getEdge());
+        assertEquals(PullMetrics.EDGE_END, mRecorder.get(1).getEdge());
+        assertSame(mLast, mRecorder.get(3));
+
+        mRecorder.clear();
+        assertEquals(0, mRecorder.size());
+    }
+
+    @Test
+    public void cancelledGestureIsNotReported() throws Exception {
+        mRecorder.onPullStarted(PullMetrics.EDGE_START);
+        mRecorder.cancel();
+        mRecorder.onReleased();
+        mRecorder.onAtRest();
+
+        assertEquals(0, mReported);
+    }
+
+}
@@ -0,0 +1,90 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.widget.ArrayAdapter;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.internal.LoadingLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks Loading Views are only created once the Mode needs them.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LazyLoadingLayoutTest {
+
+    @Before
+    public void setUp() throws Exception {
+        // Count inflations, not layouts taken from the pool
+        LoadingLayoutPool.setEnabled(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LoadingLayoutPool.setEnabled(true);
+    }
+
+    @Test
+    public void constructionOnlyCreatesLayoutsTheModeShows() throws Exception {
+        assertEquals(0, create(Mode.DISABLED).created);
+        assertEquals(1, create(Mode.PULL_FROM_START).created);
+        assertEquals(1, create(Mode.PULL_FROM_END).created);
+        assertEquals(1, create(Mode.MANUAL_REFRESH_ONLY).created);
+        assertEquals(2, create(Mode.BOTH).created);
+    }
+
+    @Test
+    public void setModeCreatesMissingLayouts() throws Exception {
+        final CountingListView widget = create(Mode.PULL_FROM_START);
+        widget.setMode(Mode.BOTH);
+
+        assertEquals(2, widget.created);
+        assertSame(widget, widget.getFooterLayout().getParent());
+    }
+
+    @Test
+    public void refreshingCreatesListViewLoadingView() throws Exception {
+        final CountingListView widget = create(Mode.PULL_FROM_START);
+        widget.setAdapter(new ArrayAdapter<String>(RuntimeEnvironment.application,
+                android.R.layout.simple_list_item_1, new String[] { "a", "b", "c" }));
+
+        widget.setRefreshing(false);
+
+        // The header, and the ListView's header but not its footer
+        assertEquals(2, widget.created);
+    }
+
+    private static CountingListView create(Mode mode) {
+        return new CountingListView(RuntimeEnvironment.application, mode);
+    }
+
+    static class CountingListView extends PullToRefreshListView {
+
+        // Set from the super constructor, so mustn't have an initializer
+        int created;
+
+        CountingListView(Context context, Mode mode) {
+            super(context, mode);
+        }
+
+        @Override
+        protected LoadingLayout createLoadingLayout(Context context, Mode mode, TypedArray attrs) {
+            created++;
+            return super.createLoadingLayout(context, mode, attrs);
+        }
+    }
+
+}
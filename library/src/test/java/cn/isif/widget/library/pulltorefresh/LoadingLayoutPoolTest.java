@@ -0,0 +1,134 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.app.Activity;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.internal.LoadingLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks widgets hand their LoadingLayouts over through
+ * {@link LoadingLayoutPool}.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class LoadingLayoutPoolTest {
+
+    private static final int WIDGETS = 50;
+
+    private Activity mActivity;
+    private FrameLayout mContainer;
+
+    @Before
+    public void setUp() throws Exception {
+        LoadingLayoutPool.setEnabled(true);
+        LoadingLayoutPool.clear();
+        mActivity = Robolectric.setupActivity(Activity.class);
+        mContainer = new FrameLayout(mActivity);
+        mActivity.setContentView(mContainer);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        LoadingLayoutPool.setEnabled(true);
+    }
+
+    @Test
+    public void widgetCreatedAfterDetachReusesLayouts() throws Exception {
+        final int created = LoadingLayoutPool.sCreateCount;
+        final PullToRefreshListView first = attachAndDetach(new PullToRefreshListView(mActivity, Mode.BOTH));
+        // Header and footer, the ListView extras aren't needed yet
+        assertEquals(2, LoadingLayoutPool.sCreateCount - created);
+
+        final int reused = LoadingLayoutPool.sReuseCount;
+        final PullToRefreshListView second = new PullToRefreshListView(mActivity, Mode.BOTH);
+        assertEquals(2, LoadingLayoutPool.sReuseCount - reused);
+        assertEquals(2, LoadingLayoutPool.sCreateCount - created);
+        assertSame(second, second.getHeaderLayout().getParent());
+        assertNotSame(first.getHeaderLayout(), second.getHeaderLayout());
+    }
+
+    @Test
+    public void reattachedWidgetKeepsLayoutsNobodyTook() throws Exception {
+        final PullToRefreshListView widget = new PullToRefreshListView(mActivity);
+        final LoadingLayout header = widget.getHeaderLayout();
+        attachAndDetach(widget);
+
+        mContainer.addView(widget);
+        assertSame(header, widget.getHeaderLayout());
+        assertSame(widget, header.getParent());
+    }
+
+    @Test
+    public void reattachedWidgetReplacesLayoutsWhichWereTaken() throws Exception {
+        final PullToRefreshListView first = attachAndDetach(new PullToRefreshListView(mActivity));
+        final PullToRefreshListView second = new PullToRefreshListView(mActivity);
+
+        mContainer.addView(first);
+        assertSame(first, first.getHeaderLayout().getParent());
+        assertSame(second, second.getHeaderLayout().getParent());
+        assertNotSame(first.getHeaderLayout(), second.getHeaderLayout());
+    }
+
+    @Test
+    public void customisedLayoutsAreNotLentOut() throws Exception {
+        final PullToRefreshListView widget = new PullToRefreshListView(mActivity, Mode.BOTH);
+        widget.getLoadingLayoutProxy(true, false).setLastUpdatedLabel("Yesterday");
+        attachAndDetach(widget);
+
+        final int reused = LoadingLayoutPool.sReuseCount;
+        new PullToRefreshListView(mActivity, Mode.BOTH);
+        // Only the footer wasn't customised
+        assertEquals(1, LoadingLayoutPool.sReuseCount - reused);
+    }
+
+    /**
+     * Creates widgets one after the other, as a ViewPager does with its tabs.
+     */
+    @Test
+    public void onlyTheFirstOfManyWidgetsInflates() throws Exception {
+        final int created = LoadingLayoutPool.sCreateCount;
+        // The pool only holds released layouts weakly, keep the widgets
+        final ArrayList<PullToRefreshListView> widgets = new ArrayList<PullToRefreshListView>();
+        for (int i = 0; i < WIDGETS; i++) {
+            widgets.add(attachAndDetach(new PullToRefreshListView(mActivity, Mode.BOTH)));
+        }
+        assertEquals(2, LoadingLayoutPool.sCreateCount - created);
+    }
+
+    @Test
+    public void disabledPoolIsNotUsed() throws Exception {
+        LoadingLayoutPool.setEnabled(false);
+        final int created = LoadingLayoutPool.sCreateCount;
+        final int reused = LoadingLayoutPool.sReuseCount;
+        final PullToRefreshListView first = attachAndDetach(new PullToRefreshListView(mActivity, Mode.BOTH));
+        final PullToRefreshListView second = new PullToRefreshListView(mActivity, Mode.BOTH);
+
+        assertEquals(0, LoadingLayoutPool.sCreateCount - created);
+        assertEquals(0, LoadingLayoutPool.sReuseCount - reused);
+        assertSame(first, first.getHeaderLayout().getParent());
+        assertNotSame(first.getHeaderLayout(), second.getHeaderLayout());
+    }
+
+    private PullToRefreshListView attachAndDetach(PullToRefreshListView widget) {
+        mContainer.addView(widget);
+        mContainer.removeView(widget);
+        return widget;
+    }
+
+}
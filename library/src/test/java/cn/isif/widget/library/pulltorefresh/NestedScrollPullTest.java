@@ -0,0 +1,108 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.ScrollView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.State;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives {@link PullToRefreshBase} as the nested scrolling parent of its
+ * Refreshable View, the way a Lollipop ScrollView or ListView does.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class NestedScrollPullTest {
+
+    private PullToRefreshScrollView mView;
+    private ScrollView mTarget;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = new PullToRefreshScrollView(RuntimeEnvironment.application);
+        mView.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mView.layout(0, 0, 480, 800);
+        mTarget = mView.getRefreshableView();
+    }
+
+    @Test
+    public void onlyVerticalScrollsAreAcceptedOnceEnabled() throws Exception {
+        assertFalse(mView.onStartNestedScroll(mTarget, mTarget, View.SCROLL_AXIS_VERTICAL));
+
+        mView.setNestedScrollingPullEnabled(true);
+        assertTrue(mTarget.isNestedScrollingEnabled());
+        assertTrue(mView.onStartNestedScroll(mTarget, mTarget, View.SCROLL_AXIS_VERTICAL));
+        assertFalse(mView.onStartNestedScroll(mTarget, mTarget, View.SCROLL_AXIS_HORIZONTAL));
+    }
+
+    @Test
+    public void scrollTheChildConsumesDoesNotPull() throws Exception {
+        start();
+        final int[] consumed = new int[2];
+        mView.onNestedPreScroll(mTarget, 0, -100, consumed);
+        mView.onNestedScroll(mTarget, 0, -100, 0, 0);
+
+        assertEquals(0, consumed[1]);
+        assertEquals(0, mView.getScrollY());
+        assertEquals(State.RESET, mView.getState());
+    }
+
+    @Test
+    public void unconsumedScrollPullsAndPushingBackComesFirst() throws Exception {
+        start();
+        mView.onNestedScroll(mTarget, 0, 0, 0, -100);
+        assertEquals(-50, mView.getScrollY());
+
+        final int[] consumed = new int[2];
+        mView.onNestedPreScroll(mTarget, 0, 40, consumed);
+        assertEquals(40, consumed[1]);
+        assertEquals(-30, mView.getScrollY());
+
+        // only what it takes to close the header, the child gets the rest
+        mView.onNestedPreScroll(mTarget, 0, 100, consumed);
+        assertEquals(60, consumed[1]);
+        assertEquals(0, mView.getScrollY());
+    }
+
+    @Test
+    public void releasingPastTheHeaderRefreshes() throws Exception {
+        mView.setOnRefreshListener(new PullToRefreshBase.OnRefreshListener<ScrollView>() {
+            @Override
+            public void onRefresh(PullToRefreshBase<ScrollView> refreshView) {
+            }
+        });
+        start();
+        mView.onNestedScroll(mTarget, 0, 0, 0, -1000);
+        assertEquals(State.RELEASE_TO_REFRESH, mView.getState());
+
+        // the child has the touch events, they aren't taken from it
+        final MotionEvent move = MotionEvent.obtain(0, 0, MotionEvent.ACTION_MOVE, 0, 500, 0);
+        assertFalse(mView.onInterceptTouchEvent(move));
+        move.recycle();
+
+        // the fling is the pull's, not the child's
+        assertTrue(mView.onNestedPreFling(mTarget, 0, -2000));
+        mView.onStopNestedScroll(mTarget);
+        assertEquals(State.REFRESHING, mView.getState());
+    }
+
+    private void start() {
+        mView.setNestedScrollingPullEnabled(true);
+        assertTrue(mView.onStartNestedScroll(mTarget, mTarget, View.SCROLL_AXIS_VERTICAL));
+        mView.onNestedScrollAccepted(mTarget, mTarget, View.SCROLL_AXIS_VERTICAL);
+    }
+
+}
@@ -0,0 +1,207 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.StaggeredGridLayoutManager;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import cn.isif.widget.library.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks when a {@link PullToRefreshRecyclerView} is ready to be pulled with
+ * each kind of layout manager, and that {@link LoadMoreRecyclerAdapter} asks
+ * for more once the end is bound.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PullToRefreshRecyclerViewTest {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    private PullToRefreshRecyclerView widget;
+    private RecyclerView recyclerView;
+    private int loads;
+
+    @Before
+    public void setUp() throws Exception {
+        ShadowLooper.pauseMainLooper();
+        widget = new PullToRefreshRecyclerView(RuntimeEnvironment.application);
+        recyclerView = widget.getRefreshableView();
+    }
+
+    @Test
+    public void linearListIsReadyAtEachEnd() throws Exception {
+        show(new LinearLayoutManager(RuntimeEnvironment.application), new RowAdapter(30, 100));
+        assertTrue(widget.isReadyForPullStart());
+        assertFalse(widget.isReadyForPullEnd());
+
+        scrollToEnd();
+        assertFalse(widget.isReadyForPullStart());
+        assertTrue(widget.isReadyForPullEnd());
+    }
+
+    @Test
+    public void reversedListStartsAtTheEnd() throws Exception {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(RuntimeEnvironment.application);
+        layoutManager.setReverseLayout(true);
+        show(layoutManager, new RowAdapter(30, 100));
+
+        // item 0 is at the bottom
+        assertFalse(widget.isReadyForPullStart());
+        assertTrue(widget.isReadyForPullEnd());
+    }
+
+    @Test
+    public void gridIsReadyAtEachEnd() throws Exception {
+        show(new GridLayoutManager(RuntimeEnvironment.application, 3), new RowAdapter(60, 100));
+        assertTrue(widget.isReadyForPullStart());
+        assertFalse(widget.isReadyForPullEnd());
+
+        scrollToEnd();
+        assertFalse(widget.isReadyForPullStart());
+        assertTrue(widget.isReadyForPullEnd());
+    }
+
+    @Test
+    public void staggeredGridWaitsForTheLongestColumn() throws Exception {
+        // a 1000px item in the first column, five 100px ones in the second,
+        // so the last item is on screen before the end
+        int[] heights = { 1000, 100, 100, 100, 100, 100 };
+        show(new StaggeredGridLayoutManager(2, StaggeredGridLayoutManager.VERTICAL), new RowAdapter(heights));
+        assertTrue(widget.isReadyForPullStart());
+        assertFalse(widget.isReadyForPullEnd());
+
+        scrollToEnd();
+        assertFalse(widget.isReadyForPullStart());
+        assertTrue(widget.isReadyForPullEnd());
+    }
+
+    @Test
+    public void emptyListCanBePulledBothWays() throws Exception {
+        show(new LinearLayoutManager(RuntimeEnvironment.application), new RowAdapter(0, 100));
+        assertTrue(widget.isReadyForPullStart());
+        assertTrue(widget.isReadyForPullEnd());
+    }
+
+    @Test
+    public void footerAsksForMoreOnceBound() throws Exception {
+        LoadMoreRecyclerAdapter<RecyclerView.ViewHolder> adapter = loadMoreAdapter(new RowAdapter(5, 100));
+        show(new LinearLayoutManager(RuntimeEnvironment.application), adapter);
+        ShadowLooper.idleMainLooper();
+
+        assertEquals(1, loads);
+        assertTrue(adapter.isLoading());
+        assertEquals(6, adapter.getItemCount());
+    }
+
+    @Test
+    public void failedLoadIsNotRetriedByBinding() throws Exception {
+        LoadMoreRecyclerAdapter<RecyclerView.ViewHolder> adapter = loadMoreAdapter(new RowAdapter(5, 100));
+        show(new LinearLayoutManager(RuntimeEnvironment.application), adapter);
+        ShadowLooper.idleMainLooper();
+
+        adapter.loadMoreFailed();
+        layout();
+        ShadowLooper.idleMainLooper();
+        assertEquals(1, loads);
+        assertFalse(adapter.isLoading());
+
+        adapter.reset();
+        layout();
+        ShadowLooper.idleMainLooper();
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void footerTakesAWholeGridRow() throws Exception {
+        GridLayoutManager layoutManager = new GridLayoutManager(RuntimeEnvironment.application, 3);
+        LoadMoreRecyclerAdapter<RecyclerView.ViewHolder> adapter = loadMoreAdapter(new RowAdapter(4, 100));
+        adapter.fitFooterToGrid(layoutManager);
+        show(layoutManager, adapter);
+
+        View footer = layoutManager.findViewByPosition(4);
+        assertEquals(WIDTH, footer.getWidth());
+        // below the second row
+        assertEquals(200, footer.getTop());
+    }
+
+    private LoadMoreRecyclerAdapter<RecyclerView.ViewHolder> loadMoreAdapter(RowAdapter rows) {
+        LoadMoreRecyclerAdapter<RecyclerView.ViewHolder> adapter = new LoadMoreRecyclerAdapter<RecyclerView.ViewHolder>(
+                rows);
+        adapter.setOnLoadMoreListener(new LoadMoreRecyclerAdapter.OnLoadMoreListener() {
+            @Override
+            public void onLoadMore() {
+                loads++;
+            }
+        });
+        return adapter;
+    }
+
+    private void show(RecyclerView.LayoutManager layoutManager, RecyclerView.Adapter<?> adapter) {
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.setAdapter(adapter);
+        layout();
+    }
+
+    private void layout() {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private void scrollToEnd() {
+        recyclerView.scrollBy(0, 100000);
+        layout();
+    }
+
+    /**
+     * Rows of fixed heights.
+     */
+    private static final class RowAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+        private final int[] heights;
+
+        RowAdapter(int count, int height) {
+            heights = new int[count];
+            for (int i = 0; i < count; i++) {
+                heights[i] = height;
+            }
+        }
+
+        RowAdapter(int[] heights) {
+            this.heights = heights;
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+            holder.itemView.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    heights[position]));
+        }
+
+        @Override
+        public int getItemCount() {
+            return heights.length;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package cn.isif.widget.library.pulltorefresh;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import cn.isif.widget.library.BuildConfig;
+import cn.isif.widget.library.pulltorefresh.PullToRefreshBase.Mode;
+import cn.isif.widget.library.pulltorefresh.internal.LoadingLayout;
+import cn.isif.widget.library.pulltorefresh.internal.RotateLoadingLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Drives {@link PullToRefreshBase#setHeaderScroll(int)} the way a long drag
+ * does and checks that the hot path does not allocate.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SetHeaderScrollAllocationTest {
+
+    private static final int FRAMES = 500;
+
+    // Well under a single object per frame, but enough to absorb whatever the
+    // JVM and Robolectric allocate around the measurement
+    private static final long TOLERANCE_BYTES = 1024;
+
+    private CountingScrollView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = new CountingScrollView(RuntimeEnvironment.application);
+        mView.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY));
+        mView.layout(0, 0, 480, 800);
+    }
+
+    @Test
+    public void dragDoesNotAllocate() throws Exception {
+        // Per-thread allocation counts are a HotSpot extension
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+
+        // Warm up so that any lazy framework state is created up front
+        drag();
+        mView.setHeaderScroll(0);
+
+        final long baseline = measure(false);
+        final long allocated = measure(true);
+
+        assertTrue("setHeaderScroll allocated " + (allocated - baseline) + " bytes over " + FRAMES + " frames",
+                allocated - baseline <= TOLERANCE_BYTES);
+    }
+
+    @Test
+    public void visibilityOnlyChangesOnTransitions() throws Exception {
+        final CountingLoadingLayout header = (CountingLoadingLayout) mView.getHeaderLayout();
+        header.visibilityCalls = 0;
+
+        mView.setHeaderScroll(-10);
+        assertEquals(View.VISIBLE, header.getVisibility());
+        assertEquals(1, header.visibilityCalls);
+
+        for (int i = 11; i < FRAMES; i++) {
+            mView.setHeaderScroll(-i);
+        }
+        assertEquals(1, header.visibilityCalls);
+
+        mView.setHeaderScroll(0);
+        assertEquals(View.INVISIBLE, header.getVisibility());
+        assertEquals(2, header.visibilityCalls);
+
+        mView.setHeaderScroll(0);
+        assertEquals(2, header.visibilityCalls);
+    }
+
+    private void drag() {
+        for (int i = 0; i < FRAMES; i++) {
+            mView.setHeaderScroll(-i);
+        }
+    }
+
+    /**
+     * Counts the calls to setVisibility(), whether or not they change it.
+     */
+    static class CountingLoadingLayout extends RotateLoadingLayout {
+
+        int visibilityCalls;
+
+        CountingLoadingLayout(Context context, Mode mode, PullToRefreshBase.Orientation scrollDirection,
+                TypedArray attrs) {
+            super(context, mode, scrollDirection, attrs);
+        }
+
+        @Override
+        public void setVisibility(int visibility) {
+            visibilityCalls++;
+            super.setVisibility(visibility);
+        }
+    }
+
+    static class CountingScrollView extends PullToRefreshScrollView {
+
+        CountingScrollView(Context context) {
+            super(context, Mode.BOTH);
+        }
+
+        @Override
+        protected LoadingLayout createLoadingLayout(Context context, Mode mode, TypedArray attrs) {
+            // Not from the pool, which only holds plain layouts
+            final LoadingLayout layout = new CountingLoadingLayout(context, mode, getPullToRefreshScrollDirection(),
+                    attrs);
+            layout.setVisibility(View.INVISIBLE);
+            return layout;
+        }
+    }
+
+    private long measure(boolean doDrag) {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long start = bean.getThreadAllocatedBytes(threadId);
+        if (doDrag) {
+            drag();
+        }
+        return bean.getThreadAllocatedBytes(threadId) - start;
+    }
+
+}
@@ -0,0 +1,235 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays recorded touch sequences through {@link DragTracker} the way
+ * {@link Utils#trackPointers} feeds it, and checks the resulting pull never
+ * jumps when fingers are added or lifted.
+ */
+public class DragTrackerTest {
+
+    private static final int DOWN = 0;
+    private static final int MOVE = 1;
+    private static final int POINTER_DOWN = 2;
+    private static final int POINTER_UP = 3;
+
+    private static final float FRICTION = 2.0f;
+    private static final int HEADER_SIZE = 150;
+    // a finger moves at most this far between two events in the recordings
+    private static final float MAX_STEP = 40f;
+
+    /**
+     * One finger pulls 200px, not far enough to refresh.
+     */
+    private static final float[][] SINGLE_FINGER = {
+            { DOWN, 0, 200, 100 },
+            { MOVE, 0, 200, 140 },
+            { MOVE, 0, 200, 180 },
+            { MOVE, 0, 200, 220 },
+            { MOVE, 0, 200, 260 },
+            { MOVE, 0, 200, 300 },
+    };
+
+    /**
+     * One finger pulls 100px, a second lands 600px further down and the
+     * first is lifted. Only 100px were ever pulled.
+     */
+    private static final float[][] SECOND_FINGER_TAKES_OVER = {
+            { DOWN, 0, 200, 100 },
+            { MOVE, 0, 200, 140 },
+            { MOVE, 0, 200, 170 },
+            { MOVE, 0, 200, 200 },
+            { POINTER_DOWN, 1, 300, 800 },
+            { MOVE, 1, 300, 810 },
+            { POINTER_UP, 0, 200, 200 },
+            { MOVE, 1, 300, 800 },
+            { MOVE, 1, 300, 790 },
+    };
+
+    /**
+     * A second finger taps and lifts while the first keeps pulling, with
+     * both fingers moving in between.
+     */
+    private static final float[][] SECOND_FINGER_TAPS = {
+            { DOWN, 0, 200, 100 },
+            { MOVE, 0, 200, 140 },
+            { POINTER_DOWN, 1, 300, 40 },
+            { MOVE, 1, 300, 20 },
+            { MOVE, 1, 300, 0 },
+            { POINTER_UP, 1, 300, 0 },
+            { MOVE, 0, 200, 180 },
+            { MOVE, 0, 200, 220 },
+    };
+
+    /**
+     * A pinch, the fingers moving apart then one being lifted. Doesn't pull
+     * far enough to refresh.
+     */
+    private static final float[][] PINCH = {
+            { DOWN, 0, 200, 400 },
+            { POINTER_DOWN, 1, 200, 420 },
+            { MOVE, 0, 200, 380 },
+            { MOVE, 1, 200, 440 },
+            { MOVE, 0, 200, 360 },
+            { MOVE, 1, 200, 460 },
+            { POINTER_UP, 1, 200, 460 },
+            { MOVE, 0, 200, 340 },
+    };
+
+    @Test
+    public void singleFingerPullsByItsDistance() throws Exception {
+        final Replay replay = new Replay(SINGLE_FINGER);
+        assertEquals(-100, replay.lastScrollValue);
+        assertFalse(replay.refreshed);
+    }
+
+    @Test
+    public void secondFingerTakingOverDoesNotJump() throws Exception {
+        final Replay replay = new Replay(SECOND_FINGER_TAKES_OVER);
+        assertSmooth(replay);
+        // 100px, then the new finger goes 10px down and 20px back up
+        assertEquals(-45, replay.lastScrollValue);
+        assertFalse(replay.refreshed);
+        assertEquals(1, replay.tracker.getActivePointerId());
+    }
+
+    @Test
+    public void secondFingerTakingOverWouldRefreshWithoutTracking() throws Exception {
+        // Following whichever pointer is first in the event, as before
+        final Replay replay = new Replay(SECOND_FINGER_TAKES_OVER, true);
+        assertTrue(replay.refreshed);
+    }
+
+    @Test
+    public void tapOfSecondFingerHandsBackToFirst() throws Exception {
+        final Replay replay = new Replay(SECOND_FINGER_TAPS);
+        assertSmooth(replay);
+        assertEquals(0, replay.tracker.getActivePointerId());
+        // 40px pulled before the tap, 40px of that undone by the tapping
+        // finger moving up, then 80px more
+        assertEquals(-40, replay.lastScrollValue);
+    }
+
+    @Test
+    public void pinchDoesNotPull() throws Exception {
+        final Replay replay = new Replay(PINCH);
+        assertSmooth(replay);
+        assertFalse(replay.refreshed);
+    }
+
+    @Test
+    public void handOverKeepsInitialToLastDistance() throws Exception {
+        final DragTracker tracker = new DragTracker();
+        tracker.onDown(0, 10, 100);
+        tracker.onMove(10, 130);
+        tracker.markLast();
+        tracker.onPointerDown(1, 50, 500);
+
+        assertEquals(30f, tracker.getLastY() - tracker.getInitialY(), 0f);
+        assertEquals(500f, tracker.getY(), 0f);
+        assertTrue(tracker.onPointerUp(1, 0, 10, 130));
+        assertFalse(tracker.onPointerUp(1, 0, 10, 130));
+        assertEquals(30f, tracker.getLastY() - tracker.getInitialY(), 0f);
+    }
+
+    private static void assertSmooth(Replay replay) {
+        assertTrue("pull jumped by " + replay.maxJump, replay.maxJump <= MAX_STEP / FRICTION);
+    }
+
+    /**
+     * Plays a recording as the MotionEvents a widget would get, pulling from
+     * the start. Each row is { action, pointer id, x, y }; a MOVE row moves
+     * one finger, the others staying where they are.
+     */
+    private static final class Replay {
+        final DragTracker tracker = new DragTracker();
+        // ids of the fingers which are down, in pointer index order
+        final ArrayList<Integer> ids = new ArrayList<Integer>();
+        final ArrayList<float[]> positions = new ArrayList<float[]>();
+
+        int lastScrollValue = 0;
+        float maxJump = 0;
+        boolean refreshed = false;
+
+        Replay(float[][] recording) {
+            this(recording, false);
+        }
+
+        Replay(float[][] recording, boolean followFirstPointer) {
+            for (float[] row : recording) {
+                final int action = (int) row[0];
+                final int id = (int) row[1];
+                final float x = row[2], y = row[3];
+
+                switch (action) {
+                    case DOWN:
+                        ids.add(id);
+                        positions.add(new float[] { x, y });
+                        tracker.onDown(id, x, y);
+                        break;
+                    case POINTER_DOWN: {
+                        int index = 0;
+                        while (index < ids.size() && ids.get(index) < id) {
+                            index++;
+                        }
+                        ids.add(index, id);
+                        positions.add(index, new float[] { x, y });
+                        if (!followFirstPointer) {
+                            tracker.onPointerDown(id, x, y);
+                        }
+                        break;
+                    }
+                    case POINTER_UP: {
+                        final int index = ids.indexOf(id);
+                        final int newIndex = index == 0 ? 1 : 0;
+                        if (!followFirstPointer) {
+                            final float[] position = positions.get(newIndex);
+                            tracker.onPointerUp(id, ids.get(newIndex), position[0], position[1]);
+                        }
+                        ids.remove(index);
+                        positions.remove(index);
+                        if (followFirstPointer) {
+                            move(positions.get(0));
+                        }
+                        break;
+                    }
+                    case MOVE: {
+                        final float[] position = positions.get(ids.indexOf(id));
+                        position[0] = x;
+                        position[1] = y;
+                        if (followFirstPointer) {
+                            move(positions.get(0));
+                        } else {
+                            final int index = ids.indexOf(tracker.getActivePointerId());
+                            if (index >= 0) {
+                                move(positions.get(index));
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void move(float[] position) {
+            tracker.onMove(position[0], position[1]);
+            tracker.markLast();
+
+            final int scrollValue = PullMath.pullScrollValue(tracker.getInitialY(), tracker.getLastY(), false,
+                    FRICTION);
+            maxJump = Math.max(maxJump, Math.abs(scrollValue - lastScrollValue));
+            lastScrollValue = scrollValue;
+            if (PullMath.isPastRefreshThreshold(scrollValue, HEADER_SIZE)) {
+                refreshed = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import cn.isif.widget.library.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link ScrollAnimator} frame by frame through a driver which only
+ * records what was posted.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ScrollAnimatorTest {
+
+    private static final long FRAME_NANOS = 16000000L;
+
+    private RecordingDriver driver;
+    private ScrollAnimator animator;
+    private ScrollAnimator.Callback onUpdate;
+    private int lastValue;
+    private int finished;
+
+    @Before
+    public void setUp() throws Exception {
+        driver = new RecordingDriver();
+        animator = new ScrollAnimator(new ScrollAnimator.Callback() {
+            @Override
+            public void onAnimationUpdate(int value) {
+                lastValue = value;
+                if (null != onUpdate) {
+                    onUpdate.onAnimationUpdate(value);
+                }
+            }
+
+            @Override
+            public void onAnimationFinished() {
+                finished++;
+            }
+        }, driver);
+    }
+
+    @Test
+    public void runsToTheEndAndFinishesOnce() throws Exception {
+        animator.start(-100, 0, 48);
+        runFrames(0);
+
+        assertEquals(0, lastValue);
+        assertEquals(1, finished);
+        assertFalse(animator.isRunning());
+    }
+
+    @Test
+    public void restartFromTheLastUpdateIsNotFinished() throws Exception {
+        onUpdate = new ScrollAnimator.Callback() {
+            @Override
+            public void onAnimationUpdate(int value) {
+                if (value == 0) {
+                    onUpdate = null;
+                    animator.start(0, 100, 48);
+                }
+            }
+
+            @Override
+            public void onAnimationFinished() {
+            }
+        };
+        animator.start(-100, 0, 48);
+
+        // the first animation's last frame
+        long frameTime = 0;
+        for (int i = 0; i < 4; i++) {
+            animator.doFrame(frameTime);
+            frameTime += FRAME_NANOS;
+        }
+        assertTrue(animator.isRunning());
+        assertEquals(0, finished);
+
+        runFrames(frameTime);
+        assertEquals(100, lastValue);
+        assertEquals(1, finished);
+    }
+
+    @Test
+    public void cancelFromAnUpdateStopsWithoutFinishing() throws Exception {
+        onUpdate = new ScrollAnimator.Callback() {
+            @Override
+            public void onAnimationUpdate(int value) {
+                animator.cancel();
+            }
+
+            @Override
+            public void onAnimationFinished() {
+            }
+        };
+        animator.start(-100, 0, 48);
+        animator.doFrame(0);
+
+        assertFalse(animator.isRunning());
+        assertEquals(0, finished);
+    }
+
+    @Test
+    public void startDelayIsASingleDelayedFrame() throws Exception {
+        animator.start(-100, 0, 48, 500);
+        assertEquals(1, driver.posts);
+        assertEquals(500, driver.lastDelay);
+
+        // the delayed frame starts the clock
+        animator.doFrame(0);
+        assertEquals(-100, lastValue);
+        assertEquals(2, driver.posts);
+        assertEquals(0, driver.lastDelay);
+    }
+
+    @Test
+    public void restartWithoutDelayReplacesADelayedFrame() throws Exception {
+        animator.start(-100, 0, 48, 500);
+        animator.start(-100, 0, 48);
+
+        assertEquals(1, driver.removes);
+        assertEquals(2, driver.posts);
+        assertEquals(0, driver.lastDelay);
+    }
+
+    private void runFrames(long frameTime) {
+        for (int i = 0; animator.isRunning() && i < 100; i++) {
+            animator.doFrame(frameTime);
+            frameTime += FRAME_NANOS;
+        }
+    }
+
+    static final class RecordingDriver implements ScrollAnimator.FrameDriver {
+
+        int posts;
+        int removes;
+        long lastDelay;
+
+        @Override
+        public void postFrame(long delayMillis) {
+            posts++;
+            lastDelay = delayMillis;
+        }
+
+        @Override
+        public void removeFrame() {
+            removes++;
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package cn.isif.widget.library.pulltorefresh.internal;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpringIntegratorTest {
+
+    private static final float FRAME_SECONDS = 1f / 60f;
+    private static final int MAX_FRAMES = 600;
+
+    @Test
+    public void settlesAtTarget() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.start(300f, 0f, 0f);
+
+        int frames = run(spring, 300f, 0f);
+
+        assertTrue(frames < MAX_FRAMES);
+        assertTrue(spring.isAtRest());
+        assertEquals(0f, spring.getValue(), 0f);
+        assertEquals(0f, spring.getVelocity(), 0f);
+    }
+
+    @Test
+    public void flickSettlesInFewerFrames() throws Exception {
+        SpringIntegrator still = new SpringIntegrator();
+        still.start(300f, 0f, 0f);
+
+        SpringIntegrator flick = new SpringIntegrator();
+        flick.start(300f, 0f, -12000f);
+
+        assertTrue(run(flick, 300f, 0f) < run(still, 300f, 0f));
+    }
+
+    @Test
+    public void neverOvershootsTarget() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+
+        // Fast enough that an unclamped spring would cross the target
+        spring.start(-200f, 0f, 50000f);
+        run(spring, -200f, 0f);
+        assertEquals(0f, spring.getValue(), 0f);
+    }
+
+    @Test
+    public void ignoresVelocityAwayFromTarget() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.start(100f, 0f, 5000f);
+
+        spring.update(FRAME_SECONDS);
+        assertTrue(spring.getValue() <= 100f);
+    }
+
+    @Test
+    public void isDeterministicForElapsedTime() throws Exception {
+        SpringIntegrator a = new SpringIntegrator();
+        a.start(250f, 40f, -800f);
+        for (int i = 1; i <= 6; i++) {
+            a.update(i * FRAME_SECONDS);
+        }
+
+        // Same elapsed time with dropped frames in between
+        SpringIntegrator b = new SpringIntegrator();
+        b.start(250f, 40f, -800f);
+        b.update(6 * FRAME_SECONDS);
+
+        assertEquals(a.getValue(), b.getValue(), 0f);
+        assertEquals(a.getVelocity(), b.getVelocity(), 0f);
+    }
+
+    @Test
+    public void startingAtTargetIsAtRest() throws Exception {
+        SpringIntegrator spring = new SpringIntegrator();
+        spring.start(10f, 10f, 300f);
+
+        assertTrue(spring.isAtRest());
+        assertTrue(spring.update(FRAME_SECONDS));
+        assertEquals(10f, spring.getValue(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveStiffness() throws Exception {
+        new SpringIntegrator(0f);
+    }
+
+    /**
+     * Steps the spring a frame at a time, checking that it stays between
+     * <var>from</var> and <var>to</var>.
+     *
+     * @return number of frames taken to come to rest
+     */
+    private static int run(SpringIntegrator spring, float from, float to) {
+        final float min = Math.min(from, to), max = Math.max(from, to);
+        int frames = 0;
+        while (!spring.update(++frames * FRAME_SECONDS) && frames < MAX_FRAMES) {
+            assertTrue("Value left bounds: " + spring.getValue(),
+                    spring.getValue() >= min && spring.getValue() <= max);
+        }
+        return frames;
+    }
+
+}